@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.imsweb.layout.LayoutFactory;
+import com.imsweb.layout.record.fixed.naaccr.NaaccrLayout;
+import com.imsweb.validation.ConstructionException;
+import com.imsweb.validation.InitializationOptions;
+import com.imsweb.validation.TestingUtils;
+import com.imsweb.validation.ValidationContextFunctions;
+import com.imsweb.validation.ValidationEngine;
+import com.imsweb.validation.ValidationException;
+import com.imsweb.validation.edits.seer.SeerRuntimeEdits;
+import com.imsweb.validation.edits.translated.naaccr.NaaccrTranslatedRuntimeEdits;
+import com.imsweb.validation.entities.SimpleMapValidatable;
+import com.imsweb.validation.entities.SimpleNaaccrLinesValidatable;
+import com.imsweb.validation.entities.Validatable;
+import com.imsweb.validation.functions.MetafileContextFunctions;
+import com.imsweb.validation.functions.StagingContextFunctions;
+
+/**
+ * Measures how many records per second the engine can validate with the SEER and the translated NAACCR edits, using the synthetic NAACCR data of the tests.
+ * <br/><br/>
+ * Each operation validates a single record; run with the "gc" profiler (the default in the build) to get the allocations per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EngineBenchmark {
+
+    /**
+     * Edits to run
+     */
+    @Param({"SEER", "NAACCR"})
+    public String edits;
+
+    /**
+     * Type of validatable to validate
+     */
+    @Param({"NAACCR_LINES", "MAP"})
+    public String validatableType;
+
+    private ValidationEngine _engine;
+
+    private List<Validatable> _validatables;
+
+    private int _index;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, ConstructionException {
+        TestingUtils.init();
+
+        _engine = new ValidationEngine();
+        InitializationOptions options = new InitializationOptions();
+        if ("SEER".equals(edits)) {
+            ValidationContextFunctions.initialize(new StagingContextFunctions(TestingUtils.getCsStaging(), TestingUtils.getTnmStaging(), TestingUtils.getEodStaging()));
+            _engine.initialize(options, SeerRuntimeEdits.loadValidator());
+        }
+        else {
+            ValidationContextFunctions.initialize(new MetafileContextFunctions(TestingUtils.getCsStaging(), TestingUtils.getTnmStaging(), TestingUtils.getEodStaging()));
+            _engine.initialize(options, NaaccrTranslatedRuntimeEdits.loadValidator());
+        }
+
+        // the translated edits expect to see the leading/trailing spaces, so the records are not trimmed for them
+        boolean untrimmed = "NAACCR".equals(edits);
+        _validatables = new ArrayList<>();
+        for (Map<String, String> rec : readRecords()) {
+            if ("MAP".equals(validatableType)) {
+                Map<String, Object> root = new HashMap<>();
+                root.put("line", Collections.singletonList(new HashMap<String, Object>(rec)));
+                _validatables.add(new SimpleMapValidatable(rec.get("patientIdNumber"), "lines", root));
+            }
+            else
+                _validatables.add(new SimpleNaaccrLinesValidatable(Collections.singletonList(rec), null, untrimmed));
+        }
+    }
+
+    @Benchmark
+    public void validate(Blackhole blackhole) throws ValidationException {
+        Validatable validatable = _validatables.get(_index);
+        _index = (_index + 1) % _validatables.size();
+        blackhole.consume(_engine.validate(validatable));
+    }
+
+    @Benchmark
+    public void validateWithListener(Blackhole blackhole) throws ValidationException {
+        Validatable validatable = _validatables.get(_index);
+        _index = (_index + 1) % _validatables.size();
+        _engine.validate(validatable, blackhole::consume);
+    }
+
+    static List<Map<String, String>> readRecords() throws IOException {
+        File dataFile = new File(TestingUtils.getWorkingDirectory() + "/src/test/resources/data/synthetic-data_naaccr-18-incidence_5-records.txt");
+        NaaccrLayout layout = LayoutFactory.getNaaccrFixedColumnsLayout(LayoutFactory.LAYOUT_ID_NAACCR_18_INCIDENCE);
+
+        List<Map<String, String>> records = new ArrayList<>();
+        try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(new FileInputStream(dataFile), StandardCharsets.UTF_8))) {
+            Map<String, String> rec = layout.readNextRecord(reader);
+            while (rec != null) {
+                records.add(rec);
+                rec = layout.readNextRecord(reader);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import groovy.lang.Binding;
+
+import com.imsweb.validation.ConstructionException;
+import com.imsweb.validation.TestingUtils;
+import com.imsweb.validation.ValidationContextFunctions;
+import com.imsweb.validation.ValidationEngine;
+import com.imsweb.validation.ValidationException;
+import com.imsweb.validation.entities.Rule;
+import com.imsweb.validation.entities.SimpleMapValidatable;
+import com.imsweb.validation.entities.Validatable;
+import com.imsweb.validation.entities.Validator;
+import com.imsweb.validation.internal.ExecutableRule;
+import com.imsweb.validation.runtime.RuntimeUtils;
+import com.imsweb.validation.runtime.validator.FakeRuntimeEdits;
+
+/**
+ * Measures the cost of executing a single edit (<code>ExecutableRule.validate</code>), either as a Groovy script or as a pre-compiled method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutableRuleBenchmark {
+
+    /**
+     * How the edit is executed
+     */
+    @Param({"GROOVY", "PRE_COMPILED"})
+    public String execution;
+
+    private ExecutableRule _rule;
+
+    private Validatable _validatable;
+
+    private Binding _binding;
+
+    @Setup(Level.Trial)
+    public void setup() throws ConstructionException {
+        TestingUtils.init();
+
+        Validator validator = FakeRuntimeEdits.getValidator();
+        Rule rule = validator.getRule("fvrt-rule1");
+        if ("PRE_COMPILED".equals(execution))
+            _rule = new ExecutableRule(rule, RuntimeUtils.findCompileRules(validator, null), null);
+        else
+            _rule = new ExecutableRule(rule);
+
+        Map<String, Object> entity = new HashMap<>();
+        entity.put("key", "value");
+        _validatable = new SimpleMapValidatable("ID", "runtime", entity);
+
+        // same binding as the one built by the processors
+        _binding = new Binding();
+        _binding.setVariable(ValidationEngine.VALIDATOR_FUNCTIONS_KEY, ValidationContextFunctions.getInstance());
+        _binding.setVariable(ValidationEngine.VALIDATOR_CONTEXT_KEY, new HashMap<String, Object>());
+        for (Entry<String, Object> entry : _validatable.getScope().entrySet())
+            _binding.setVariable(entry.getKey(), entry.getValue());
+    }
+
+    @Benchmark
+    public boolean validate() throws ValidationException {
+        return _rule.validate(_validatable, _binding);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.imsweb.validation.TestingUtils;
+import com.imsweb.validation.ValidationServices;
+import com.imsweb.validation.entities.SimpleNaaccrLinesValidatable;
+import com.imsweb.validation.entities.Validatable;
+
+/**
+ * Measures the cost of building the message of a failure (<code>ValidationServices.fillInMessage</code>), which is done for every failing edit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FillInMessageBenchmark {
+
+    /**
+     * Message to fill in
+     */
+    @Param({"Primary Site is not valid", "Primary Site ${line.primarySite} and Histology ${line.histologicTypeIcdO3} are not compatible",
+            "Date of Diagnosis ${line.dateOfDiagnosis.formatDate()} is after the Date of Last Contact ${line.dateOfLastContact.formatDate()}"})
+    public String message;
+
+    private Validatable _validatable;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TestingUtils.init();
+
+        Map<String, String> rec = new HashMap<>();
+        rec.put("primarySite", "C509");
+        rec.put("histologicTypeIcdO3", "8500");
+        rec.put("dateOfDiagnosis", "20210115");
+        rec.put("dateOfLastContact", "2020");
+        _validatable = new SimpleNaaccrLinesValidatable(rec);
+    }
+
+    @Benchmark
+    public String fillInMessage() {
+        return ValidationServices.getInstance().fillInMessage(message, _validatable);
+    }
+}
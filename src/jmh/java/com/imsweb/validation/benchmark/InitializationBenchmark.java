@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.imsweb.validation.InitializationOptions;
+import com.imsweb.validation.InitializationStats;
+import com.imsweb.validation.TestingUtils;
+import com.imsweb.validation.ValidationContextFunctions;
+import com.imsweb.validation.ValidationEngine;
+import com.imsweb.validation.edits.seer.SeerRuntimeEdits;
+import com.imsweb.validation.edits.translated.naaccr.NaaccrTranslatedRuntimeEdits;
+import com.imsweb.validation.entities.Validator;
+import com.imsweb.validation.functions.MetafileContextFunctions;
+import com.imsweb.validation.functions.StagingContextFunctions;
+import com.imsweb.validation.runtime.validator.FakeRuntimeEdits;
+
+/**
+ * Measures the initialization of the engine (loading the validator from XML included) for each bundled validator.
+ * <br/><br/>
+ * The "cold" benchmark runs a single initialization in a brand-new JVM (so nothing is loaded or JIT-compiled yet), which is what an application sees at startup;
+ * the "warm" benchmark repeats the initialization in the same JVM. The per-phase timings of the last initialization are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InitializationBenchmark {
+
+    /**
+     * Validator to initialize
+     */
+    @Param({"SEER", "NAACCR", "FAKE"})
+    public String validator;
+
+    /**
+     * Whether the pre-compiled edits should be used
+     */
+    @Param({"true", "false"})
+    public boolean preCompiled;
+
+    private InitializationStats _stats;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TestingUtils.init();
+
+        if ("NAACCR".equals(validator))
+            ValidationContextFunctions.initialize(new MetafileContextFunctions(TestingUtils.getCsStaging(), TestingUtils.getTnmStaging(), TestingUtils.getEodStaging()));
+        else
+            ValidationContextFunctions.initialize(new StagingContextFunctions(TestingUtils.getCsStaging(), TestingUtils.getTnmStaging(), TestingUtils.getEodStaging()));
+    }
+
+    @Benchmark
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(5)
+    public InitializationStats coldInitialization() throws Exception {
+        return initialize();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    @Fork(1)
+    public InitializationStats warmInitialization() throws Exception {
+        return initialize();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (_stats != null)
+            System.out.println("\n" + validator + " (pre-compiled: " + preCompiled + ") - total: " + _stats.getInitializationDuration() + "ms, XML parsing: " + _stats.getXmlParsingDuration()
+                    + "ms, edits parsing: " + _stats.getRulesParsingDuration() + "ms, compilation: " + _stats.getCompilationDuration() + "ms, pre-compiled lookup: "
+                    + _stats.getPreCompiledLookupDuration() + "ms, contexts: " + _stats.getContextEvaluationDuration() + "ms, dependencies sorting: "
+                    + _stats.getDependenciesSortingDuration() + "ms, processors population: " + _stats.getProcessorsPopulationDuration() + "ms");
+    }
+
+    private InitializationStats initialize() throws Exception {
+        Validator v = switch (validator) {
+            case "SEER" -> SeerRuntimeEdits.loadValidator();
+            case "NAACCR" -> NaaccrTranslatedRuntimeEdits.loadValidator();
+            default -> FakeRuntimeEdits.getValidator();
+        };
+
+        InitializationOptions options = new InitializationOptions();
+        if (!preCompiled)
+            options.disablePreCompiledEdits();
+
+        // a new engine is used every time so nothing is re-used from a previous initialization
+        _stats = new ValidationEngine().initialize(options, v);
+
+        return _stats;
+    }
+}
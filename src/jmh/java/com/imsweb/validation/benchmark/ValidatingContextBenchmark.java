@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.imsweb.validation.ConstructionException;
+import com.imsweb.validation.TestingUtils;
+import com.imsweb.validation.ValidatingContext;
+import com.imsweb.validation.entities.Rule;
+import com.imsweb.validation.internal.ExecutableRule;
+import com.imsweb.validation.internal.LevelFailures;
+import com.imsweb.validation.internal.OrdinalRegistry;
+
+/**
+ * Measures the bookkeeping done by the validating context for a single record: tracking the failures of each level, checking the dependencies, computing
+ * the failed IDs (only done when they are requested) and reporting the edits durations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatingContextBenchmark {
+
+    /**
+     * Number of edits per level
+     */
+    @Param({"100", "1500"})
+    public int numEdits;
+
+    /**
+     * Number of child levels (for example the tumors of a patient)
+     */
+    @Param({"1", "10"})
+    public int numChildren;
+
+    private List<ExecutableRule> _rules;
+
+    @Setup(Level.Trial)
+    public void setup() throws ConstructionException {
+        TestingUtils.init();
+
+        OrdinalRegistry ruleOrdinals = new OrdinalRegistry();
+        OrdinalRegistry conditionOrdinals = new OrdinalRegistry();
+        _rules = new ArrayList<>();
+        for (int i = 0; i < numEdits; i++) {
+            Rule rule = new Rule();
+            rule.setId("rule-" + i);
+            rule.setJavaPath("level1");
+            rule.setExpression("return true");
+            if (i > 0)
+                rule.setDependencies(Set.of("rule-" + (i - 1)));
+            ExecutableRule execRule = new ExecutableRule(rule);
+            execRule.computeOrdinals(ruleOrdinals, conditionOrdinals);
+            _rules.add(execRule);
+        }
+    }
+
+    @Benchmark
+    public void trackFailures(Blackhole blackhole) {
+        LevelFailures root = new LevelFailures("level1", null);
+        root.trackRules(_rules);
+        for (int i = 0; i < _rules.size(); i += 10)
+            root.reportRuleFailure(_rules.get(i));
+        for (int child = 0; child < numChildren; child++) {
+            LevelFailures failures = new LevelFailures("level1.level2[" + child + "]", root);
+            failures.trackRules(_rules);
+            for (ExecutableRule rule : _rules)
+                if (!failures.atLeastOneDependencyFailed(rule.getDependencyMask()) && rule.getOrdinal() % 7 == 0)
+                    failures.reportRuleFailure(rule);
+            blackhole.consume(failures);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> computeFailedIds() {
+        ValidatingContext context = new ValidatingContext();
+        LevelFailures root = new LevelFailures("level1", null);
+        root.trackRules(_rules);
+        context.reportLevelFailures(root);
+        for (int child = 0; child < numChildren; child++) {
+            LevelFailures failures = new LevelFailures("level1.level2[" + child + "]", root);
+            failures.trackRules(_rules);
+            for (int i = child; i < _rules.size(); i += 10)
+                failures.reportRuleFailure(_rules.get(i));
+            context.reportLevelFailures(failures);
+        }
+        return context.getFailedRuleIds();
+    }
+
+    @Benchmark
+    public Map<String, Long> reportEditDurations() {
+        ValidatingContext context = new ValidatingContext();
+        for (int child = 0; child < numChildren; child++)
+            for (ExecutableRule rule : _rules)
+                context.reportEditDuration(rule.getJavaPath(), rule.getId(), 1000L);
+        return context.getEditDurations();
+    }
+}
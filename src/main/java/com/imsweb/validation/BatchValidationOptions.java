@@ -0,0 +1,65 @@
+package com.imsweb.validation;
+
+/**
+ * Use an instance of this class to provide options to the batch validation methods of the engine (see {@link ValidationEngine#validateAll}).
+ */
+public class BatchValidationOptions {
+
+    // the number of validatables validated at the same time (defaults to the number of available processors); this also applies to virtual threads
+    private int _numThreads;
+
+    // whether or not virtual threads should be used instead of a fixed pool of platform threads (defaults to false)
+    private boolean _virtualThreadsEnabled;
+
+    // whether or not the results must be handed to the sink in the same order as the validatables (defaults to false)
+    private boolean _preserveOrder;
+
+    // the maximum number of validatables that can be submitted but not handed to the sink yet (defaults to 4 times the number of threads)
+    private int _maxPendingValidatables;
+
+    /**
+     * Constructor.
+     */
+    public BatchValidationOptions() {
+        _numThreads = Runtime.getRuntime().availableProcessors();
+        _virtualThreadsEnabled = false;
+        _preserveOrder = false;
+        _maxPendingValidatables = -1;
+    }
+
+    public void setNumThreads(int n) {
+        if (n < 1 || n > 256)
+            throw new IllegalStateException("Number of threads must be between 1 and 256");
+        _numThreads = n;
+    }
+
+    public int getNumThreads() {
+        return _numThreads;
+    }
+
+    public void enableVirtualThreads() {
+        _virtualThreadsEnabled = true;
+    }
+
+    public boolean isVirtualThreadsEnabled() {
+        return _virtualThreadsEnabled;
+    }
+
+    public void enablePreserveOrder() {
+        _preserveOrder = true;
+    }
+
+    public boolean isPreserveOrder() {
+        return _preserveOrder;
+    }
+
+    public void setMaxPendingValidatables(int n) {
+        if (n < 1)
+            throw new IllegalStateException("Maximum number of pending validatables must be at least 1");
+        _maxPendingValidatables = n;
+    }
+
+    public int getMaxPendingValidatables() {
+        return _maxPendingValidatables == -1 ? _numThreads * 4 : _maxPendingValidatables;
+    }
+}
@@ -0,0 +1,23 @@
+package com.imsweb.validation;
+
+import java.util.Collection;
+
+import com.imsweb.validation.entities.RuleFailure;
+import com.imsweb.validation.entities.Validatable;
+
+/**
+ * Receives the results of a batch validation (see {@link ValidationEngine#validateAll}).
+ * <br/><br/>
+ * The sink is always called from the thread that invoked the batch validation, one validatable at a time; implementations don't need to be thread-safe.
+ */
+@FunctionalInterface
+public interface BatchValidationSink {
+
+    /**
+     * Called once for every validated validatable.
+     * @param validatable the validated validatable
+     * @param failures the failures returned by the validation, maybe empty but never null
+     * @throws ValidationException if the results can't be handled; that will stop the batch validation
+     */
+    void validated(Validatable validatable, Collection<RuleFailure> failures) throws ValidationException;
+}
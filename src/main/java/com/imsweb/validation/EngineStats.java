@@ -3,13 +3,37 @@
  */
 package com.imsweb.validation;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * This class encapsulates the notion of a single statistics (for example the statistics for a single edit).
  * <p/>
+ * The durations are recorded in nanoseconds, without any lock (several threads can report durations for the same statistics at the same time). On top of
+ * the number of runs and the total/longest/shortest durations, a histogram of the durations is maintained so percentiles can be computed; the histogram uses
+ * four buckets per power of two, so a percentile is accurate within 25%.
+ * <p/>
  * Created on Feb 23, 2011 by depryf
  */
 public class EngineStats {
 
+    /**
+     * Number of sub-buckets per power of two (as a number of bits)
+     */
+    private static final int _SUB_BUCKET_BITS = 2;
+
+    /**
+     * Highest power of two tracked by the histogram (2^40 nanoseconds is about 18 minutes); longer durations are counted in the last bucket
+     */
+    private static final int _MAX_EXPONENT = 40;
+
+    /**
+     * Number of buckets in the histogram (the last one is for the durations longer than the highest power of two)
+     */
+    private static final int _NUM_BUCKETS = (1 << (_SUB_BUCKET_BITS + 1)) + (_MAX_EXPONENT - _SUB_BUCKET_BITS) * (1 << _SUB_BUCKET_BITS) + 1;
+
     /**
      * ID for this DTO (can represent anything - polisher ID, registry coding task ID, auto-cons rule ID, etc...)
      */
@@ -18,41 +42,81 @@ public class EngineStats {
     /**
      * Number of run
      */
-    private long _numRun;
+    private final LongAdder _numRun;
+
+    /**
+     * Total time (in nanoseconds)
+     */
+    private final LongAdder _totalTime;
 
     /**
-     * Total time
+     * Longest run time (in nanoseconds)
      */
-    private long _totalTime;
+    private final LongAccumulator _longestTime;
 
     /**
-     * Longest run time
+     * Shortest run time (in nanoseconds), Long.MAX_VALUE if nothing was reported yet
      */
-    private long _longestTime;
+    private final LongAccumulator _shortestTime;
 
     /**
-     * Shortest run time
+     * Number of runs per duration bucket
      */
-    private long _shortestTime;
+    private final AtomicLongArray _histogram;
 
     /**
      * Constructor.
      */
     public EngineStats(String id) {
         _id = id;
-        _numRun = 0;
-        _totalTime = 0;
-        _longestTime = 0;
-        _shortestTime = 0;
+        _numRun = new LongAdder();
+        _totalTime = new LongAdder();
+        _longestTime = new LongAccumulator(Math::max, 0L);
+        _shortestTime = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        _histogram = new AtomicLongArray(_NUM_BUCKETS);
+    }
+
+    /**
+     * Constructor; creates a copy of the provided statistics.
+     */
+    public EngineStats(EngineStats stats) {
+        this(stats, 1.0);
+    }
+
+    /**
+     * Constructor; creates a copy of the provided statistics, extrapolated with the provided factor (the number of runs, the total time and the histogram
+     * counts are multiplied by the factor, the longest/shortest times are copied as-is).
+     */
+    public EngineStats(EngineStats stats, double factor) {
+        this(stats._id);
+        _numRun.add(Math.round(stats._numRun.sum() * factor));
+        _totalTime.add(Math.round(stats._totalTime.sum() * factor));
+        _longestTime.accumulate(stats._longestTime.get());
+        _shortestTime.accumulate(stats._shortestTime.get());
+        for (int i = 0; i < _NUM_BUCKETS; i++)
+            _histogram.set(i, Math.round(stats._histogram.get(i) * factor));
     }
 
+    /**
+     * Reports a run.
+     * @param duration duration of the run, in milliseconds
+     */
     public void reportStat(long duration) {
-        _numRun++;
-        _totalTime += duration;
-        if (duration > _longestTime)
-            _longestTime = duration;
-        if ((duration < _shortestTime || _shortestTime == 0) && duration > 0)
-            _shortestTime = duration;
+        reportStatNanos(TimeUnit.MILLISECONDS.toNanos(duration));
+    }
+
+    /**
+     * Reports a run.
+     * @param duration duration of the run, in nanoseconds
+     */
+    public void reportStatNanos(long duration) {
+        if (duration < 0)
+            duration = 0;
+        _numRun.increment();
+        _totalTime.add(duration);
+        _longestTime.accumulate(duration);
+        _shortestTime.accumulate(duration);
+        _histogram.incrementAndGet(getBucket(duration));
     }
 
     /**
@@ -72,36 +136,140 @@ public class EngineStats {
      * @return number of run
      */
     public long getNumRun() {
-        return _numRun;
+        return _numRun.sum();
     }
 
     /**
      * Getter.
      * <p/>
      * Created on Feb 23, 2011 by depryf
-     * @return total time
+     * @return total time, in milliseconds
      */
     public long getTotalTime() {
-        return _totalTime;
+        return TimeUnit.NANOSECONDS.toMillis(getTotalTimeNanos());
     }
 
     /**
      * Getter.
      * <p/>
      * Created on Feb 23, 2011 by depryf
-     * @return longest time
+     * @return longest time, in milliseconds
      */
     public long getLongestTime() {
-        return _longestTime;
+        return TimeUnit.NANOSECONDS.toMillis(getLongestTimeNanos());
     }
 
     /**
      * Getter.
      * <p/>
+     * The runs shorter than a millisecond are not ignored anymore, so 0 is a valid shortest time (it is also returned if nothing was reported, see getNumRun()).
+     * <p/>
      * Created on Feb 23, 2011 by depryf
-     * @return shortest time
+     * @return shortest time, in milliseconds
      */
     public long getShortestTime() {
-        return _shortestTime;
+        return TimeUnit.NANOSECONDS.toMillis(getShortestTimeNanos());
+    }
+
+    /**
+     * Getter.
+     * @return total time, in nanoseconds
+     */
+    public long getTotalTimeNanos() {
+        return _totalTime.sum();
+    }
+
+    /**
+     * Getter.
+     * @return longest time, in nanoseconds
+     */
+    public long getLongestTimeNanos() {
+        return _longestTime.get();
+    }
+
+    /**
+     * Getter.
+     * <p/>
+     * Every run is taken into account, including the ones reported with a 0 duration; so 0 is a valid shortest time (it is also returned if nothing was reported).
+     * @return shortest time, in nanoseconds (0 if nothing was reported)
+     */
+    public long getShortestTimeNanos() {
+        long shortest = _shortestTime.get();
+        return shortest == Long.MAX_VALUE ? 0L : shortest;
+    }
+
+    /**
+     * Returns the median duration.
+     * @return the median duration, in nanoseconds
+     */
+    public long getP50Nanos() {
+        return getPercentileNanos(50);
+    }
+
+    /**
+     * Returns the 99th percentile of the durations.
+     * @return the 99th percentile, in nanoseconds
+     */
+    public long getP99Nanos() {
+        return getPercentileNanos(99);
+    }
+
+    /**
+     * Returns the requested percentile of the durations; the returned value is the upper bound of the histogram bucket containing the percentile, kept between
+     * the shortest and the longest durations.
+     * @param percentile requested percentile, between 0 and 100
+     * @return the percentile, in nanoseconds (0 if nothing was reported)
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+
+        long[] counts = new long[_NUM_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < _NUM_BUCKETS; i++) {
+            counts[i] = _histogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0)
+            return 0L;
+
+        long rank = Math.max(1L, (long)Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < _NUM_BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.max(Math.min(getBucketUpperBound(i), getLongestTimeNanos()), getShortestTimeNanos());
+        }
+
+        return getLongestTimeNanos();
+    }
+
+    /**
+     * Returns the histogram bucket for the provided duration; small durations get their own bucket, the other ones are grouped by power of two and then
+     * split in sub-buckets.
+     */
+    static int getBucket(long duration) {
+        if (duration < (1L << (_SUB_BUCKET_BITS + 1)))
+            return (int)duration;
+        int exponent = 63 - Long.numberOfLeadingZeros(duration);
+        if (exponent > _MAX_EXPONENT)
+            return _NUM_BUCKETS - 1;
+        int subBucket = (int)(duration >>> (exponent - _SUB_BUCKET_BITS)) & ((1 << _SUB_BUCKET_BITS) - 1);
+        return (1 << (_SUB_BUCKET_BITS + 1)) + (exponent - _SUB_BUCKET_BITS - 1) * (1 << _SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * Returns the highest duration (inclusive) that falls into the provided bucket.
+     */
+    static long getBucketUpperBound(int bucket) {
+        int firstBuckets = 1 << (_SUB_BUCKET_BITS + 1);
+        if (bucket < firstBuckets)
+            return bucket;
+        if (bucket == _NUM_BUCKETS - 1)
+            return Long.MAX_VALUE;
+        int exponent = (bucket - firstBuckets) / (1 << _SUB_BUCKET_BITS) + _SUB_BUCKET_BITS + 1;
+        int subBucket = (bucket - firstBuckets) % (1 << _SUB_BUCKET_BITS);
+        long width = 1L << (exponent - _SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
     }
 }
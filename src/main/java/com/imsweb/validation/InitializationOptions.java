@@ -1,5 +1,7 @@
 package com.imsweb.validation;
 
+import java.io.File;
+
 /**
  * Use an instance of this class to provide initialization options to the engine.
  */
@@ -8,19 +10,54 @@ public class InitializationOptions {
     // whether or not the engine needs to keep track of edits statistics (defaults to false)
     private boolean _engineStatsEnabled;
 
+    // when the edits statistics are enabled, only one validation out of this number is timed (defaults to 1, meaning every validation is timed)
+    private int _engineStatsSamplingRate;
+
     // the number of threads the engine can use to compile the edits (defaults to 2)
     private int _numCompilationThreads;
 
     // whether or not the engine should use pre-compiled edits if available (defaults to true)
     private boolean _preCompiledEditsEnabled;
 
+    // the maximum number of Groovy Script instances per edit/condition that can be executed concurrently (defaults to 1, meaning the executions are serialized)
+    private int _scriptPoolSize;
+
+    // number of threads used to execute the edits of a single level in parallel (1 means sequential)
+    private int _editsParallelism;
+
+    // number of threads used to process the elements of a collection (for example the tumors of a patient) in parallel (1 means sequential)
+    private int _collectionsParallelism;
+
+    // minimum number of elements for a collection to be processed in parallel
+    private int _collectionsParallelismThreshold;
+
+    // whether the Groovy edits are compiled the first time they are executed instead of during the initialization (defaults to false)
+    private boolean _lazyCompilationEnabled;
+
+    // when the compilation is lazy, whether the edits are compiled in the background after the initialization (defaults to false)
+    private boolean _backgroundCompilationEnabled;
+
+    // directory where the compiled Groovy edits and conditions are persisted (defaults to null, meaning no persistent cache)
+    private File _compiledScriptsCacheDirectory;
+
+    // whether a pre-compiled class is generated for the validators that don't provide one (defaults to false)
+    private boolean _dynamicCompiledRulesEnabled;
+
     /**
      * Constructor.
      */
     public InitializationOptions() {
         _engineStatsEnabled = false;
+        _engineStatsSamplingRate = 1;
         _numCompilationThreads = 2;
         _preCompiledEditsEnabled = true;
+        _scriptPoolSize = 1;
+        _editsParallelism = 1;
+        _collectionsParallelism = 1;
+        _collectionsParallelismThreshold = 4;
+        _lazyCompilationEnabled = false;
+        _backgroundCompilationEnabled = false;
+        _dynamicCompiledRulesEnabled = false;
     }
 
     public void enableEngineStats() {
@@ -31,6 +68,22 @@ public class InitializationOptions {
         return _engineStatsEnabled;
     }
 
+    /**
+     * Sets the sampling rate of the edits statistics: only one validation out of that number (randomly chosen) has its edits timed.
+     * <br/><br/>
+     * The statistics of the sampled validations can be extrapolated to all the validations (see {@link ValidationEngine#getExtrapolatedStats()}); a rate
+     * of 100 or more makes the overhead of the statistics negligible, so they can always be enabled.
+     */
+    public void setEngineStatsSamplingRate(int n) {
+        if (n < 1 || n > 1000000)
+            throw new IllegalStateException("Statistics sampling rate must be between 1 and 1000000");
+        _engineStatsSamplingRate = n;
+    }
+
+    public int getEngineStatsSamplingRate() {
+        return _engineStatsSamplingRate;
+    }
+
     public void setNumCompilationThreads(int n) {
         if (n < 1 || n > 32)
             throw new IllegalStateException("Number of threads must be between 1 and 32");
@@ -48,4 +101,125 @@ public class InitializationOptions {
     public boolean isPreCompiledEditsEnabled() {
         return _preCompiledEditsEnabled;
     }
+
+    /**
+     * Sets the maximum number of Groovy Script instances the engine can create for a single edit or condition (pre-compiled edits are not affected).
+     * <br/><br/>
+     * A Groovy Script can't be executed by several threads at the same time; by default, there is only one instance per edit/condition and the threads validating
+     * concurrently have to wait for each other. If the engine is used by many threads at the same time, this size should be set to the number of those threads.
+     */
+    public void setScriptPoolSize(int n) {
+        if (n < 1 || n > 1024)
+            throw new IllegalStateException("Script pool size must be between 1 and 1024");
+        _scriptPoolSize = n;
+    }
+
+    public int getScriptPoolSize() {
+        return _scriptPoolSize;
+    }
+
+    /**
+     * Sets the number of threads the engine can use to execute the edits of a single level (for example the edits of one tumor) in parallel.
+     * <br/><br/>
+     * When bigger than 1, the edits of a level are scheduled according to their dependencies: the edits that don't depend on each other are executed concurrently
+     * and an edit is executed only after all the edits it depends on have completed. The returned failures are the same (and in the same order) as with a
+     * sequential execution. This reduces the latency of validating a single large record, but adds overhead when many records are validated concurrently (see
+     * the batch validation methods of the engine), so it is disabled by default. The edits must not modify the validated data for this mode to be used.
+     */
+    public void setEditsParallelism(int n) {
+        if (n < 1 || n > 256)
+            throw new IllegalStateException("Edits parallelism must be between 1 and 256");
+        _editsParallelism = n;
+    }
+
+    public int getEditsParallelism() {
+        return _editsParallelism;
+    }
+
+    /**
+     * Sets the number of threads the engine can use to process the elements of a collection (for example the lines of a NAACCR validatable, or the tumors of a
+     * patient) in parallel.
+     * <br/><br/>
+     * The elements of a collection are independent from each other (an element can only depend on the failures of its parent levels), so when this is bigger
+     * than 1, the collections having at least the threshold number of elements (see {@link #setCollectionsParallelismThreshold(int)}) are processed in parallel.
+     * The returned failures are the same (and in the same order) as with a sequential processing. Contexts overriding the failures checks are always processed
+     * sequentially. This is disabled by default.
+     */
+    public void setCollectionsParallelism(int n) {
+        if (n < 1 || n > 256)
+            throw new IllegalStateException("Collections parallelism must be between 1 and 256");
+        _collectionsParallelism = n;
+    }
+
+    public int getCollectionsParallelism() {
+        return _collectionsParallelism;
+    }
+
+    /**
+     * Sets the minimum number of elements a collection needs to have to be processed in parallel (smaller collections are always processed sequentially since
+     * the overhead of the parallel processing would not be worth it); defaults to 4. Only applicable if the collections parallelism is bigger than 1.
+     */
+    public void setCollectionsParallelismThreshold(int n) {
+        if (n < 2)
+            throw new IllegalStateException("Collections parallelism threshold must be at least 2");
+        _collectionsParallelismThreshold = n;
+    }
+
+    public int getCollectionsParallelismThreshold() {
+        return _collectionsParallelismThreshold;
+    }
+
+    /**
+     * Sets a directory where the engine persists the bytecode of the Groovy edits and conditions it compiles; on the next initialization (typically after a
+     * restart of the application), the edits and conditions that didn't change are loaded from that directory instead of being compiled again.
+     * <br/><br/>
+     * The entries are keyed by the expression, the Groovy version and the engine version, so they never need to be deleted manually (but entries for previous
+     * versions are not automatically removed). A corrupted entry is ignored and replaced. The directory can be shared by several engines, but it should not be
+     * shared with untrusted processes since its content is loaded as code.
+     */
+    public void setCompiledScriptsCacheDirectory(File directory) {
+        _compiledScriptsCacheDirectory = directory;
+    }
+
+    public File getCompiledScriptsCacheDirectory() {
+        return _compiledScriptsCacheDirectory;
+    }
+
+    /**
+     * Defers the compilation of the Groovy edits to their first execution; the edits that are never executed (ignored edits, edits excluded from the
+     * validations, edits on data that is never validated, etc...) are never compiled, which speeds up the initialization and saves memory.
+     * <br/><br/>
+     * With this mode, an edit that doesn't compile is only reported when it is executed (as a validation exception). If the background compilation is requested,
+     * the remaining edits (except the ignored ones) are compiled by a background thread once the initialization is done, so the first validations don't have to
+     * compile them. Pre-compiled edits and conditions are not affected.
+     */
+    public void enableLazyCompilation(boolean compileInBackground) {
+        _lazyCompilationEnabled = true;
+        _backgroundCompilationEnabled = compileInBackground;
+    }
+
+    public boolean isLazyCompilationEnabled() {
+        return _lazyCompilationEnabled;
+    }
+
+    public boolean isBackgroundCompilationEnabled() {
+        return _backgroundCompilationEnabled;
+    }
+
+    /**
+     * Generates, during the initialization, a pre-compiled class for every validator that doesn't provide its own pre-compiled edits (or when those can't be
+     * used); the class contains one method per edit, and the edits are then executed as pre-compiled edits instead of Groovy scripts.
+     * <br/><br/>
+     * Only the edits that reference nothing but their aliases, the context, the functions and the binding can be generated (the same restriction as for the
+     * pre-compiled edits); the other ones are compiled as Groovy scripts. Like pre-compiled edits, a generated edit returning a value that is not a boolean
+     * uses the Groovy truth of that value instead of failing with an exception. If a compiled scripts cache directory is set, the generated classes are
+     * cached in it as well.
+     */
+    public void enableDynamicCompiledRules() {
+        _dynamicCompiledRulesEnabled = true;
+    }
+
+    public boolean isDynamicCompiledRulesEnabled() {
+        return _dynamicCompiledRulesEnabled;
+    }
 }
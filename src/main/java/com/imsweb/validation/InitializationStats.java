@@ -7,6 +7,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -16,22 +17,54 @@ public class InitializationStats {
     public static final String REASON_NOT_PROVIDED = "pre-compiled edits not provided";
     public static final String REASON_DIFFERENT_VERSION = "pre-compiled validator has version {0} but application expected {1}";
     public static final String REASON_DISABLED = "pre-compiled edits are disabled";
+    public static final String REASON_NOT_GENERATED = "pre-compiled edits not provided and could not be generated: {0}";
 
     private final AtomicLong _initializationDuration;
 
+    // the phases durations are accumulated in nanoseconds; the compilation and pre-compiled lookup happen on several threads and are summed across them
+    private final AtomicLong _xmlParsingDuration;
+
+    private final AtomicLong _rulesParsingDuration;
+
+    private final AtomicLong _compilationDuration;
+
+    private final AtomicLong _preCompiledLookupDuration;
+
+    private final AtomicLong _contextEvaluationDuration;
+
+    private final AtomicLong _dependenciesSortingDuration;
+
+    private final AtomicLong _processorsPopulationDuration;
+
     private final AtomicInteger _numEditsLoaded;
 
     private final AtomicInteger _numEditsCompiled;
 
     private final AtomicInteger _numEditsPreCompiled;
 
+    private final AtomicInteger _numEditsSpreadingInvoker;
+
+    private final AtomicInteger _numEditsDeferred;
+
+    private final AtomicInteger _numEditsCompiledLazily;
+
     private final Map<String, InitializationStatsPerValidator> _validatorStats;
 
     public InitializationStats() {
         _initializationDuration = new AtomicLong();
+        _xmlParsingDuration = new AtomicLong();
+        _rulesParsingDuration = new AtomicLong();
+        _compilationDuration = new AtomicLong();
+        _preCompiledLookupDuration = new AtomicLong();
+        _contextEvaluationDuration = new AtomicLong();
+        _dependenciesSortingDuration = new AtomicLong();
+        _processorsPopulationDuration = new AtomicLong();
         _numEditsLoaded = new AtomicInteger();
         _numEditsCompiled = new AtomicInteger();
         _numEditsPreCompiled = new AtomicInteger();
+        _numEditsSpreadingInvoker = new AtomicInteger();
+        _numEditsDeferred = new AtomicInteger();
+        _numEditsCompiledLazily = new AtomicInteger();
         _validatorStats = new ConcurrentHashMap<>();
     }
 
@@ -43,6 +76,92 @@ public class InitializationStats {
         _initializationDuration.addAndGet(initializationDuration);
     }
 
+    /**
+     * Returns the time spent parsing the XML of the validators (in milliseconds); only available for validators loaded with <code>ValidationXmlUtils</code>,
+     * and only reported by the first initialization using them.
+     */
+    public long getXmlParsingDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(_xmlParsingDuration.get());
+    }
+
+    public void addXmlParsingDuration(long nanos) {
+        _xmlParsingDuration.addAndGet(nanos);
+    }
+
+    /**
+     * Returns the time spent parsing the edits of the validators (used properties, lookups and contexts) in milliseconds; only available for validators loaded
+     * with <code>ValidationXmlUtils</code>, and only reported by the first initialization using them.
+     */
+    public long getRulesParsingDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(_rulesParsingDuration.get());
+    }
+
+    public void addRulesParsingDuration(long nanos) {
+        _rulesParsingDuration.addAndGet(nanos);
+    }
+
+    /**
+     * Returns the time spent compiling the Groovy edits (in milliseconds), summed across the compilation threads.
+     */
+    public long getCompilationDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(_compilationDuration.get());
+    }
+
+    public void addCompilationDuration(long nanos) {
+        _compilationDuration.addAndGet(nanos);
+    }
+
+    /**
+     * Returns the time spent looking up the pre-compiled edits (in milliseconds), summed across the compilation threads.
+     */
+    public long getPreCompiledLookupDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(_preCompiledLookupDuration.get());
+    }
+
+    public void addPreCompiledLookupDuration(long nanos) {
+        _preCompiledLookupDuration.addAndGet(nanos);
+    }
+
+    /**
+     * Returns the time spent evaluating the context entries (in milliseconds); the contexts are evaluated on the compilation threads, along with the edits.
+     */
+    public long getContextEvaluationDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(_contextEvaluationDuration.get());
+    }
+
+    public void addContextEvaluationDuration(long nanos) {
+        _contextEvaluationDuration.addAndGet(nanos);
+    }
+
+    /**
+     * Records the time spent evaluating a single context entry; see {@link InitializationStatsPerValidator#getContextEntriesDurations()}.
+     */
+    public void addContextEntryDuration(String validatorId, String key, long nanos) {
+        _validatorStats.computeIfAbsent(validatorId, InitializationStatsPerValidator::new).addContextEntryDuration(key, nanos);
+    }
+
+    /**
+     * Returns the time spent sorting the edits by dependencies (in milliseconds).
+     */
+    public long getDependenciesSortingDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(_dependenciesSortingDuration.get());
+    }
+
+    public void addDependenciesSortingDuration(long nanos) {
+        _dependenciesSortingDuration.addAndGet(nanos);
+    }
+
+    /**
+     * Returns the time spent populating the processors (in milliseconds).
+     */
+    public long getProcessorsPopulationDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(_processorsPopulationDuration.get());
+    }
+
+    public void addProcessorsPopulationDuration(long nanos) {
+        _processorsPopulationDuration.addAndGet(nanos);
+    }
+
     public int getNumEditsLoaded() {
         return _numEditsLoaded.get();
     }
@@ -70,6 +189,43 @@ public class InitializationStats {
         _validatorStats.computeIfAbsent(validatorId, InitializationStatsPerValidator::new).incrementNumEditsPreCompiled();
     }
 
+    /**
+     * Returns the number of pre-compiled edits invoked through a spreading method handle (allocating an argument array for every execution) because a fixed-arity
+     * invoker couldn't be generated for them (see {@link com.imsweb.validation.runtime.CompiledRuleInvoker#isFixedArity()}).
+     */
+    public int getNumEditsSpreadingInvoker() {
+        return _numEditsSpreadingInvoker.get();
+    }
+
+    public void incrementNumEditsSpreadingInvoker(String validatorId) {
+        _numEditsSpreadingInvoker.getAndIncrement();
+        _validatorStats.computeIfAbsent(validatorId, InitializationStatsPerValidator::new).incrementNumEditsSpreadingInvoker();
+    }
+
+    /**
+     * Returns the number of edits whose compilation was deferred to their first execution (see {@link InitializationOptions#enableLazyCompilation(boolean)}).
+     */
+    public int getNumEditsDeferred() {
+        return _numEditsDeferred.get();
+    }
+
+    public void incrementNumEditsDeferred(String validatorId) {
+        _numEditsDeferred.getAndIncrement();
+        _validatorStats.computeIfAbsent(validatorId, InitializationStatsPerValidator::new).incrementNumEditsDeferred();
+    }
+
+    /**
+     * Returns the number of deferred edits that have been compiled so far (this number keeps changing after the initialization, as the edits are executed).
+     */
+    public int getNumEditsCompiledLazily() {
+        return _numEditsCompiledLazily.get();
+    }
+
+    public void incrementNumEditsCompiledLazily(String validatorId) {
+        _numEditsCompiledLazily.getAndIncrement();
+        _validatorStats.computeIfAbsent(validatorId, InitializationStatsPerValidator::new).incrementNumEditsCompiledLazily();
+    }
+
     public void setReasonNotPreCompiled(String validatorId, String reason) {
         _validatorStats.computeIfAbsent(validatorId, InitializationStatsPerValidator::new).setReasonNotPreCompiled(reason);
     }
@@ -3,6 +3,11 @@
  */
 package com.imsweb.validation;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class InitializationStatsPerValidator {
@@ -15,13 +20,25 @@ public class InitializationStatsPerValidator {
 
     private AtomicInteger _numEditsPreCompiled;
 
+    private AtomicInteger _numEditsSpreadingInvoker;
+
+    private AtomicInteger _numEditsDeferred;
+
+    private AtomicInteger _numEditsCompiledLazily;
+
     private String _reasonNotPreCompiled;
 
+    private Map<String, Long> _contextEntriesDurations;
+
     public InitializationStatsPerValidator(String validatorId) {
         _validatorId = validatorId;
         _numEditsLoaded = new AtomicInteger();
         _numEditsCompiled = new AtomicInteger();
         _numEditsPreCompiled = new AtomicInteger();
+        _numEditsSpreadingInvoker = new AtomicInteger();
+        _numEditsDeferred = new AtomicInteger();
+        _numEditsCompiledLazily = new AtomicInteger();
+        _contextEntriesDurations = new ConcurrentHashMap<>();
     }
 
     public String getValidatorId() {
@@ -52,6 +69,30 @@ public class InitializationStatsPerValidator {
         _numEditsPreCompiled.getAndIncrement();
     }
 
+    public int getNumEditsSpreadingInvoker() {
+        return _numEditsSpreadingInvoker.get();
+    }
+
+    public void incrementNumEditsSpreadingInvoker() {
+        _numEditsSpreadingInvoker.getAndIncrement();
+    }
+
+    public int getNumEditsDeferred() {
+        return _numEditsDeferred.get();
+    }
+
+    public void incrementNumEditsDeferred() {
+        _numEditsDeferred.getAndIncrement();
+    }
+
+    public int getNumEditsCompiledLazily() {
+        return _numEditsCompiledLazily.get();
+    }
+
+    public void incrementNumEditsCompiledLazily() {
+        _numEditsCompiledLazily.getAndIncrement();
+    }
+
     public String getReasonNotPreCompiled() {
         return _reasonNotPreCompiled;
     }
@@ -59,4 +100,17 @@ public class InitializationStatsPerValidator {
     public void setReasonNotPreCompiled(String reason) {
         _reasonNotPreCompiled = reason;
     }
+
+    /**
+     * Returns the time spent evaluating each context entry (in milliseconds), keyed by context key.
+     */
+    public Map<String, Long> getContextEntriesDurations() {
+        Map<String, Long> result = new TreeMap<>();
+        _contextEntriesDurations.forEach((key, nanos) -> result.put(key, TimeUnit.NANOSECONDS.toMillis(nanos)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    public void addContextEntryDuration(String key, long nanos) {
+        _contextEntriesDurations.merge(key, nanos, Long::sum);
+    }
 }
@@ -0,0 +1,24 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation;
+
+import com.imsweb.validation.entities.RuleFailure;
+
+/**
+ * Receives the failures of a validation as they are produced by the engine (see {@link ValidationEngine#validate(com.imsweb.validation.entities.Validatable,
+ * ValidatingContext, RuleFailureListener)}), instead of having them gathered in a collection first.
+ * <br/><br/>
+ * The failures are received in the same order as they would be returned by the other validate methods. The listener is always called from the thread that invoked
+ * the validation (even if the engine is configured to validate the collections in parallel), so implementations don't need to be thread-safe. Any runtime
+ * exception thrown by the listener stops the validation.
+ */
+@FunctionalInterface
+public interface RuleFailureListener {
+
+    /**
+     * Called once for every failure.
+     * @param failure the failure, never null
+     */
+    void ruleFailed(RuleFailure failure);
+}
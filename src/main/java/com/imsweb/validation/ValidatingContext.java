@@ -3,14 +3,17 @@
  */
 package com.imsweb.validation;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.imsweb.validation.entities.Rule;
+import com.imsweb.validation.internal.LevelFailures;
 
 /**
  * This class is used as a context when processing a validatable. Note that it has noting to do with user-defined contexts that are made available to the rules...
@@ -18,8 +21,14 @@ import com.imsweb.validation.entities.Rule;
  * By overwriting the conditionFailed() and atLeastOneDependencyFailed() methods, the conditions and dependencies mechanism can be customized to allow more complex features
  * (for example, to allow cross-validator conditions)...
  * <br/><br/>
- * This class is not thread-safe. Contexts are created by the engine in the different "validate" methods. While those methods can be called in a multi-threaded environment,
- * what happens inside the method is single-threaded. In other words, the validating context are not shared between threads and they do not need to be thread-safe.
+ * By default (when those methods are not overwritten), the engine tracks the failures using bits (one per rule and condition) and doesn't call those methods; the maps
+ * of failed rule and condition IDs are only computed when they are requested. If either method is overwritten, the maps are maintained during the validation
+ * and the methods are called for every rule, like in previous versions of the library.
+ * <br/><br/>
+ * Contexts are created by the engine in the different "validate" methods and are not shared between validations. But if the engine is configured to process the
+ * collections of a validatable in parallel (see {@link InitializationOptions#setCollectionsParallelism(int)}), a context is used by several threads during a single
+ * validation; the failures and statistics reported by the engine are thread-safe, but the rules to ignore/execute should not be modified while a validation is running.
+ * Contexts overriding the failures checks are never used concurrently (the collections are always processed sequentially for those contexts).
  */
 public class ValidatingContext {
 
@@ -38,19 +47,50 @@ public class ValidatingContext {
     // condition IDs that have failed so far, mapped by validatable path.
     protected Map<String, Set<String>> _failedConditionIds;
 
+    // key identifying the rules to ignore/execute configuration (see getExecutionPlanKey()); kept across validations as long as the configuration doesn't change
+    private volatile ExecutionPlanKey _executionPlanKey;
+
+    // the canonical keys, keyed by configuration (equal configurations share the same key, so the keys can be compared by identity)
+    private static final Map<ExecutionPlanConfiguration, ExecutionPlanKey> _EXECUTION_PLAN_KEYS = new ConcurrentHashMap<>();
+
+    // the number of different configurations is usually very small, but let's make sure the canonical keys don't grow indefinitely...
+    private static final int _MAX_EXECUTION_PLAN_KEYS = 1000;
+
+    // levels for which the failures haven't been added to the failed rule and condition IDs yet
+    private final List<LevelFailures> _pendingFailures;
+
+    // whether or not the failures can be tracked with bits (only possible if the failures methods have not been overwritten)
+    private final boolean _failuresTrackedWithBits;
+
     // the edits duration, per validatable path, then per edit ID (done that way to ensure thread-safety)
     private final Map<String, Map<String, Long>> _editsStats;
 
     // whether or not the edits statistics should be computed
     private boolean _computeEditsStats;
 
+    // whether a given context class overrides the conditionFailed() or atLeastOneDependencyFailed() methods
+    private static final ClassValue<Boolean> _CUSTOM_FAILURE_CHECKS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("conditionFailed", List.class, String.class).getDeclaringClass() != ValidatingContext.class
+                        || type.getMethod("atLeastOneDependencyFailed", List.class, Set.class).getDeclaringClass() != ValidatingContext.class;
+            }
+            catch (NoSuchMethodException e) {
+                return Boolean.TRUE;
+            }
+        }
+    };
+
     /**
      * Constructor.
      */
     public ValidatingContext() {
         _failedRuleIds = new HashMap<>();
         _failedConditionIds = new HashMap<>();
-        _editsStats = new HashMap<>();
+        _pendingFailures = new ArrayList<>();
+        _failuresTrackedWithBits = !_CUSTOM_FAILURE_CHECKS.get(getClass());
+        _editsStats = new ConcurrentHashMap<>();
         _computeEditsStats = false;
     }
 
@@ -60,6 +100,7 @@ public class ValidatingContext {
 
     public void setToIgnore(Collection<String> toIgnore) {
         _toIgnore = toIgnore;
+        _executionPlanKey = null;
     }
 
     public Collection<String> getToExecute() {
@@ -68,6 +109,7 @@ public class ValidatingContext {
 
     public void setToExecute(Collection<String> toExecute) {
         _toExecute = toExecute;
+        _executionPlanKey = null;
     }
 
     public Rule getToForce() {
@@ -79,13 +121,101 @@ public class ValidatingContext {
     }
 
     public Map<String, Set<String>> getFailedRuleIds() {
+        populatePendingFailures();
         return _failedRuleIds;
     }
 
     public Map<String, Set<String>> getFailedConditionIds() {
+        populatePendingFailures();
         return _failedConditionIds;
     }
 
+    /**
+     * Returns a key identifying the rules to ignore/execute configuration of this context; contexts with the same configuration return the same key instance, so
+     * the keys can be compared (and hashed) by identity. The key is checked once per validation, so the collections of rules to ignore/execute should not be
+     * modified while a validation is running. Only the engine should use this method.
+     */
+    public Object getExecutionPlanKey() {
+        ExecutionPlanKey key = _executionPlanKey;
+        if (key == null) {
+            ExecutionPlanConfiguration configuration = new ExecutionPlanConfiguration(_toIgnore == null ? null : Set.copyOf(_toIgnore),
+                    _toExecute == null ? null : Set.copyOf(_toExecute));
+            key = _EXECUTION_PLAN_KEYS.get(configuration);
+            if (key == null) {
+                if (_EXECUTION_PLAN_KEYS.size() >= _MAX_EXECUTION_PLAN_KEYS)
+                    _EXECUTION_PLAN_KEYS.clear();
+                key = _EXECUTION_PLAN_KEYS.computeIfAbsent(configuration, ExecutionPlanKey::new);
+            }
+            _executionPlanKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Clears the key identifying the rules to ignore/execute configuration if the collections of rules to ignore/execute have been modified since it was computed;
+     * called by the engine at the beginning of every validation.
+     */
+    void checkExecutionPlanKey() {
+        ExecutionPlanKey key = _executionPlanKey;
+        if (key != null && !(key.getConfiguration().matches(key.getConfiguration().toIgnore(), _toIgnore)
+                && key.getConfiguration().matches(key.getConfiguration().toExecute(), _toExecute)))
+            _executionPlanKey = null;
+    }
+
+    private record ExecutionPlanConfiguration(Set<String> toIgnore, Set<String> toExecute) {
+
+        // returns true if the provided collection contains the same IDs as the provided set (this doesn't create any new collection)
+        boolean matches(Set<String> set, Collection<String> collection) {
+            if (set == null || collection == null)
+                return set == null && collection == null;
+            return set.size() == collection.size() && set.containsAll(collection);
+        }
+    }
+
+    /**
+     * The canonical key of a configuration; it doesn't override equals() nor hashCode(), the plans are cached by identity of the key.
+     */
+    private static final class ExecutionPlanKey {
+
+        private final ExecutionPlanConfiguration _configuration;
+
+        private ExecutionPlanKey(ExecutionPlanConfiguration configuration) {
+            _configuration = configuration;
+        }
+
+        ExecutionPlanConfiguration getConfiguration() {
+            return _configuration;
+        }
+    }
+
+    /**
+     * Returns true if the failures can be tracked with bits (see {@link #reportLevelFailures(LevelFailures)}), false if the maps of failed rule and condition IDs
+     * need to be maintained during the validation. Only the engine should use this method.
+     */
+    public boolean isFailuresTrackedWithBits() {
+        return _failuresTrackedWithBits;
+    }
+
+    /**
+     * Registers the failures of a processed level; the corresponding failed IDs will be available through the failed rule and condition IDs maps.
+     * This method should only be called by the engine.
+     */
+    public void reportLevelFailures(LevelFailures failures) {
+        synchronized (_pendingFailures) {
+            _pendingFailures.add(failures);
+        }
+    }
+
+    private void populatePendingFailures() {
+        synchronized (_pendingFailures) {
+            if (!_pendingFailures.isEmpty()) {
+                for (LevelFailures failures : _pendingFailures)
+                    failures.populateFailedIds(_failedRuleIds, _failedConditionIds);
+                _pendingFailures.clear();
+            }
+        }
+    }
+
     public boolean computeEditsStats() {
         return _computeEditsStats;
     }
@@ -97,13 +227,24 @@ public class ValidatingContext {
         _computeEditsStats = computeEditsStats;
     }
 
+    /**
+     * Reports the duration of an edit; this method should only be called by the engine.
+     * @param path java path of the edit
+     * @param id edit ID
+     * @param duration duration, in nanoseconds
+     */
     public void reportEditDuration(String path, String id, long duration) {
-        _editsStats.computeIfAbsent(path, k -> new HashMap<>()).put(id, duration);
+        _editsStats.computeIfAbsent(path, k -> new ConcurrentHashMap<>()).merge(id, duration, Long::sum);
     }
 
+    /**
+     * Returns the total duration of each edit executed with this context (an edit executed on several elements of a collection is reported once).
+     * @return the durations, in nanoseconds, keyed by edit ID
+     */
     public Map<String, Long> getEditDurations() {
         Map<String, Long> stats = new HashMap<>();
-        _editsStats.values().forEach(stats::putAll);
+        for (Map<String, Long> pathStats : _editsStats.values())
+            pathStats.forEach((id, duration) -> stats.merge(id, duration, Long::sum));
         return stats;
     }
 
@@ -111,6 +252,9 @@ public class ValidatingContext {
      * Resets the rule and condition failures. This method should only be used for testing purposes.
      */
     public void resetFailures() {
+        synchronized (_pendingFailures) {
+            _pendingFailures.clear();
+        }
         _failedRuleIds.clear();
         _failedConditionIds.clear();
     }
@@ -129,6 +273,8 @@ public class ValidatingContext {
         if (validatablePaths == null || conditionId == null)
             return false;
 
+        populatePendingFailures();
+
         for (String validatablePath : validatablePaths) {
             Set<String> failedIds = _failedConditionIds.get(validatablePath);
             if (failedIds != null && failedIds.contains(conditionId))
@@ -152,6 +298,8 @@ public class ValidatingContext {
         if (validatablePaths == null || dependencies == null)
             return false;
 
+        populatePendingFailures();
+
         for (String validatablePath : validatablePaths) {
             Set<String> failedIds = _failedRuleIds.get(validatablePath);
             if (failedIds != null && !Collections.disjoint(failedIds, dependencies))
@@ -3,9 +3,11 @@
  */
 package com.imsweb.validation;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -13,18 +15,27 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 
 import com.imsweb.validation.entities.Category;
 import com.imsweb.validation.entities.Condition;
@@ -38,11 +49,21 @@ import com.imsweb.validation.entities.RuleFailure;
 import com.imsweb.validation.entities.RuleHistory;
 import com.imsweb.validation.entities.Validatable;
 import com.imsweb.validation.entities.Validator;
+import com.imsweb.validation.internal.CompiledScriptCache;
+import com.imsweb.validation.internal.ContextEntriesEvaluator;
+import com.imsweb.validation.internal.DynamicCompiledRules;
+import com.imsweb.validation.internal.EditsStatsCollector;
+import com.imsweb.validation.internal.EngineSnapshot;
 import com.imsweb.validation.internal.ExecutableCondition;
 import com.imsweb.validation.internal.ExecutableRule;
 import com.imsweb.validation.internal.IterativeProcessor;
+import com.imsweb.validation.internal.OrdinalRegistry;
 import com.imsweb.validation.internal.Processor;
+import com.imsweb.validation.internal.ScriptCompiler;
+import com.imsweb.validation.internal.ScriptOptions;
 import com.imsweb.validation.internal.ValidatingProcessor;
+import com.imsweb.validation.internal.jfr.ContextEvaluationEvent;
+import com.imsweb.validation.internal.jfr.ValidationEvent;
 import com.imsweb.validation.internal.callable.RuleCompilingCallable;
 import com.imsweb.validation.runtime.CompiledRules;
 import com.imsweb.validation.runtime.RuntimeUtils;
@@ -208,6 +229,60 @@ public class ValidationEngine {
      */
     protected Map<Long, Map<String, Object>> _contexts = new HashMap<>();
 
+    /**
+     * The executable rules used to create the current processors, sorted by dependencies (null if the processors were created without any rule)
+     */
+    protected List<ExecutableRule> _sortedRules;
+
+    /**
+     * Dense ordinals assigned to the rule IDs, used to track the rule failures as bits during validation
+     */
+    protected OrdinalRegistry _ruleOrdinals = new OrdinalRegistry();
+
+    /**
+     * Dense ordinals assigned to the condition IDs, used to track the condition failures as bits during validation
+     */
+    protected OrdinalRegistry _conditionOrdinals = new OrdinalRegistry();
+
+    /**
+     * Pool used to execute the independent edits of a level in parallel; null unless requested in the initialization options
+     */
+    protected ForkJoinPool _editsPool;
+
+    /**
+     * Pool used to process the elements of the collections in parallel; null unless requested in the initialization options
+     */
+    protected ForkJoinPool _collectionsPool;
+
+    /**
+     * Pools used by the batch validations (platform and virtual threads), created on first use and shut down when the engine is un-initialized; the number of
+     * threads of a given batch is bounded by the batch itself
+     */
+    private ExecutorService _batchPool;
+
+    private ExecutorService _virtualBatchPool;
+
+    /**
+     * Single low-priority thread compiling the deferred edits in the background (see InitializationOptions), created on first use and shut down when the engine
+     * is un-initialized
+     */
+    private ExecutorService _backgroundCompilationPool;
+
+    /**
+     * The background compilations, keyed by validator ID; a compilation is cancelled when the compiler of its validator is closed
+     */
+    private final Map<String, Future<?>> _backgroundCompilations = new ConcurrentHashMap<>();
+
+    /**
+     * Persistent cache of the compiled Groovy edits and conditions; null unless requested in the initialization options
+     */
+    protected CompiledScriptCache _scriptCache;
+
+    /**
+     * The compilers of the Groovy edits and conditions, keyed by validator ID (each validator gets its own class loader, released when the validator is removed)
+     */
+    protected final Map<String, ScriptCompiler> _compilers = new ConcurrentHashMap<>();
+
     /**
      * Possible statuses for the engine
      */
@@ -229,7 +304,7 @@ public class ValidationEngine {
     /**
      * Current engine status
      */
-    private ValidationEngineStatus _status = ValidationEngineStatus.NOT_INITIALIZED;
+    private volatile ValidationEngineStatus _status = ValidationEngineStatus.NOT_INITIALIZED;
 
     /**
      * Initialization options
@@ -237,15 +312,23 @@ public class ValidationEngine {
     protected InitializationOptions _options;
 
     /**
-     * Private lock controlling access to the state of the engine; all methods using the state of the engine (including the validate methods) need to acquire a read lock;
-     * all methods changing the state of the engine need to acquire a write lock.
+     * Private lock serializing the modifications of the state of the engine; the methods reading the state (including the validate methods) don't use it, they use
+     * the current snapshot instead.
+     */
+    private final ReentrantLock _lock = new ReentrantLock();
+
+    /**
+     * Immutable snapshot of the state of the engine, replaced at the end of every successful modification (see {@link EngineSnapshot}); this is what the validate
+     * methods and the getters use, so they never block, even while the state is being modified. When a modification calls other ones (like updating a validator
+     * deletes it and adds it back), only the outermost one replaces the snapshot, so the intermediate states are never visible.
      */
-    private final ReentrantReadWriteLock _lock = new ReentrantReadWriteLock();
+    private final AtomicReference<EngineSnapshot> _snapshot = new AtomicReference<>(EngineSnapshot.EMPTY);
 
     /**
-     * The edits statistics gathered so far by the engine (the collection will be empty if the statistics are disabled in the initialization options)
+     * The edits statistics gathered so far by the engine, with the number of validations they correspond to (the statistics will be empty if they are disabled
+     * in the initialization options); the collector is replaced (not cleared) when the statistics are reset, and the statistics themselves don't require any lock
      */
-    protected Map<String, EngineStats> _editsStats = new HashMap<>();
+    private final AtomicReference<EditsStatsCollector> _editsStats = new AtomicReference<>(new EditsStatsCollector());
 
     /**
      * Whether or not the edits statistics should be computed (initial value is based on the initialization options, but can be changed later)
@@ -253,12 +336,17 @@ public class ValidationEngine {
     protected AtomicBoolean _computeEditsStats = new AtomicBoolean(false);
 
     /**
-     * Private lock controlling access to the stats; those are "written" every time new stats are reported (which is constantly), and so using a global engine lock is not good enough.
+     * Only one validation out of this number has its edits timed (1 means every validation is timed)
      */
-    private final ReentrantReadWriteLock _statsLock = new ReentrantReadWriteLock();
+    protected volatile int _editsStatsSamplingRate = 1;
+
+    /**
+     * Decides, given the sampling rate, whether a validation has its edits timed; picks one validation out of the rate at random by default
+     */
+    private volatile IntPredicate _editsStatsSampler = rate -> ThreadLocalRandom.current().nextInt(rate) == 0;
 
     // ********************************************************************************
-    //                INITIALIZATION METHOD (require the write lock)
+    //                INITIALIZATION METHOD (require the lock)
     // ********************************************************************************
 
     /**
@@ -354,13 +442,24 @@ public class ValidationEngine {
 
         long start = System.currentTimeMillis();
 
-        _lock.writeLock().lock();
+        // the compilers created for the validators (they must be closed if the initialization fails)
+        Map<String, ScriptCompiler> compilers = new HashMap<>();
+
+        _lock.lock();
         try {
             uninitialize();
 
             _options = options == null ? new InitializationOptions() : options;
 
             _computeEditsStats.set(_options.isEngineStatsEnabled());
+            _editsStatsSamplingRate = _options.getEngineStatsSamplingRate();
+
+            if (_options.getEditsParallelism() > 1)
+                _editsPool = new ForkJoinPool(_options.getEditsParallelism());
+            if (_options.getCollectionsParallelism() > 1)
+                _collectionsPool = new ForkJoinPool(_options.getCollectionsParallelism());
+            if (_options.getCompiledScriptsCacheDirectory() != null)
+                _scriptCache = new CompiledScriptCache(_options.getCompiledScriptsCacheDirectory(), _ENGINE_VERSION);
 
             if (validators != null) {
                 checkValidatorConstraints(validators);
@@ -371,19 +470,29 @@ public class ValidationEngine {
 
                 // internalize the validators (that will compile any Groovy, which could through a construction exception)
                 for (Validator v : validators) {
-                    Map<String, Object> contexts = new HashMap<>();
-                    internalizeValidator(v, conditions, rules, contexts, stats);
+                    Map<String, Object> contexts = new ConcurrentHashMap<>();
+                    ScriptCompiler compiler = new ScriptCompiler(_scriptCache);
+                    compilers.put(v.getId(), compiler);
+                    internalizeValidator(v, compiler, conditions, rules, contexts, stats);
                     allContexts.put(v.getValidatorId(), contexts);
                 }
 
                 // sort the rules by dependencies (this could throw a dependency exception)
+                long phaseStart = System.nanoTime();
                 List<ExecutableRule> sortedRules = getRulesSortedByDependencies(rules, conditions);
+                stats.addDependenciesSortingDuration(System.nanoTime() - phaseStart);
 
                 // at this point we checked everything, so let's update the internal state of the engine
                 _executableConditions.putAll(conditions);
                 _executableRules.putAll(rules);
                 _contexts.putAll(allContexts);
+                _compilers.putAll(compilers);
+                phaseStart = System.nanoTime();
                 populateProcessors(sortedRules);
+                stats.addProcessorsPopulationDuration(System.nanoTime() - phaseStart);
+
+                if (_options.isBackgroundCompilationEnabled())
+                    compileDeferredRulesInBackground(rules.values());
 
                 // update the raw structure only if the state was successfully updated...
                 for (Validator v : validators)
@@ -391,9 +500,18 @@ public class ValidationEngine {
             }
             else
                 populateProcessors(null);
+            publishSnapshotIfOutermost();
+        }
+        catch (ConstructionException | RuntimeException | Error e) {
+            // the previous state is already gone (its compilers are closed), so the engine is left un-initialized
+            uninitialize();
+            for (ScriptCompiler compiler : compilers.values())
+                compiler.close();
+            publishSnapshotIfOutermost();
+            throw e;
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
 
         _status = ValidationEngineStatus.INITIALIZED;
@@ -411,22 +529,43 @@ public class ValidationEngine {
     public void uninitialize() {
         _status = ValidationEngineStatus.NOT_INITIALIZED;
 
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
             _validators.clear();
-            _processors.clear();
-            _processorRoots.clear();
+            _processors = new HashMap<>();
+            _processorRoots = new HashMap<>();
+            _sortedRules = null;
             _executableRules.clear();
             _executableConditions.clear();
             _contexts.clear();
+            _ruleOrdinals.clear();
+            _conditionOrdinals.clear();
+            if (_editsPool != null) {
+                _editsPool.shutdown();
+                _editsPool = null;
+            }
+            if (_collectionsPool != null) {
+                _collectionsPool.shutdown();
+                _collectionsPool = null;
+            }
+            _scriptCache = null;
+            shutdownBatchPools();
+            if (_backgroundCompilationPool != null) {
+                _backgroundCompilationPool.shutdownNow();
+                _backgroundCompilationPool = null;
+            }
+            for (Entry<String, ScriptCompiler> entry : _compilers.entrySet())
+                closeCompiler(entry.getKey(), entry.getValue());
+            _compilers.clear();
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
     // ********************************************************************************
-    //                     GET METHODS (require the read lock)
+    //               GET METHODS (use the current snapshot)
     // ********************************************************************************
 
     /**
@@ -438,13 +577,7 @@ public class ValidationEngine {
      * @return all the <code>Validator</code>s contained in the engine, keyed by their ID; maybe empty but never null
      */
     public Map<String, Validator> getValidators() {
-        _lock.readLock().lock();
-        try {
-            return Collections.unmodifiableMap(_validators);
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        return _snapshot.get().getValidators();
     }
 
     /**
@@ -461,13 +594,7 @@ public class ValidationEngine {
         if (validatorId == null)
             return null;
 
-        _lock.readLock().lock();
-        try {
-            return _validators.get(validatorId);
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        return _snapshot.get().getValidators().get(validatorId);
     }
 
     /**
@@ -493,26 +620,7 @@ public class ValidationEngine {
         if (conditionId == null)
             return null;
 
-        _lock.readLock().lock();
-        try {
-            if (validatorId != null) {
-                Validator v = _validators.get(validatorId);
-                if (v == null)
-                    return null;
-                return v.getCondition(conditionId);
-            }
-
-            for (Validator v : _validators.values()) {
-                Condition c = v.getCondition(conditionId);
-                if (c != null)
-                    return c;
-            }
-
-            return null;
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        return _snapshot.get().getCondition(conditionId, validatorId);
     }
 
     /**
@@ -538,26 +646,7 @@ public class ValidationEngine {
         if (categoryId == null)
             return null;
 
-        _lock.readLock().lock();
-        try {
-            if (validatorId != null) {
-                Validator v = _validators.get(validatorId);
-                if (v == null)
-                    return null;
-                return v.getCategory(categoryId);
-            }
-
-            for (Validator v : _validators.values()) {
-                Category c = v.getCategory(categoryId);
-                if (c != null)
-                    return c;
-            }
-
-            return null;
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        return _snapshot.get().getCategory(categoryId, validatorId);
     }
 
     /**
@@ -583,26 +672,7 @@ public class ValidationEngine {
         if (ruleId == null)
             return null;
 
-        _lock.readLock().lock();
-        try {
-            if (validatorId != null) {
-                Validator v = _validators.get(validatorId);
-                if (v == null)
-                    return null;
-                return v.getRule(ruleId);
-            }
-
-            for (Validator v : _validators.values()) {
-                Rule r = v.getRule(ruleId);
-                if (r != null)
-                    return r;
-            }
-
-            return null;
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        return _snapshot.get().getRule(ruleId, validatorId);
     }
 
     /**
@@ -628,30 +698,85 @@ public class ValidationEngine {
         if (contextKey == null)
             return null;
 
-        _lock.readLock().lock();
-        try {
-            if (validatorId != null) {
-                Validator v = _validators.get(validatorId);
-                if (v == null)
-                    return null;
-                return _contexts.get(v.getValidatorId()).get(contextKey);
-            }
+        EngineSnapshot snapshot = _snapshot.get();
 
-            for (Map<String, Object> context : _contexts.values()) {
-                Object c = context.get(contextKey);
-                if (c != null)
-                    return c;
-            }
+        if (validatorId != null) {
+            Validator v = snapshot.getValidators().get(validatorId);
+            if (v == null)
+                return null;
+            return snapshot.getContexts().get(v.getValidatorId()).get(contextKey);
+        }
 
+        for (Map<String, Object> context : snapshot.getContexts().values()) {
+            Object c = context.get(contextKey);
+            if (c != null)
+                return c;
+        }
+
+        return null;
+    }
+
+    // the modifications must look up the current state instead of the published snapshot, which is only replaced once the outermost modification is done
+    private Validator getValidatorInternal(String validatorId) {
+        return validatorId == null ? null : _validators.get(validatorId);
+    }
+
+    private Rule getRuleInternal(String ruleId, String validatorId) {
+        if (ruleId == null)
             return null;
+
+        if (validatorId != null) {
+            Validator v = _validators.get(validatorId);
+            return v == null ? null : v.getRule(ruleId);
         }
-        finally {
-            _lock.readLock().unlock();
+
+        for (Validator v : _validators.values()) {
+            Rule r = v.getRule(ruleId);
+            if (r != null)
+                return r;
         }
+
+        return null;
+    }
+
+    private Condition getConditionInternal(String conditionId, String validatorId) {
+        if (conditionId == null)
+            return null;
+
+        if (validatorId != null) {
+            Validator v = _validators.get(validatorId);
+            return v == null ? null : v.getCondition(conditionId);
+        }
+
+        for (Validator v : _validators.values()) {
+            Condition c = v.getCondition(conditionId);
+            if (c != null)
+                return c;
+        }
+
+        return null;
+    }
+
+    private Category getCategoryInternal(String categoryId, String validatorId) {
+        if (categoryId == null)
+            return null;
+
+        if (validatorId != null) {
+            Validator v = _validators.get(validatorId);
+            return v == null ? null : v.getCategory(categoryId);
+        }
+
+        for (Validator v : _validators.values()) {
+            Category c = v.getCategory(categoryId);
+            if (c != null)
+                return c;
+        }
+
+        return null;
     }
 
     // ********************************************************************************
-    //                    VALIDATE METHODS (require the read lock)
+    //                    VALIDATE METHODS (use the current snapshot)
     // ********************************************************************************
 
     /**
@@ -665,15 +790,9 @@ public class ValidationEngine {
      * @throws ValidationException if anything goes wrong during the validation
      */
     public Collection<RuleFailure> validate(Validatable validatable) throws ValidationException {
-        _lock.readLock().lock();
-        try {
-            ValidatingContext vContext = new ValidatingContext();
-            vContext.setComputeEditsStats(_computeEditsStats.get());
-            return internalValidate(validatable, vContext);
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        ValidatingContext vContext = new ValidatingContext();
+        vContext.setComputeEditsStats(sampleEditsStats());
+        return internalValidate(validatable, vContext);
     }
 
     /**
@@ -693,16 +812,10 @@ public class ValidationEngine {
      * @throws ValidationException if anything goes wrong during the validation
      */
     public Collection<RuleFailure> validate(Validatable validatable, Collection<String> ruleIdsToIgnore) throws ValidationException {
-        _lock.readLock().lock();
-        try {
-            ValidatingContext vContext = new ValidatingContext();
-            vContext.setToIgnore(ruleIdsToIgnore);
-            vContext.setComputeEditsStats(_computeEditsStats.get());
-            return internalValidate(validatable, vContext);
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        ValidatingContext vContext = new ValidatingContext();
+        vContext.setToIgnore(ruleIdsToIgnore);
+        vContext.setComputeEditsStats(sampleEditsStats());
+        return internalValidate(validatable, vContext);
     }
 
     /**
@@ -723,17 +836,11 @@ public class ValidationEngine {
      * @throws ValidationException if anything goes wrong during the validation
      */
     public Collection<RuleFailure> validate(Validatable validatable, Collection<String> ruleIdsToIgnore, Collection<String> ruleIdsToExecute) throws ValidationException {
-        _lock.readLock().lock();
-        try {
-            ValidatingContext vContext = new ValidatingContext();
-            vContext.setToIgnore(ruleIdsToIgnore);
-            vContext.setToExecute(ruleIdsToExecute);
-            vContext.setComputeEditsStats(_computeEditsStats.get());
-            return internalValidate(validatable, vContext);
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        ValidatingContext vContext = new ValidatingContext();
+        vContext.setToIgnore(ruleIdsToIgnore);
+        vContext.setToExecute(ruleIdsToExecute);
+        vContext.setComputeEditsStats(sampleEditsStats());
+        return internalValidate(validatable, vContext);
     }
 
     /**
@@ -753,19 +860,13 @@ public class ValidationEngine {
      * @throws ValidationException if anything goes wrong during the validation
      */
     public Collection<RuleFailure> validate(Validatable validatable, String ruleId) throws ValidationException {
-        _lock.readLock().lock();
-        try {
-            Rule rule = getRule(ruleId);
-            if (rule == null)
-                throw new IllegalStateException("Unknown rule ID: " + ruleId);
-            ValidatingContext vContext = new ValidatingContext();
-            vContext.setToForce(rule);
-            vContext.setComputeEditsStats(_computeEditsStats.get());
-            return internalValidate(validatable, vContext);
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        Rule rule = getRule(ruleId);
+        if (rule == null)
+            throw new IllegalStateException("Unknown rule ID: " + ruleId);
+        ValidatingContext vContext = new ValidatingContext();
+        vContext.setToForce(rule);
+        vContext.setComputeEditsStats(sampleEditsStats());
+        return internalValidate(validatable, vContext);
     }
 
     /**
@@ -786,21 +887,15 @@ public class ValidationEngine {
      * @throws ValidationException if anything goes wrong during the validation
      */
     public Collection<RuleFailure> validate(Validatable validatable, Rule rule) throws ValidationException {
-        _lock.readLock().lock();
-        try {
-            if (rule == null)
-                throw new IllegalStateException("This method requires a non-null rule!");
-            if (rule.getJavaPath() == null)
-                throw new IllegalStateException("The provided rule must have a java-path!");
-
-            ValidatingContext vContext = new ValidatingContext();
-            vContext.setToForce(rule);
-            vContext.setComputeEditsStats(_computeEditsStats.get());
-            return internalValidate(validatable, vContext);
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        if (rule == null)
+            throw new IllegalStateException("This method requires a non-null rule!");
+        if (rule.getJavaPath() == null)
+            throw new IllegalStateException("The provided rule must have a java-path!");
+
+        ValidatingContext vContext = new ValidatingContext();
+        vContext.setToForce(rule);
+        vContext.setComputeEditsStats(sampleEditsStats());
+        return internalValidate(validatable, vContext);
     }
 
     /**
@@ -817,18 +912,212 @@ public class ValidationEngine {
      * @throws ValidationException if anything goes wrong during the validation
      */
     public Collection<RuleFailure> validate(Validatable validatable, ValidatingContext vContext) throws ValidationException {
-        _lock.readLock().lock();
+        vContext.setComputeEditsStats(sampleEditsStats());
+        return internalValidate(validatable, vContext);
+    }
+
+    /**
+     * Validates the provided <code>Validatable</code> object using all the rules loaded in the engine; the failures are pushed to the provided listener
+     * as they are produced instead of being returned as a collection.
+     * <p/>
+     * See {@link #validate(Validatable, ValidatingContext, RuleFailureListener)} for more information.
+     * @param validatable a <code>Validatable</code>, cannot be null
+     * @param listener the listener receiving the failures, cannot be null
+     * @throws ValidationException if anything goes wrong during the validation
+     */
+    public void validate(Validatable validatable, RuleFailureListener listener) throws ValidationException {
+        validate(validatable, new ValidatingContext(), listener);
+    }
+
+    /**
+     * Validates the provided <code>Validatable</code> object using all the rules loaded in the engine; the failures are pushed to the provided listener
+     * as they are produced instead of being returned as a collection.
+     * <p/>
+     * The listener receives the same failures, in the same order, as the ones returned by {@link #validate(Validatable, ValidatingContext)}, but the engine
+     * doesn't need to gather them in intermediate collections; this is the preferred method for callers that only aggregate the failures (counts, etc...).
+     * @param validatable a <code>Validatable</code>, cannot be null
+     * @param vContext a <code>ValidatingContext</code>, cannot be null
+     * @param listener the listener receiving the failures, cannot be null
+     * @throws ValidationException if anything goes wrong during the validation
+     */
+    public void validate(Validatable validatable, ValidatingContext vContext, RuleFailureListener listener) throws ValidationException {
+        vContext.setComputeEditsStats(sampleEditsStats());
+        internalValidate(validatable, vContext, listener);
+    }
+
+    // ********************************************************************************
+    //         BATCH VALIDATE METHODS (every validation uses the current snapshot)
+    // ********************************************************************************
+
+    /**
+     * Validates all the provided <code>Validatable</code> objects using a pool of threads, and default batch options.
+     * <p/>
+     * See {@link #validateAll(Iterable, BatchValidationOptions, BatchValidationSink)} for more information.
+     * @param validatables the <code>Validatable</code> objects to validate, cannot be null
+     * @param sink the sink receiving the results, cannot be null
+     * @return the number of validated <code>Validatable</code>
+     * @throws ValidationException if anything goes wrong during the validation
+     */
+    public long validateAll(Iterable<? extends Validatable> validatables, BatchValidationSink sink) throws ValidationException {
+        return validateAll(validatables, new BatchValidationOptions(), sink);
+    }
+
+    /**
+     * Validates all the provided <code>Validatable</code> objects using a pool of threads.
+     * <p/>
+     * See {@link #validateAll(Iterable, BatchValidationOptions, BatchValidationSink)} for more information.
+     * @param validatables the <code>Validatable</code> objects to validate, cannot be null; the stream is consumed from the calling thread, and closed
+     * @param options the batch options, if null the default options will be used
+     * @param sink the sink receiving the results, cannot be null
+     * @return the number of validated <code>Validatable</code>
+     * @throws ValidationException if anything goes wrong during the validation
+     */
+    public <T extends Validatable> long validateAll(Stream<T> validatables, BatchValidationOptions options, BatchValidationSink sink) throws ValidationException {
+        try (Stream<T> stream = validatables) {
+            Iterable<T> iterable = stream::iterator;
+            return validateAll(iterable, options, sink);
+        }
+    }
+
+    /**
+     * Validates all the provided <code>Validatable</code> objects using a pool of threads (platform or virtual threads, depending on the options).
+     * <p/>
+     * The pools belong to the engine (they are created on first use and shut down when the engine is un-initialized); the number of validations of a batch
+     * running at the same time is bounded by the number of threads of the options, including when virtual threads are used.
+     * <p/>
+     * The validatables are read from the calling thread, and only a limited number of them are submitted without having their results handed to the sink yet
+     * (see {@link BatchValidationOptions#getMaxPendingValidatables()}), so very large (or lazy) inputs can be validated with a bounded memory footprint.
+     * <p/>
+     * The sink is always called from the calling thread; by default it receives the results as they complete, but the original order can be preserved
+     * with the corresponding option. The first exception (from the validation or from the sink) stops the batch and is re-thrown by this method.
+     * <p/>
+     * Since every validation is done via {@link #validate(Validatable)}, the validatables need to be independent from each other (which they usually are).
+     * @param validatables the <code>Validatable</code> objects to validate, cannot be null
+     * @param options the batch options, if null the default options will be used
+     * @param sink the sink receiving the results, cannot be null
+     * @return the number of validated <code>Validatable</code>
+     * @throws ValidationException if anything goes wrong during the validation
+     */
+    public long validateAll(Iterable<? extends Validatable> validatables, BatchValidationOptions options, BatchValidationSink sink) throws ValidationException {
+        if (options == null)
+            options = new BatchValidationOptions();
+
+        int maxPending = options.getMaxPendingValidatables();
+
+        // the pools are shared by all the batches, so the number of threads of this batch is bounded with permits
+        ExecutorService service = getBatchPool(options.isVirtualThreadsEnabled());
+        Semaphore permits = new Semaphore(options.getNumThreads());
+
+        long count = 0;
+        Deque<Future<Pair<Validatable, Collection<RuleFailure>>>> pending = new ArrayDeque<>(maxPending);
+        Set<Future<Pair<Validatable, Collection<RuleFailure>>>> submitted = new HashSet<>();
+        try {
+            if (options.isPreserveOrder()) {
+                for (Validatable validatable : validatables) {
+                    if (pending.size() >= maxPending)
+                        count += handleBatchResult(pending.removeFirst(), sink);
+                    permits.acquire();
+                    pending.addLast(service.submit(() -> validateWithPermit(validatable, permits)));
+                }
+                while (!pending.isEmpty())
+                    count += handleBatchResult(pending.removeFirst(), sink);
+            }
+            else {
+                CompletionService<Pair<Validatable, Collection<RuleFailure>>> completionService = new ExecutorCompletionService<>(service);
+                for (Validatable validatable : validatables) {
+                    if (submitted.size() >= maxPending)
+                        count += handleBatchResult(takeCompleted(completionService, submitted), sink);
+                    permits.acquire();
+                    submitted.add(completionService.submit(() -> validateWithPermit(validatable, permits)));
+                }
+                while (!submitted.isEmpty())
+                    count += handleBatchResult(takeCompleted(completionService, submitted), sink);
+            }
+        }
+        catch (InterruptedException e) {
+            cancelBatch(pending);
+            cancelBatch(submitted);
+            Thread.currentThread().interrupt();
+            throw new ValidationException("Batch validation was interrupted", e);
+        }
+        catch (ValidationException | RuntimeException e) {
+            cancelBatch(pending);
+            cancelBatch(submitted);
+            throw e;
+        }
+
+        return count;
+    }
+
+    private Pair<Validatable, Collection<RuleFailure>> validateWithPermit(Validatable validatable, Semaphore permits) throws ValidationException {
         try {
-            vContext.setComputeEditsStats(_computeEditsStats.get());
-            return internalValidate(validatable, vContext);
+            return Pair.of(validatable, validate(validatable));
         }
         finally {
-            _lock.readLock().unlock();
+            permits.release();
+        }
+    }
+
+    private static Future<Pair<Validatable, Collection<RuleFailure>>> takeCompleted(CompletionService<Pair<Validatable, Collection<RuleFailure>>> completionService,
+            Collection<Future<Pair<Validatable, Collection<RuleFailure>>>> outstanding) throws InterruptedException {
+        Future<Pair<Validatable, Collection<RuleFailure>>> future = completionService.take();
+        outstanding.remove(future);
+        return future;
+    }
+
+    // the validations of a failed batch are not waited for; they release their permit (and nothing else references them) when they are done
+    private static void cancelBatch(Collection<Future<Pair<Validatable, Collection<RuleFailure>>>> outstanding) {
+        for (Future<Pair<Validatable, Collection<RuleFailure>>> future : outstanding)
+            future.cancel(true);
+        outstanding.clear();
+    }
+
+    private synchronized ExecutorService getBatchPool(boolean virtualThreads) {
+        if (virtualThreads) {
+            if (_virtualBatchPool == null)
+                _virtualBatchPool = Executors.newVirtualThreadPerTaskExecutor();
+            return _virtualBatchPool;
+        }
+        if (_batchPool == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            _batchPool = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "validation-batch-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return _batchPool;
+    }
+
+    private synchronized void shutdownBatchPools() {
+        if (_batchPool != null) {
+            _batchPool.shutdownNow();
+            _batchPool = null;
+        }
+        if (_virtualBatchPool != null) {
+            _virtualBatchPool.shutdownNow();
+            _virtualBatchPool = null;
+        }
+    }
+
+    private int handleBatchResult(Future<Pair<Validatable, Collection<RuleFailure>>> future, BatchValidationSink sink) throws ValidationException, InterruptedException {
+        Pair<Validatable, Collection<RuleFailure>> result;
+        try {
+            result = future.get();
         }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof ValidationException)
+                throw (ValidationException)e.getCause();
+            throw new ValidationException(e.getCause());
+        }
+
+        sink.validated(result.getLeft(), result.getRight());
+
+        return 1;
     }
 
     // ********************************************************************************
-    //              ADD/DELETE/UPDATE METHODS (require the write lock
+    //              ADD/DELETE/UPDATE METHODS (require the lock, publish a new snapshot)
     // ********************************************************************************
 
     /**
@@ -849,7 +1138,7 @@ public class ValidationEngine {
      * @throws ConstructionException if the rule contains an error
      */
     public Rule addRule(EditableRule editableRule) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
 
             if (editableRule == null)
@@ -862,7 +1151,7 @@ public class ValidationEngine {
                 throw new ConstructionException("A group is required when adding a new edit");
             if (editableRule.getMessage() == null)
                 throw new ConstructionException("A message is required when adding a new edit");
-            if (getRule(editableRule.getId()) != null)
+            if (getRuleInternal(editableRule.getId(), null) != null)
                 throw new ConstructionException("Edit IDs must be unique within the edits engine, cannot add '" + editableRule.getId() + "'");
             if (!_validators.containsKey(editableRule.getValidatorId()))
                 throw new ConstructionException("Unknown group: " + editableRule.getValidatorId());
@@ -872,7 +1161,7 @@ public class ValidationEngine {
             // verify the condition exists if provided
             if (editableRule.getConditions() != null) {
                 for (String conditionId : editableRule.getConditions()) {
-                    Condition condition = getCondition(conditionId, null); // passing null for the validator ID to allow cross-validator conditions (used in SEER*DMS)
+                    Condition condition = getConditionInternal(conditionId, null); // passing null for the validator ID to allow cross-validator conditions (used in SEER*DMS)
                     if (condition == null)
                         throw new ConstructionException("Unknown condition: " + conditionId);
                 }
@@ -880,7 +1169,7 @@ public class ValidationEngine {
 
             // verify the category exists if provided
             if (editableRule.getCategory() != null) {
-                Category category = getCategory(editableRule.getCategory(), null); // passing null for the validator ID to allow cross-validator conditions (used in SEER*DMS)
+                Category category = getCategoryInternal(editableRule.getCategory(), null); // passing null for the validator ID to allow cross-validator conditions (used in SEER*DMS)
                 if (category == null)
                     throw new ConstructionException("Unknown category: " + editableRule.getCategory());
             }
@@ -915,7 +1204,7 @@ public class ValidationEngine {
             rule.setValidator(_validators.get(editableRule.getValidatorId()));
 
             // create an executable rule from it
-            ExecutableRule execRule = new ExecutableRule(rule);
+            ExecutableRule execRule = new ExecutableRule(rule, null, null, new ScriptOptions(getScriptPoolSize(), getCompiler(rule.getValidator()), false));
 
             // update the dependencies; make sure we don't leave the internal structures in a bad state if something goes wrong...
             Map<Long, ExecutableRule> rules = new HashMap<>(_executableRules);
@@ -923,11 +1212,8 @@ public class ValidationEngine {
             List<ExecutableRule> sortedRules = getRulesSortedByDependencies(rules, _executableConditions); // this will validate the rule dependencies...
             _executableRules.put(execRule.getInternalId(), execRule);
 
-            // update the processors after re-evaluating the rules order (if the new java path doesn't exist, re-populate all the processors)
-            if (!_processors.containsKey(editableRule.getJavaPath()))
-                populateProcessors(sortedRules);
-            else
-                updateProcessorsRules(sortedRules); // this is way less expensive than re-populating the processors...
+            // re-create the processors after re-evaluating the rules order (the published ones can't be modified)
+            populateProcessors(sortedRules);
 
             // update raw data
             _validators.get(editableRule.getValidatorId()).getRules().add(rule);
@@ -938,10 +1224,11 @@ public class ValidationEngine {
                     if (rule.getDependencies().contains(r.getId()))
                         r.getInvertedDependencies().add(rule.getId());
 
+            publishSnapshotIfOutermost();
             return rule;
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -968,7 +1255,7 @@ public class ValidationEngine {
      * @throws ConstructionException if the rule contains an error
      */
     public void updateRule(EditableRule editableRule) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
             if (editableRule == null)
                 throw new ConstructionException("An editable rule is required for modifying an edit");
@@ -991,14 +1278,14 @@ public class ValidationEngine {
                 throw new ConstructionException("Validation Engine does not contain requested edit");
 
             // get the rule to update
-            Rule rule = getRule(originalExecRule.getId());
+            Rule rule = getRuleInternal(originalExecRule.getId(), null);
             if (rule == null)
                 throw new ConstructionException("Validation Engine does not contain requested edit");
 
             // verify the condition exists if provided
             if (editableRule.getConditions() != null) {
                 for (String conditionId : editableRule.getConditions()) {
-                    Condition condition = getCondition(conditionId, null); // passing null for the validator ID to allow cross-validator conditions (used in SEER*DMS)
+                    Condition condition = getConditionInternal(conditionId, null); // passing null for the validator ID to allow cross-validator conditions (used in SEER*DMS)
                     if (condition == null)
                         throw new ConstructionException("Unknown condition: " + conditionId);
                 }
@@ -1006,14 +1293,14 @@ public class ValidationEngine {
 
             // verify the category exists if provided
             if (editableRule.getCategory() != null) {
-                Category category = getCategory(editableRule.getCategory(), null); // passing null for the validator ID to allow cross-validator conditions (used in SEER*DMS)
+                Category category = getCategoryInternal(editableRule.getCategory(), null); // passing null for the validator ID to allow cross-validator conditions (used in SEER*DMS)
                 if (category == null)
                     throw new ConstructionException("Unknown category: " + editableRule.getCategory());
             }
 
             // check ID unicity
             if (!editableRule.getId().equals(rule.getId()))
-                if (getRule(editableRule.getId()) != null)
+                if (getRuleInternal(editableRule.getId(), null) != null)
                     throw new ConstructionException("Edit IDs must be unique within the edits engine, cannot add '" + editableRule.getId() + "'");
 
             boolean idUpdated = !editableRule.getId().equals(rule.getId());
@@ -1041,11 +1328,8 @@ public class ValidationEngine {
             List<ExecutableRule> sortedRules = getRulesSortedByDependencies(rules, _executableConditions); // this will validate the rule dependencies...
             _executableRules.put(execRule.getInternalId(), execRule);
 
-            // update the processors after re-evaluating the rules order (if the new java path doesn't exist, re-populate all the processors)
-            if (!_processors.containsKey(editableRule.getJavaPath()))
-                populateProcessors(sortedRules);
-            else
-                updateProcessorsRules(sortedRules); // this is way less expensive than re-populating the processors...
+            // re-create the processors after re-evaluating the rules order (the published ones can't be modified)
+            populateProcessors(sortedRules);
 
             // update the raw data
             rule.setId(editableRule.getId());
@@ -1093,9 +1377,10 @@ public class ValidationEngine {
                         r.getInvertedDependencies().remove(rule.getId());
                 }
             }
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1109,15 +1394,16 @@ public class ValidationEngine {
      * @throws ConstructionException if the rule cannot be found
      */
     public void deleteRule(String ruleId) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
-            Rule r = getRule(ruleId);
+            Rule r = getRuleInternal(ruleId, null);
             if (r == null)
                 throw new ConstructionException("Unknown edit: " + ruleId);
             deleteRule(new EditableRule(r));
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1135,7 +1421,7 @@ public class ValidationEngine {
      * @param editableRule <code>EditableRule</code>, cannot be null
      */
     public void deleteRule(EditableRule editableRule) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
             if (editableRule == null)
                 throw new ConstructionException("An editable rule is required for deleting an edit");
@@ -1153,7 +1439,7 @@ public class ValidationEngine {
                     throw new ConstructionException(editableRule.getId() + " cannot be deleted, " + r.getId() + " depends on it");
 
             // get the rule
-            Rule rule = getRule(editableRule.getId(), editableRule.getValidatorId());
+            Rule rule = getRuleInternal(editableRule.getId(), editableRule.getValidatorId());
             if (rule == null)
                 throw new ConstructionException("Validation Engine does not contain requested edit");
 
@@ -1161,7 +1447,7 @@ public class ValidationEngine {
             _executableRules.remove(rule.getRuleId());
 
             // update the processors after re-evaluating the rules order
-            updateProcessorsRules(getRulesSortedByDependencies(_executableRules, _executableConditions));
+            populateProcessors(getRulesSortedByDependencies(_executableRules, _executableConditions));
 
             // update raw data
             _validators.get(editableRule.getValidatorId()).getRules().remove(rule);
@@ -1170,9 +1456,10 @@ public class ValidationEngine {
             for (Rule r : rule.getValidator().getRules())
                 if (rule.getDependencies().contains(r.getId()))
                     r.getInvertedDependencies().remove(rule.getId());
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1194,7 +1481,7 @@ public class ValidationEngine {
      * @throws ConstructionException if the condition contains an error
      */
     public Condition addCondition(EditableCondition editableCondition) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
             if (editableCondition == null)
                 throw new ConstructionException("An editable condition is required for adding a new condition");
@@ -1204,7 +1491,7 @@ public class ValidationEngine {
                 throw new ConstructionException("A group is required when adding a new condition");
             if (editableCondition.getJavaPath() == null)
                 throw new ConstructionException("A java-path is required when adding a new condition");
-            if (getCondition(editableCondition.getId()) != null)
+            if (getConditionInternal(editableCondition.getId(), null) != null)
                 throw new ConstructionException("Condition IDs must be unique within the edits engine, cannot add '" + editableCondition.getId() + "'");
             if (!_validators.containsKey(editableCondition.getValidatorId()))
                 throw new ConstructionException("Unknown group: " + editableCondition.getValidatorId());
@@ -1225,24 +1512,22 @@ public class ValidationEngine {
             condition.setValidator(_validators.get(editableCondition.getValidatorId()));
 
             // create the executable condition
-            ExecutableCondition execCondition = new ExecutableCondition(condition);
+            ExecutableCondition execCondition = new ExecutableCondition(condition, new ScriptOptions(getScriptPoolSize(), getCompiler(condition.getValidator()), false));
 
             // update internal state
             _executableConditions.put(execCondition.getInternalId(), execCondition);
 
-            // update the processors (if the new java path doesn't exist, re-populate all the processors)
-            if (!_processors.containsKey(editableCondition.getJavaPath()))
-                populateProcessors(getRulesSortedByDependencies(_executableRules, _executableConditions));
-            else
-                updateProcessorsConditions(_executableConditions.values()); // this is way less expensive than re-populating the processors...
+            // re-create the processors (the published ones can't be modified)
+            populateProcessors(_sortedRules);
 
             // update the raw structure only if the state was successfully updated...
             _validators.get(editableCondition.getValidatorId()).getConditions().add(condition);
 
+            publishSnapshotIfOutermost();
             return condition;
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1266,7 +1551,7 @@ public class ValidationEngine {
      * @throws ConstructionException if the condition contains an error
      */
     public void updateCondition(EditableCondition editableCondition) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
             if (editableCondition == null)
                 throw new ConstructionException("An editable condition is required for modifying an condition");
@@ -1291,13 +1576,13 @@ public class ValidationEngine {
                 throw new ConstructionException("Unknown condition: " + editableCondition.getId());
 
             // get the condition
-            Condition condition = getCondition(originalExecCondition.getId());
+            Condition condition = getConditionInternal(originalExecCondition.getId(), null);
             if (condition == null)
                 throw new ConstructionException("Unknown condition: " + editableCondition.getId());
 
             // check condition unicity
             if (!condition.getId().equals(editableCondition.getId()))
-                if (getCondition(editableCondition.getId()) != null)
+                if (getConditionInternal(editableCondition.getId(), null) != null)
                     throw new ConstructionException("Condition IDs must be unique within the edits engine, cannot update ID to '" + editableCondition.getId() + "'");
 
             // create the executable condition
@@ -1311,11 +1596,8 @@ public class ValidationEngine {
             // update internal state
             _executableConditions.put(execCondition.getInternalId(), execCondition);
 
-            // update the processors (if the new java path doesn't exist, re-populate all the processors)
-            if (!_processors.containsKey(editableCondition.getJavaPath()))
-                populateProcessors(getRulesSortedByDependencies(_executableRules, _executableConditions));
-            else
-                updateProcessorsConditions(_executableConditions.values()); // this is way less expensive than re-populating the processors...
+            // re-create the processors (the published ones can't be modified)
+            populateProcessors(_sortedRules);
 
             // update the raw structure only if the state was successfully updated...
             condition.setId(editableCondition.getId());
@@ -1324,9 +1606,10 @@ public class ValidationEngine {
             condition.setDescription(editableCondition.getDescription());
             condition.setJavaPath(editableCondition.getJavaPath());
             condition.setExpression(editableCondition.getExpression());
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1340,15 +1623,16 @@ public class ValidationEngine {
      * @throws ConstructionException if the condition cannot be found
      */
     public void deleteCondition(String conditionId) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
-            Condition condition = getCondition(conditionId);
+            Condition condition = getConditionInternal(conditionId, null);
             if (condition == null)
                 throw new ConstructionException("Unknown condition: " + conditionId);
             deleteCondition(new EditableCondition(condition));
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1366,22 +1650,23 @@ public class ValidationEngine {
      * @param editableCondition <code>EditableCondition</code>, cannot be null
      */
     public void deleteCondition(EditableCondition editableCondition) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
             // get the condition
-            Condition condition = getCondition(editableCondition.getId());
+            Condition condition = getConditionInternal(editableCondition.getId(), null);
             if (condition == null)
                 throw new ConstructionException("Unknown condition: " + editableCondition.getId());
 
             // update internal state
             _executableConditions.remove(editableCondition.getConditionId());
-            updateProcessorsConditions(_executableConditions.values());
+            populateProcessors(_sortedRules);
 
             // update the raw structure only if the state was successfully updated...
             _validators.get(editableCondition.getValidatorId()).getConditions().remove(condition);
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1403,9 +1688,10 @@ public class ValidationEngine {
      * @throws ConstructionException if the validator contains an error
      */
     public Validator addValidator(EditableValidator editableValidator) throws ConstructionException {
-        _lock.writeLock().lock();
+        ScriptCompiler compiler = null;
+        _lock.lock();
         try {
-            if (getValidator(editableValidator.getId()) != null)
+            if (getValidatorInternal(editableValidator.getId()) != null)
                 throw new ConstructionException("Group IDs must be unique within the edits engine, cannot add '" + editableValidator.getId() + "'");
 
             // create the validator to add
@@ -1427,7 +1713,8 @@ public class ValidationEngine {
             Map<Long, ExecutableCondition> conditions = new ConcurrentHashMap<>();
             Map<Long, ExecutableRule> rules = new ConcurrentHashMap<>();
             Map<String, Object> contexts = new ConcurrentHashMap<>();
-            internalizeValidator(v, conditions, rules, contexts, null);
+            compiler = new ScriptCompiler(_scriptCache);
+            internalizeValidator(v, compiler, conditions, rules, contexts, null);
 
             // add the existing rules and conditions
             conditions.putAll(_executableConditions);
@@ -1440,15 +1727,23 @@ public class ValidationEngine {
             _executableConditions.putAll(conditions);
             _executableRules.putAll(rules);
             _contexts.put(v.getValidatorId(), contexts);
+            _compilers.put(v.getId(), compiler);
             populateProcessors(sortedRules);
 
             // update the raw structure only if the state was successfully updated...
             _validators.put(v.getId(), v);
 
+            publishSnapshotIfOutermost();
             return v;
         }
+        catch (ConstructionException | RuntimeException | Error e) {
+            // release the compiler unless it was already registered (in which case it will be closed with the validator)
+            if (compiler != null && _compilers.get(editableValidator.getId()) != compiler)
+                compiler.close();
+            throw e;
+        }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1472,7 +1767,7 @@ public class ValidationEngine {
      * @throws ConstructionException if the validator contains an error
      */
     public void updateValidator(EditableValidator editableValidator) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
             // get the validator
             Validator v = null;
@@ -1484,13 +1779,117 @@ public class ValidationEngine {
 
             // this is a very lazy way of doing it; if it becomes an issue, we can be smarter and do an actual update...
             deleteValidator(v.getId());
-            addValidator(editableValidator);
+            try {
+                addValidator(editableValidator);
+            }
+            catch (ConstructionException | RuntimeException e) {
+                // put the current version back so the internal state matches the published snapshot again
+                addValidator(new EditableValidator(v));
+                throw e;
+            }
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
+    /**
+     * Replaces the validator with the same ID by the provided one (typically a new version loaded from XML); if the engine doesn't contain a validator with
+     * that ID, the provided one is simply added.
+     * <p/>
+     * Unlike <code>updateValidator()</code> or re-initializing the engine, the edits and the contexts of the new validator are compiled without preventing any
+     * other operation on the engine; the validations keep using the current version of the validator until the new one is fully built, at which point the engine
+     * switches to it in a single step. If the new validator contains an error, the current version stays in place.
+     * @param validator new version of the validator, cannot be null
+     * @return the initialization statistics of the new validator
+     * @throws ConstructionException if the new validator contains an error
+     */
+    public InitializationStats reloadValidator(Validator validator) throws ConstructionException {
+        long start = System.currentTimeMillis();
+
+        if (_status != ValidationEngineStatus.INITIALIZED)
+            throw new ConstructionException("Engine must be initialized before a group can be reloaded");
+        checkValidatorConstraints(Collections.singletonList(validator));
+
+        // internalize the validator (that will compile any Groovy, which could through a construction exception); this is the expensive part, no lock required
+        InitializationStats stats = new InitializationStats();
+        Map<Long, ExecutableCondition> conditions = new ConcurrentHashMap<>();
+        Map<Long, ExecutableRule> rules = new ConcurrentHashMap<>();
+        Map<String, Object> contexts = new ConcurrentHashMap<>();
+        ScriptCompiler compiler = new ScriptCompiler(_scriptCache);
+        try {
+            internalizeValidator(validator, compiler, conditions, rules, contexts, stats);
+        }
+        catch (ConstructionException | RuntimeException | Error e) {
+            compiler.close();
+            throw e;
+        }
+
+        _lock.lock();
+        try {
+            Validator current = _validators.get(validator.getId());
+
+            // the IDs of the new validator must still be unique across all the groups (other than the one being replaced)
+            List<Validator> validators = new ArrayList<>(_validators.values());
+            validators.remove(current);
+            validators.add(validator);
+            checkValidatorConstraints(validators);
+
+            // replace the rules and conditions of the current validator
+            Map<Long, ExecutableCondition> allConditions = new HashMap<>(_executableConditions);
+            Map<Long, ExecutableRule> allRules = new HashMap<>(_executableRules);
+            if (current != null) {
+                for (Condition condition : current.getConditions())
+                    allConditions.remove(condition.getConditionId());
+                for (Rule r : current.getRules())
+                    allRules.remove(r.getRuleId());
+            }
+            allConditions.putAll(conditions);
+            allRules.putAll(rules);
+
+            // sort the rules by dependencies (this could though a dependency exception)
+            long phaseStart = System.nanoTime();
+            List<ExecutableRule> sortedRules = getRulesSortedByDependencies(allRules, allConditions);
+            stats.addDependenciesSortingDuration(System.nanoTime() - phaseStart);
+
+            // at this point we checked everything, so let's update the internal state of the engine
+            _executableConditions.clear();
+            _executableConditions.putAll(allConditions);
+            _executableRules.clear();
+            _executableRules.putAll(allRules);
+            if (current != null)
+                _contexts.remove(current.getValidatorId());
+            _contexts.put(validator.getValidatorId(), contexts);
+            ScriptCompiler previousCompiler = _compilers.put(validator.getId(), compiler);
+            if (previousCompiler != null)
+                closeCompiler(validator.getId(), previousCompiler);
+            phaseStart = System.nanoTime();
+            populateProcessors(sortedRules);
+            stats.addProcessorsPopulationDuration(System.nanoTime() - phaseStart);
+
+            if (_options.isBackgroundCompilationEnabled())
+                compileDeferredRulesInBackground(rules.values());
+
+            // update the raw structure only if the state was successfully updated...
+            _validators.put(validator.getId(), validator);
+            publishSnapshotIfOutermost();
+        }
+        catch (ConstructionException | RuntimeException | Error e) {
+            // release the compiler unless it was already registered (in which case it will be closed with the validator)
+            if (_compilers.get(validator.getId()) != compiler)
+                compiler.close();
+            throw e;
+        }
+        finally {
+            _lock.unlock();
+        }
+
+        stats.setInitializationDuration(System.currentTimeMillis() - start);
+
+        return stats;
+    }
+
     /**
      * Deletes an existing validator from the engine.
      * <p/>
@@ -1501,15 +1900,16 @@ public class ValidationEngine {
      * @throws ConstructionException if the validator cannot be found
      */
     public void deleteValidator(String validatorId) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
-            Validator v = getValidator(validatorId);
+            Validator v = getValidatorInternal(validatorId);
             if (v == null)
                 throw new ConstructionException("Unknown group: " + validatorId);
             deleteValidator(new EditableValidator(v));
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1528,10 +1928,10 @@ public class ValidationEngine {
      * @throws ConstructionException if the validator contains an error
      */
     public void deleteValidator(EditableValidator editableValidator) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
             // get the validator
-            Validator v = getValidator(editableValidator.getId());
+            Validator v = getValidatorInternal(editableValidator.getId());
             if (v == null)
                 throw new ConstructionException("Unknown group: " + editableValidator.getId());
 
@@ -1549,9 +1949,13 @@ public class ValidationEngine {
 
             // update the raw structure only if the state was successfully updated...
             _validators.remove(editableValidator.getId());
+            ScriptCompiler compiler = _compilers.remove(editableValidator.getId());
+            if (compiler != null)
+                closeCompiler(editableValidator.getId(), compiler);
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1568,9 +1972,9 @@ public class ValidationEngine {
      * @throws ConstructionException if the context contains an error
      */
     public ContextEntry addContext(Long contextEntryId, String contextKey, String validatorId, String expression, String type) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
-            Validator v = getValidator(validatorId);
+            Validator v = getValidatorInternal(validatorId);
             if (v == null)
                 throw new ConstructionException("Invalid group: " + validatorId);
 
@@ -1582,9 +1986,9 @@ public class ValidationEngine {
             if (contexts == null)
                 throw new ConstructionException("Invalid group: " + validatorId);
 
-            ValidationServices.getInstance().addContextExpression(expression, contexts, contextKey, type);
+            evaluateContextEntry(v.getId(), expression, contexts, contextKey, type);
 
-            updateProcessorsContexts(_contexts);
+            populateProcessors(_sortedRules);
 
             ContextEntry entry = new ContextEntry();
             entry.setContextEntryId(contextEntryId);
@@ -1593,10 +1997,11 @@ public class ValidationEngine {
             entry.setType(type);
             v.getRawContext().add(entry);
 
+            publishSnapshotIfOutermost();
             return entry;
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1611,9 +2016,9 @@ public class ValidationEngine {
      * @throws ConstructionException if the context contains an error or is not found
      */
     public void updateContext(String contextKey, String validatorId, String expression, String type) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
-            Validator v = getValidator(validatorId);
+            Validator v = getValidatorInternal(validatorId);
             if (v == null)
                 throw new ConstructionException("Invalid group: " + validatorId);
             ContextEntry entry = v.getRawContext(contextKey);
@@ -1626,15 +2031,16 @@ public class ValidationEngine {
             if (!contexts.containsKey(contextKey))
                 throw new ConstructionException("Group " + validatorId + " does not contain a context for key " + contextKey);
 
-            ValidationServices.getInstance().addContextExpression(expression, contexts, contextKey, type);
+            evaluateContextEntry(v.getId(), expression, contexts, contextKey, type);
 
-            updateProcessorsContexts(_contexts);
+            populateProcessors(_sortedRules);
 
             entry.setExpression(expression);
             entry.setType(type);
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1647,9 +2053,9 @@ public class ValidationEngine {
      * @throws ConstructionException if the context is not found
      */
     public void deleteContext(String contextKey, String validatorId) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
-            Validator v = getValidator(validatorId);
+            Validator v = getValidatorInternal(validatorId);
             if (v == null)
                 throw new ConstructionException("Invalid group: " + validatorId);
             ContextEntry entry = v.getRawContext(contextKey);
@@ -1664,12 +2070,13 @@ public class ValidationEngine {
 
             contexts.remove(contextKey);
 
-            updateProcessorsContexts(_contexts);
+            populateProcessors(_sortedRules);
 
             v.getRawContext().remove(entry);
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1684,21 +2091,28 @@ public class ValidationEngine {
      * @param idsToStopIgnoring a collection of rule IDs that must not be ignored anymore, no rule will be set to not-ignore if the collection is null (or empty)
      */
     public void massUpdateIgnoreFlags(Collection<String> idsToIgnore, Collection<String> idsToStopIgnoring) {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
-            // update the executable rules
-            for (ExecutableRule execRule : _executableRules.values()) {
+            // update the executable rules (the published rules can't be modified, so the updated ones are copied)
+            for (ExecutableRule execRule : new ArrayList<>(_executableRules.values())) {
                 String id = execRule.getId();
 
+                Boolean ignored = null;
                 if (idsToIgnore != null && idsToIgnore.contains(id))
-                    execRule.setIgnored(Boolean.TRUE);
+                    ignored = Boolean.TRUE;
                 else if (idsToStopIgnoring != null && idsToStopIgnoring.contains(id))
-                    execRule.setIgnored(Boolean.FALSE);
+                    ignored = Boolean.FALSE;
+
+                if (ignored != null && !ignored.equals(execRule.getIgnored())) {
+                    ExecutableRule copy = new ExecutableRule(execRule);
+                    copy.setIgnored(ignored);
+                    _executableRules.put(copy.getInternalId(), copy);
+                }
             }
 
             // update the processors after re-evaluating the rules order
             try {
-                updateProcessorsRules(getRulesSortedByDependencies(_executableRules, _executableConditions));
+                populateProcessors(getRulesSortedByDependencies(_executableRules, _executableConditions));
             }
             catch (ConstructionException e) {
                 throw new IllegalStateException("Internal state has not changed, this exception should not happen!", e);
@@ -1715,9 +2129,10 @@ public class ValidationEngine {
                         r.setIgnored(Boolean.FALSE);
                 }
             }
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1729,9 +2144,9 @@ public class ValidationEngine {
      */
     @SuppressWarnings("unused")
     public void enableEmbeddedSet(String validatorId, String setId) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
-            Validator v = getValidator(validatorId);
+            Validator v = getValidatorInternal(validatorId);
             if (v == null)
                 throw new ConstructionException("Invalid group: " + validatorId);
             EmbeddedSet s = v.getSet(setId);
@@ -1740,9 +2155,10 @@ public class ValidationEngine {
 
             // the sets are not used in the internal state of the engine; so all we have to do is to update the raw data...
             s.setIgnored(false);
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
@@ -1754,9 +2170,9 @@ public class ValidationEngine {
      */
     @SuppressWarnings("unused")
     public void disableEmbeddedSet(String validatorId, String setId) throws ConstructionException {
-        _lock.writeLock().lock();
+        _lock.lock();
         try {
-            Validator v = getValidator(validatorId);
+            Validator v = getValidatorInternal(validatorId);
             if (v == null)
                 throw new ConstructionException("Invalid group: " + validatorId);
             EmbeddedSet s = v.getSet(setId);
@@ -1765,14 +2181,15 @@ public class ValidationEngine {
 
             // the sets are not used in the internal state of the engine; so all we have to do is to update the raw data...
             s.setIgnored(true);
+            publishSnapshotIfOutermost();
         }
         finally {
-            _lock.writeLock().unlock();
+            _lock.unlock();
         }
     }
 
     // ********************************************************************************
-    //       OTHER PUBLIC METHODS (some lock required, depends on the method)
+    //       OTHER PUBLIC METHODS (use the current snapshot)
     // ********************************************************************************
 
     public String getEngineVersion() {
@@ -1797,16 +2214,11 @@ public class ValidationEngine {
      * @return the root (first element) of the supported java-path
      */
     public Set<String> getSupportedJavaPathRoots(boolean filterEmptyPaths) {
-        _lock.readLock().lock();
-        try {
-            if (filterEmptyPaths)
-                return _processorRoots.entrySet().stream().filter(e -> e.getValue().get() > 0).map(Entry::getKey).collect(Collectors.toSet());
-            else
-                return Collections.unmodifiableSet(_processorRoots.keySet());
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        Map<String, Integer> processorRoots = _snapshot.get().getProcessorRoots();
+        if (filterEmptyPaths)
+            return processorRoots.entrySet().stream().filter(e -> e.getValue() > 0).map(Entry::getKey).collect(Collectors.toSet());
+        else
+            return processorRoots.keySet();
     }
 
     /**
@@ -1816,37 +2228,99 @@ public class ValidationEngine {
      * @return a collection of <code>StatsDTO</code> object, possibly empty
      */
     public Map<String, EngineStats> getStats() {
-        _statsLock.readLock().lock();
-        try {
-            return _editsStats;
-        }
-        finally {
-            _statsLock.readLock().unlock();
-        }
+        return _editsStats.get().getStats();
     }
 
     /**
-     * Resets the statistics gathered so far...
+     * Returns a copy of the statistics gathered so far and resets them, in a single step: every validation is reported either in the returned statistics or in
+     * the next ones, never in both, and never in none of them.
+     * <p/>
+     * The validations that are running when this method is called are reported in the returned statistics, so this method waits for them to be done; it must
+     * not be called from a validation (from a rule failure listener for example).
+     * @return a map of <code>EngineStats</code> object, keyed by edit ID, possibly empty
+     */
+    public Map<String, EngineStats> getAndResetStats() {
+        EditsStatsCollector stats = _editsStats.getAndSet(new EditsStatsCollector());
+        stats.awaitRunningValidations();
+        return stats.copyStats(false);
+    }
+
+    /**
+     * Returns the statistics gathered so far, extrapolated to all the validations when the statistics are sampled (see {@link #setEditsStatsEnabled(boolean, int)}).
+     * <p/>
+     * The number of runs, the total times and the histograms are multiplied by the ratio between the number of validations and the number of sampled
+     * validations; the percentiles and the longest/shortest times are not affected.
+     * @return a map of <code>EngineStats</code> object, keyed by edit ID, possibly empty
+     */
+    public Map<String, EngineStats> getExtrapolatedStats() {
+        return _editsStats.get().copyStats(true);
+    }
+
+    /**
+     * Returns the number of times a thread had to wait for a Groovy Script instance to execute an edit or a condition, keyed by edit/condition ID.
+     * <p/>
+     * Only the edits and conditions that had at least one contention are returned; see {@link InitializationOptions#setScriptPoolSize(int)} to reduce those contentions.
+     * @return the script contentions, maybe empty but never null
+     */
+    public Map<String, Long> getScriptContentions() {
+        EngineSnapshot snapshot = _snapshot.get();
+        Map<String, Long> result = new HashMap<>();
+        for (ExecutableRule rule : snapshot.getExecutableRules().values())
+            if (rule.getNumScriptContentions() > 0)
+                result.put(rule.getId(), rule.getNumScriptContentions());
+        for (ExecutableCondition condition : snapshot.getExecutableConditions().values())
+            if (condition.getNumScriptContentions() > 0)
+                result.put(condition.getId(), condition.getNumScriptContentions());
+        return result;
+    }
+
+    /**
+     * Resets the statistics gathered so far (including the script contentions)...
      * <p/>
      * Created on Jun 29, 2009 by depryf
      */
     public void resetStats() {
-        _statsLock.writeLock().lock();
-        try {
-            _editsStats.clear();
-        }
-        finally {
-            _statsLock.writeLock().unlock();
-        }
+        _editsStats.set(new EditsStatsCollector());
+
+        EngineSnapshot snapshot = _snapshot.get();
+        snapshot.getExecutableRules().values().forEach(ExecutableRule::resetNumScriptContentions);
+        snapshot.getExecutableConditions().values().forEach(ExecutableCondition::resetNumScriptContentions);
     }
 
     /**
-     * Dynamically enables/disabled computing the edits statistics on this engine.
+     * Dynamically enables/disabled computing the edits statistics on this engine; when enabled, every validation is timed.
      */
     public void setEditsStatsEnabled(boolean enabled) {
+        setEditsStatsEnabled(enabled, 1);
+    }
+
+    /**
+     * Dynamically enables/disabled computing the edits statistics on this engine, timing only one validation out of the provided sampling rate.
+     * @param enabled whether the statistics should be computed
+     * @param samplingRate sampling rate, 1 means every validation is timed
+     */
+    public void setEditsStatsEnabled(boolean enabled, int samplingRate) {
+        if (samplingRate < 1)
+            throw new IllegalStateException("Statistics sampling rate must be at least 1");
+        _editsStatsSamplingRate = samplingRate;
         _computeEditsStats.set(enabled);
     }
 
+    /**
+     * Sets the function deciding, given the sampling rate, whether a validation has its edits timed (this is meant for the tests, which need a deterministic sampling).
+     * @param sampler sampler to use, cannot be null
+     */
+    void setEditsStatsSampler(IntPredicate sampler) {
+        _editsStatsSampler = sampler;
+    }
+
+    /**
+     * Returns the sampling rate of the edits statistics (1 means every validation is timed).
+     */
+    public int getEditsStatsSamplingRate() {
+        return _editsStatsSamplingRate;
+    }
+
     /**
      * Returns true if the edits statistics are on (that can be done via the initialization or dynamically via the engine itself).
      */
@@ -1864,38 +2338,58 @@ public class ValidationEngine {
      * @return a string representation of the engine's internal state
      */
     public String dumpInternalState() {
-        _lock.readLock().lock();
-        try {
-            StringBuilder result = new StringBuilder();
-            for (String key : new TreeSet<>(_processors.keySet())) // let's display the processors from smallest java path to biggest one...
-                _processors.get(key).dumpCache(result, key);
+        Map<String, ValidatingProcessor> processors = _snapshot.get().getProcessors();
+        StringBuilder result = new StringBuilder();
+        for (String key : new TreeSet<>(processors.keySet())) // let's display the processors from smallest java path to biggest one...
+            processors.get(key).dumpCache(result, key);
 
-            return result.toString();
-        }
-        finally {
-            _lock.readLock().unlock();
-        }
+        return result.toString();
     }
 
     // ********************************************************************************
     //                  INTERNAL METHODS (no lock required)
     // ********************************************************************************
 
-    private void internalizeValidator(Validator validator, Map<Long, ExecutableCondition> conditions, Map<Long, ExecutableRule> rules, Map<String, Object> contexts, InitializationStats stats) throws ConstructionException {
+    private void internalizeValidator(Validator validator, ScriptCompiler compiler, Map<Long, ExecutableCondition> conditions, Map<Long, ExecutableRule> rules, Map<String, Object> contexts, InitializationStats stats) throws ConstructionException {
 
         if (validator.getValidatorId() == null)
             validator.setValidatorId(ValidationServices.getInstance().getNextValidatorSequence());
         if (validator.getValidatorId() == null)
             throw new ConstructionException("Validator must have a non-null internal ID to be registered in the engine");
 
+        // the XML and edits parsing happened when the validator was loaded, but it's still part of the (first) initialization
+        if (stats != null) {
+            long[] parsingDurations = ValidationXmlUtils.consumeParsingDurations(validator);
+            if (parsingDurations != null) {
+                stats.addXmlParsingDuration(parsingDurations[0]);
+                stats.addRulesParsingDuration(parsingDurations[1]);
+            }
+        }
+
         // get pre-compiled rules if we have to
         CompiledRules compiledRules = null;
-        if (_options.isPreCompiledEditsEnabled())
+        if (_options.isPreCompiledEditsEnabled()) {
+            long start = System.nanoTime();
             compiledRules = RuntimeUtils.findCompileRules(validator, stats);
+            if (stats != null)
+                stats.addPreCompiledLookupDuration(System.nanoTime() - start);
+        }
         else if (stats != null)
             stats.setReasonNotPreCompiled(validator.getId(), InitializationStats.REASON_DISABLED);
 
+        // generate the pre-compiled rules if none were provided (or they can't be used) and if we have to
+        if (compiledRules == null && compiler != null && _options.isDynamicCompiledRulesEnabled()) {
+            long start = System.nanoTime();
+            compiledRules = DynamicCompiledRules.generate(validator, compiler, stats);
+            if (stats != null) {
+                stats.addCompilationDuration(System.nanoTime() - start);
+                if (compiledRules != null)
+                    stats.setReasonNotPreCompiled(validator.getId(), null);
+            }
+        }
+
         // internalize the rules
+        ScriptOptions ruleOptions = new ScriptOptions(getScriptPoolSize(), compiler, _options.isLazyCompilationEnabled());
         try (ExecutorService service = Executors.newFixedThreadPool(_options.getNumCompilationThreads())) {
             List<Future<Void>> results = new ArrayList<>(validator.getRules().size());
             if (validator.getRules() != null) {
@@ -1904,7 +2398,8 @@ public class ValidationEngine {
                         r.setRuleId(ValidationServices.getInstance().getNextRuleSequence());
                     if (r.getRuleId() == null)
                         throw new ConstructionException("Edits must have a non-null internal ID to be registered in the engine");
-                    results.add(service.submit(new RuleCompilingCallable(r, rules, compiledRules, stats)));
+                    CompiledRules ruleCompiledRules = compiledRules != null && compiledRules.containsRuleId(r.getId()) ? compiledRules : null;
+                    results.add(service.submit(new RuleCompilingCallable(r, rules, ruleCompiledRules, stats, ruleOptions)));
                 }
                 validator.setRules(new HashSet<>(validator.getRules())); // since internal IDs might have changed
             }
@@ -1916,7 +2411,7 @@ public class ValidationEngine {
                         c.setConditionId(ValidationServices.getInstance().getNextConditionSequence());
                     if (c.getConditionId() == null)
                         throw new ConstructionException("Conditions must have a non-null internal ID to be registered in the engine");
-                    conditions.put(c.getConditionId(), new ExecutableCondition(c));
+                    conditions.put(c.getConditionId(), new ExecutableCondition(c, new ScriptOptions(getScriptPoolSize(), compiler, false)));
                 }
                 validator.setConditions(new HashSet<>(validator.getConditions())); // since internal IDs might have changed
             }
@@ -1929,25 +2424,20 @@ public class ValidationEngine {
                 validator.setCategories(new HashSet<>(validator.getCategories())); // since internal IDs might have changed
             }
 
-            // for any context entry that threw an exception, re-try it a second time, hopefully the dependency exception will be resolved...
+            // evaluate the context entries, following the references they make to each other
             if (validator.getRawContext() != null) {
-                Set<ContextEntry> reRun = new HashSet<>();
-                for (ContextEntry entry : validator.getRawContext()) {
+                long start = System.nanoTime();
+                for (ContextEntry entry : validator.getRawContext())
                     if (entry.getContextEntryId() == null)
                         entry.setContextEntryId(ValidationServices.getInstance().getNextContextEntrySequence());
-                    try {
-                        // this is really not great, a better way would be to fully parse the context expressions, but that will do for now...
-                        if (entry.getExpression().contains(VALIDATOR_CONTEXT_KEY + "."))
-                            reRun.add(entry);
-                        else
-                            ValidationServices.getInstance().addContextExpression(entry.getExpression(), contexts, entry.getKey(), entry.getType());
-                    }
-                    catch (ConstructionException e) {
-                        reRun.add(entry);
-                    }
-                }
-                for (ContextEntry entry : reRun)
-                    ValidationServices.getInstance().addContextExpression(entry.getExpression(), contexts, entry.getKey(), entry.getType());
+                ContextEntriesEvaluator.evaluate(validator.getRawContext(), service, entry -> {
+                    long entryStart = System.nanoTime();
+                    evaluateContextEntry(validator.getId(), entry.getExpression(), contexts, entry.getKey(), entry.getType());
+                    if (stats != null)
+                        stats.addContextEntryDuration(validator.getId(), entry.getKey(), System.nanoTime() - entryStart);
+                });
+                if (stats != null)
+                    stats.addContextEvaluationDuration(System.nanoTime() - start);
                 validator.setRawContext(new HashSet<>(validator.getRawContext())); // since internal IDs might have changed
             }
 
@@ -1988,6 +2478,76 @@ public class ValidationEngine {
         }
     }
 
+    private void evaluateContextEntry(String validatorId, String expression, Map<String, Object> contexts, String key, String type) throws ConstructionException {
+        ContextEvaluationEvent event = new ContextEvaluationEvent();
+        event.begin();
+        try {
+            ValidationServices.getInstance().addContextExpression(expression, contexts, key, type);
+        }
+        catch (ConstructionException | RuntimeException e) {
+            event.exception = e.toString();
+            throw e;
+        }
+        finally {
+            if (event.shouldCommit()) {
+                event.validatorId = validatorId;
+                event.contextKey = key;
+                event.type = type;
+                event.commit();
+            }
+        }
+    }
+
+    private void compileDeferredRulesInBackground(Collection<ExecutableRule> rules) {
+        Map<String, List<ExecutableRule>> toCompile = new HashMap<>();
+        for (ExecutableRule rule : rules)
+            if (rule.isCompilationDeferred() && !Boolean.TRUE.equals(rule.getIgnored()))
+                toCompile.computeIfAbsent(rule.getRule().getValidator().getId(), k -> new ArrayList<>()).add(rule);
+        if (toCompile.isEmpty())
+            return;
+
+        if (_backgroundCompilationPool == null) {
+            _backgroundCompilationPool = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "validation-engine-background-compilation");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+
+        // the rules are compiled in the background, with a low priority; any rule executed in the meantime is compiled by the validating thread
+        for (Entry<String, List<ExecutableRule>> entry : toCompile.entrySet()) {
+            _backgroundCompilations.put(entry.getKey(), _backgroundCompilationPool.submit(() -> {
+                for (ExecutableRule rule : entry.getValue()) {
+                    if (Thread.currentThread().isInterrupted())
+                        return;
+                    try {
+                        rule.compileDeferredScript();
+                    }
+                    catch (RuntimeException e) {
+                        // the error will be reported if the rule is executed
+                    }
+                }
+            }));
+        }
+    }
+
+    // stops the background compilation of the validator (if any) and releases its compiler
+    private void closeCompiler(String validatorId, ScriptCompiler compiler) {
+        Future<?> compilation = _backgroundCompilations.remove(validatorId);
+        if (compilation != null)
+            compilation.cancel(true);
+        compiler.close();
+    }
+
+    private ScriptCompiler getCompiler(Validator validator) {
+        return validator == null ? null : _compilers.computeIfAbsent(validator.getId(), k -> new ScriptCompiler(_scriptCache));
+    }
+
+    private int getScriptPoolSize() {
+        return _options == null ? 1 : _options.getScriptPoolSize();
+    }
+
     private void checkValidatorConstraints(List<Validator> validators) throws ConstructionException {
         Set<String> validatorIds = new HashSet<>();
         Set<String> conditionIds = new HashSet<>();
@@ -2024,43 +2584,75 @@ public class ValidationEngine {
         }
     }
 
+    private boolean sampleEditsStats() {
+        if (!_computeEditsStats.get())
+            return false;
+
+        int rate = _editsStatsSamplingRate;
+        return rate <= 1 || _editsStatsSampler.test(rate);
+    }
+
     private Collection<RuleFailure> internalValidate(Validatable validatable, ValidatingContext vContext) throws ValidationException {
+        List<RuleFailure> failures = new ArrayList<>();
+        internalValidate(validatable, vContext, failures::add);
+        return failures;
+    }
+
+    private void internalValidate(Validatable validatable, ValidatingContext vContext, RuleFailureListener listener) throws ValidationException {
 
         // pre-condition: engine must be initialized
         if (_status == ValidationEngineStatus.NOT_INITIALIZED)
-            return new HashSet<>();
+            return;
 
         // pre-condition: there must be a root processor for this validatable
-        Processor processor = _processors.get(validatable.getRootLevel());
+        Processor processor = _snapshot.get().getProcessors().get(validatable.getRootLevel());
         if (processor == null)
-            return new HashSet<>();
+            return;
 
         // pre-condition: if a forced rule is provided, it must have a known java path
         if (vContext.getToForce() != null && !ValidationServices.getInstance().getAllJavaPaths().containsKey(vContext.getToForce().getJavaPath()))
             throw new ValidationException("Unknown java path for forced edit: " + vContext.getToForce().getJavaPath());
 
-        // process the validatable
-        Collection<RuleFailure> failures = processor.process(validatable, vContext);
+        // the validation is counted (and its stats reported) in the statistics that are current when it starts, even if they are reset while it runs
+        EditsStatsCollector editsStats = _computeEditsStats.get() || vContext.computeEditsStats() ? EditsStatsCollector.register(_editsStats, vContext.computeEditsStats()) : null;
+        try {
 
-        // report the stats if we have to
-        if (_computeEditsStats.get()) {
-            _statsLock.writeLock().lock();
-            try {
-                for (Entry<String, Long> entry : vContext.getEditDurations().entrySet())
-                    _editsStats.computeIfAbsent(entry.getKey(), EngineStats::new).reportStat(entry.getValue());
-            }
-            finally {
-                _statsLock.writeLock().unlock();
+            // process the validatable
+            ValidationEvent event = new ValidationEvent();
+            event.begin();
+            vContext.checkExecutionPlanKey();
+            if (event.isEnabled()) {
+                int[] numFailures = new int[1];
+                processor.process(validatable, vContext, null, failure -> {
+                    numFailures[0]++;
+                    listener.ruleFailed(failure);
+                });
+                if (event.shouldCommit()) {
+                    event.rootLevel = validatable.getRootLevel();
+                    event.displayId = validatable.getDisplayId();
+                    event.numFailures = numFailures[0];
+                    event.commit();
+                }
             }
-        }
+            else
+                processor.process(validatable, vContext, null, listener);
 
-        return failures;
+            // report the stats if we have to
+            if (editsStats != null && vContext.computeEditsStats())
+                editsStats.report(vContext.getEditDurations());
+        }
+        finally {
+            if (editsStats != null)
+                editsStats.unregister();
+        }
     }
 
     private void populateProcessors(List<ExecutableRule> sortedRules) {
 
-        _processors.clear();
-        _processorRoots.clear();
+        // the processors are always re-created since the current ones might be used by a published snapshot
+        _processors = new HashMap<>();
+        _processorRoots = new HashMap<>();
+        _sortedRules = sortedRules;
 
         // go through each java path and create/get the corresponding processors        
         for (String javaPath : ValidationServices.getInstance().getAllJavaPaths().keySet()) {
@@ -2081,6 +2673,8 @@ public class ValidationEngine {
                 if (vProcessor == null) {
                     vProcessor = new ValidatingProcessor(partialPath.toString());
                     IterativeProcessor iProcessor = new IterativeProcessor(vProcessor, parts[i]);
+                    if (_collectionsPool != null)
+                        iProcessor.setParallelTraversal(_collectionsPool, _options.getCollectionsParallelismThreshold());
                     _processors.put(partialPath.toString(), vProcessor);
                     current.addNested(iProcessor);
                 }
@@ -2089,6 +2683,9 @@ public class ValidationEngine {
             }
         }
 
+        for (ValidatingProcessor p : _processors.values())
+            p.setEditsPool(_editsPool);
+
         // update the processors
         if (sortedRules != null)
             updateProcessorsRules(sortedRules);
@@ -2096,6 +2693,19 @@ public class ValidationEngine {
         updateProcessorsContexts(_contexts);
     }
 
+    // publishes the current state, unless the modification is called by another one (that one will publish the state once it is entirely done)
+    private void publishSnapshotIfOutermost() {
+        if (_lock.getHoldCount() == 1)
+            publishSnapshot();
+    }
+
+    private void publishSnapshot() {
+        Map<String, Integer> processorRoots = new HashMap<>();
+        for (Entry<String, AtomicInteger> entry : _processorRoots.entrySet())
+            processorRoots.put(entry.getKey(), entry.getValue().get());
+        _snapshot.set(new EngineSnapshot(_validators, _processors, processorRoots, _executableRules, _executableConditions, _contexts));
+    }
+
     private void updateProcessorsRules(List<ExecutableRule> sortedRules) {
 
         // get the sorted rules by java-path
@@ -2103,6 +2713,11 @@ public class ValidationEngine {
         for (ExecutableRule rule : sortedRules)
             rules.computeIfAbsent(rule.getJavaPath(), k -> new ArrayList<>()).add(rule);
 
+        // compute the ordinals and the dependencies/conditions masks of the new rules (the other ones might be used by a published snapshot)
+        for (ExecutableRule rule : sortedRules)
+            if (rule.getOrdinal() < 0)
+                rule.computeOrdinals(_ruleOrdinals, _conditionOrdinals);
+
         // since we are about to reset all the rules in every processor, let's reset the rule counts as well
         _processorRoots.values().forEach(i -> i.set(0));
 
@@ -2118,8 +2733,11 @@ public class ValidationEngine {
 
         // get the conditions by java-path (there is no order needed for conditions)
         Map<String, List<ExecutableCondition>> conditions = new HashMap<>();
-        for (ExecutableCondition condition : allConditions)
+        for (ExecutableCondition condition : allConditions) {
+            if (condition.getOrdinal() < 0)
+                condition.computeOrdinal(_conditionOrdinals);
             conditions.computeIfAbsent(condition.getJavaPath(), k -> new ArrayList<>()).add(condition);
+        }
 
         // update all the processors
         for (ValidatingProcessor p : _processors.values())
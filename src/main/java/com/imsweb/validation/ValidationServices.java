@@ -29,10 +29,14 @@ import groovy.lang.Script;
 
 import com.imsweb.validation.entities.ContextTable;
 import com.imsweb.validation.entities.ContextTableIndex;
+import com.imsweb.validation.entities.LegacyContextIndex;
+import com.imsweb.validation.entities.LegacyContextTable;
 import com.imsweb.validation.entities.SimpleMapValidatable;
 import com.imsweb.validation.entities.SimpleNaaccrLinesValidatable;
 import com.imsweb.validation.entities.Validatable;
+import com.imsweb.validation.internal.ScriptCompiler;
 import com.imsweb.validation.internal.context.JavaContextParser;
+import com.imsweb.validation.internal.context.JavaContextTableParser;
 
 /**
  * This class provides basic utility services to the validation engine.
@@ -342,7 +346,7 @@ public class ValidationServices {
         Object result;
 
         try {
-            Script script = new GroovyShell().parse(expression);
+            Script script = new GroovyShell(ScriptCompiler.getConfiguration()).parse(expression);
 
             Binding binding = new Binding();
             binding.setVariable(ValidationEngine.VALIDATOR_FUNCTIONS_KEY, ValidationContextFunctions.getInstance());
@@ -391,6 +395,14 @@ public class ValidationServices {
 
         try {
             result = JavaContextParser.parseContext(expression, context);
+            // the legacy (v4) lookup indexes and tables are plain lists; upgrade them so the lookups don't have to scan them (they remain modifiable lists)
+            if (result instanceof List<?> list) {
+                Object upgraded = LegacyContextIndex.create(list);
+                if (upgraded == null)
+                    upgraded = LegacyContextTable.create(list);
+                if (upgraded != null)
+                    result = upgraded;
+            }
             context.put(entryId, result);
         }
         catch (RuntimeException e) {
@@ -410,25 +422,16 @@ public class ValidationServices {
      * @return the "compiled" context entry
      * @throws ConstructionException if anything goes wrong
      */
-    @SuppressWarnings("unchecked")
     ContextTable addTableContextExpression(String expression, Map<String, Object> context, String entryId) throws ConstructionException {
         ContextTable result;
 
         try {
-            Object data = JavaContextParser.parseContext(expression, context);
-            if (!(data instanceof List))
-                throw new ConstructionException("Unable to evaluate context for key '" + entryId + "'; bad format for a table");
-
-            // first row has to be String values (the headers); technically Genedits support numeric columns, but those are not supported in the engine
-            for (List<?> row : (List<List<?>>)data)
-                for (Object obj : row)
-                    if (!(obj instanceof String))
-                        throw new IllegalStateException("Tables only support String values; found " + obj.getClass().getSimpleName());
-
-            result = new ContextTable(entryId, (List<List<String>>)data);
+            // tables can be very large, so they are parsed directly into their final representation, without creating the rows as lists; technically
+            // Genedits support numeric columns, but those are not supported in the engine (the parser only accepts String values)
+            result = JavaContextTableParser.parseTable(entryId, expression, context);
             context.put(entryId, result);
         }
-        catch (RuntimeException e) {
+        catch (ConstructionException | RuntimeException e) {
             throw new ConstructionException("Unable to evaluate context for key '" + entryId + "'", e);
         }
 
@@ -507,7 +510,7 @@ public class ValidationServices {
         if (expression == null || expression.trim().isEmpty())
             expression = "return true";
 
-        return new GroovyShell().parse(expression);
+        return new GroovyShell(ScriptCompiler.getConfiguration()).parse(expression);
     }
 
     public List<String> fillInMessages(List<String> originalMessages, Validatable validatable) {
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -135,6 +136,12 @@ public final class ValidationXmlUtils {
      */
     private static final Pattern _PATTERN_RULE_ID = Pattern.compile("^(\\D*+)(\\d++)(.*+)$");
 
+    /**
+     * The XML and edits parsing durations (in nanoseconds) of the loaded validators, until the engine reports them in its initialization statistics (so they
+     * are reported only once, even if the same validator is loaded several times); the validators are weakly referenced so this doesn't retain them
+     */
+    private static final Map<Validator, long[]> _PARSING_DURATIONS = Collections.synchronizedMap(new WeakHashMap<>());
+
     /**
      * Whether or not the expressions, descriptions, messages, etc... should be re-aligned (disabled by default).
      */
@@ -350,7 +357,9 @@ public final class ValidationXmlUtils {
             throw new IOException("Unable to load validator, target reader is null");
 
         try {
+            long start = System.nanoTime();
             ValidatorXmlDto validatorType = (ValidatorXmlDto)createValidatorXStream().fromXML(reader);
+            long xmlParsingDuration = System.nanoTime() - start;
 
             Validator validator = new Validator();
             validator.setValidatorId(ValidationServices.getInstance().getNextValidatorSequence());
@@ -366,7 +375,9 @@ public final class ValidationXmlUtils {
             readValidatorContext(validator, validatorType.getContextEntries());
             readValidatorCategories(validator, validatorType.getCategories());
             readValidatorConditions(validator, validatorType.getConditions());
+            start = System.nanoTime();
             readValidatorRules(validator, validatorType.getRules(), runtime);
+            long rulesParsingDuration = System.nanoTime() - start;
             readValidatorSets(validator, validatorType.getSets());
 
             // and finally calculate the inverted dependencies - this requires two passes over the edits; maybe somebody smarter will make it faster ;-)
@@ -381,6 +392,8 @@ public final class ValidationXmlUtils {
             if (runtime != null)
                 validator.setCompiledRules(runtime.getCompiledRules());
 
+            _PARSING_DURATIONS.put(validator, new long[] {xmlParsingDuration, rulesParsingDuration});
+
             return validator;
         }
         catch (RuntimeException e) {
@@ -388,6 +401,15 @@ public final class ValidationXmlUtils {
         }
     }
 
+    /**
+     * Returns the XML and edits parsing durations (in nanoseconds) of the provided validator and forgets them, so they are only reported once.
+     * @param validator validator loaded by this class
+     * @return an array with the XML parsing and edits parsing durations, null if the validator wasn't loaded by this class or its durations were already returned
+     */
+    static long[] consumeParsingDurations(Validator validator) {
+        return _PARSING_DURATIONS.remove(validator);
+    }
+
     /**
      * Writes the passed <code>Validator</code> object to the passed file.
      * <p/>
@@ -3,11 +3,32 @@
  */
 package com.imsweb.validation.entities;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class represent a table in the Genedits framework.
+ * <br/><br/>
+ * The content is stored by column; every column is dictionary-encoded (each distinct value is stored once, and every cell is a code in that dictionary),
+ * using the smallest primitive array that can hold the codes. The rows returned by <code>getData()</code> are views on those columns; the lookup functions
+ * should use <code>getCell()</code> to read a value without creating any row.
+ * <br/><br/>
+ * The dictionaries also keep the right-trimmed characters of every value, and the columns requested by the lookup functions are resolved once per set of
+ * requested columns (see <code>getColumnHandles()</code>), so copying the cells of a row into the table variables of an edit doesn't require any search
+ * nor any new String.
+ * <br/><br/>
+ * A table can also be created one cell at a time with a <code>Builder</code> (this is how the table contexts are parsed), in which case the rows are never
+ * created as lists.
  */
 public class ContextTable {
 
@@ -17,8 +38,20 @@ public class ContextTable {
     // table headers
     private final List<String> _headers;
 
-    // table content
-    private final List<List<String>> _data;
+    // position of the headers (first occurrence of each header)
+    private final Map<String, Integer> _headerPositions;
+
+    // table content, one element per column
+    private final Column[] _columns;
+
+    // number of rows (headers excluded)
+    private final int _numRows;
+
+    // the length of each row, only when the rows don't all have the same length as the headers (null otherwise)
+    private final int[] _rowLengths;
+
+    // the resolved columns, keyed by requested headers
+    private final Map<Set<?>, ColumnHandles> _columnHandles;
 
     /**
      * Constructor
@@ -26,9 +59,33 @@ public class ContextTable {
      * @param data table content (first row (index 0) are the headers)
      */
     public ContextTable(String name, List<List<String>> data) {
-        _name = name;
-        _headers = data.get(0);
-        _data = data.subList(1, data.size());
+        this(createBuilder(name, data));
+    }
+
+    private ContextTable(Builder builder) {
+        _name = builder._name;
+        _headers = builder._headers;
+        _headerPositions = new HashMap<>();
+        for (int i = 0; i < _headers.size(); i++)
+            _headerPositions.putIfAbsent(_headers.get(i), i);
+        _numRows = builder._numRows;
+        _rowLengths = builder._ragged ? Arrays.copyOf(builder._rowLengths, _numRows) : null;
+
+        _columns = new Column[builder._columns.size()];
+        for (int colIdx = 0; colIdx < _columns.length; colIdx++)
+            _columns[colIdx] = builder._columns.get(colIdx).build();
+
+        _columnHandles = new ConcurrentHashMap<>();
+    }
+
+    private static Builder createBuilder(String name, List<List<String>> data) {
+        Builder builder = new Builder(name, data.get(0));
+        for (int rowIdx = 1; rowIdx < data.size(); rowIdx++) {
+            for (String value : data.get(rowIdx))
+                builder.addCell(value);
+            builder.endRow();
+        }
+        return builder;
     }
 
     /**
@@ -48,11 +105,81 @@ public class ContextTable {
     }
 
     /**
-     * Returns the table content.
+     * Returns the table content; the returned list (and its rows) is a read-only view on the table.
      * @return table content
      */
     public List<List<String>> getData() {
-        return _data;
+        return new RowsView();
+    }
+
+    /**
+     * Returns the number of rows (headers excluded).
+     * @return number of rows
+     */
+    public int getNumRows() {
+        return _numRows;
+    }
+
+    /**
+     * Returns the index of the requested column, -1 if there is no such column.
+     * @param header column header
+     * @return the 0-based column index, -1 if not found
+     */
+    public int getColumnIndex(String header) {
+        Integer idx = _headerPositions.get(header);
+        return idx == null ? -1 : idx;
+    }
+
+    /**
+     * Returns the value of a single cell.
+     * @param rowIdx 0-based row index (headers excluded)
+     * @param colIdx 0-based column index
+     * @return cell value
+     */
+    public String getCell(int rowIdx, int colIdx) {
+        if (rowIdx < 0 || rowIdx >= _numRows || colIdx < 0 || colIdx >= getRowLength(rowIdx))
+            throw new IndexOutOfBoundsException("Cell [" + rowIdx + ", " + colIdx + "] is outside of table \"" + _name + "\"");
+        return _columns[colIdx].get(rowIdx);
+    }
+
+    /**
+     * Copies the right-trimmed value of a cell into the provided array; the value is terminated by a null character if the array is long enough
+     * (this is the same as calling <code>GEN_STRCPY(target, trimRight(value))</code> in the metafile functions).
+     * @param rowIdx 0-based row index (headers excluded)
+     * @param colIdx 0-based column index
+     * @param target target array
+     */
+    public void copyTrimmedCell(int rowIdx, int colIdx, char[] target) {
+        if (rowIdx < 0 || rowIdx >= _numRows || colIdx < 0 || colIdx >= getRowLength(rowIdx))
+            throw new IndexOutOfBoundsException("Cell [" + rowIdx + ", " + colIdx + "] is outside of table \"" + _name + "\"");
+        char[] value = _columns[colIdx].getTrimmed(rowIdx);
+        System.arraycopy(value, 0, target, 0, Math.min(value.length, target.length));
+        if (value.length < target.length)
+            target[value.length] = '\0';
+    }
+
+    /**
+     * Returns the columns corresponding to the requested headers; the result is computed only once for a given set of headers.
+     * @param headers requested headers (typically the keys of the table variables of an edit)
+     * @return the corresponding columns
+     */
+    public ColumnHandles getColumnHandles(Set<?> headers) {
+        ColumnHandles handles = _columnHandles.get(headers);
+        if (handles == null) {
+            Object[] names = headers.toArray();
+            int[] columns = new int[names.length];
+            for (int i = 0; i < names.length; i++)
+                columns[i] = names[i] instanceof String ? getColumnIndex((String)names[i]) : -1;
+            handles = new ColumnHandles(names, columns);
+            ColumnHandles existing = _columnHandles.putIfAbsent(new HashSet<>(Arrays.asList(names)), handles);
+            if (existing != null)
+                handles = existing;
+        }
+        return handles;
+    }
+
+    private int getRowLength(int rowIdx) {
+        return _rowLengths == null ? _headers.size() : _rowLengths[rowIdx];
     }
 
     @Override
@@ -72,4 +199,246 @@ public class ContextTable {
     public int hashCode() {
         return Objects.hash(_name);
     }
+
+    /**
+     * A dictionary-encoded column; only one of the code arrays is used, depending on the number of distinct values.
+     */
+    private static final class Column {
+
+        private final String[] _values;
+
+        private final char[][] _trimmedValues;
+
+        private final byte[] _byteCodes;
+
+        private final char[] _charCodes;
+
+        private final int[] _intCodes;
+
+        private Column(String[] values, byte[] byteCodes, char[] charCodes, int[] intCodes) {
+            _values = values;
+            _trimmedValues = new char[values.length][];
+            for (int i = 0; i < values.length; i++)
+                _trimmedValues[i] = trimRight(values[i]);
+            _byteCodes = byteCodes;
+            _charCodes = charCodes;
+            _intCodes = intCodes;
+        }
+
+        String get(int rowIdx) {
+            if (_byteCodes != null)
+                return _values[_byteCodes[rowIdx] & 0xFF];
+            if (_charCodes != null)
+                return _values[_charCodes[rowIdx]];
+            return _values[_intCodes[rowIdx]];
+        }
+
+        char[] getTrimmed(int rowIdx) {
+            if (_byteCodes != null)
+                return _trimmedValues[_byteCodes[rowIdx] & 0xFF];
+            if (_charCodes != null)
+                return _trimmedValues[_charCodes[rowIdx]];
+            return _trimmedValues[_intCodes[rowIdx]];
+        }
+
+        private static char[] trimRight(String value) {
+            if (value == null)
+                return new char[0];
+            int end = value.length();
+            while (end > 0 && value.charAt(end - 1) <= ' ')
+                end--;
+            return value.substring(0, end).toCharArray();
+        }
+    }
+
+    /**
+     * The columns resolved for a set of requested headers; the column is -1 for a header that doesn't exist in the table.
+     */
+    public static final class ColumnHandles {
+
+        private final Object[] _headers;
+
+        private final int[] _columns;
+
+        private ColumnHandles(Object[] headers, int[] columns) {
+            _headers = headers;
+            _columns = columns;
+        }
+
+        public int size() {
+            return _headers.length;
+        }
+
+        public Object getHeader(int i) {
+            return _headers[i];
+        }
+
+        public int getColumn(int i) {
+            return _columns[i];
+        }
+    }
+
+    /**
+     * Creates a table one cell at a time, without requiring the rows to be available as lists; the cells are directly added to the columns.
+     */
+    public static final class Builder {
+
+        private final String _name;
+
+        private final List<String> _headers;
+
+        private final List<ColumnBuilder> _columns;
+
+        private int[] _rowLengths;
+
+        private int _numRows;
+
+        private int _currentRowLength;
+
+        private boolean _ragged;
+
+        /**
+         * Constructor
+         * @param name table name
+         * @param headers table headers
+         */
+        public Builder(String name, List<String> headers) {
+            _name = name;
+            _headers = Collections.unmodifiableList(new ArrayList<>(headers));
+            _columns = new ArrayList<>();
+            for (int colIdx = 0; colIdx < _headers.size(); colIdx++)
+                _columns.add(new ColumnBuilder(0));
+            _rowLengths = new int[16];
+        }
+
+        /**
+         * Adds a cell to the current row.
+         * @param value cell value
+         * @return this builder
+         */
+        public Builder addCell(String value) {
+            // a row can be longer than the headers; the rows already added don't have any value for the new column
+            if (_currentRowLength == _columns.size()) {
+                ColumnBuilder column = new ColumnBuilder(_numRows + 1);
+                for (int rowIdx = 0; rowIdx < _numRows; rowIdx++)
+                    column.add(null);
+                _columns.add(column);
+            }
+            _columns.get(_currentRowLength++).add(value);
+            return this;
+        }
+
+        /**
+         * Ends the current row; the next added cell will be the first one of a new row.
+         * @return this builder
+         */
+        public Builder endRow() {
+            for (int colIdx = _currentRowLength; colIdx < _columns.size(); colIdx++)
+                _columns.get(colIdx).add(null);
+            if (_currentRowLength != _headers.size())
+                _ragged = true;
+            if (_numRows == _rowLengths.length)
+                _rowLengths = Arrays.copyOf(_rowLengths, _rowLengths.length * 2);
+            _rowLengths[_numRows++] = _currentRowLength;
+            _currentRowLength = 0;
+            return this;
+        }
+
+        /**
+         * Creates the table; the current row must have been ended.
+         * @return the created table
+         */
+        public ContextTable build() {
+            if (_currentRowLength != 0)
+                throw new IllegalStateException("The last row of table \"" + _name + "\" hasn't been ended");
+            return new ContextTable(this);
+        }
+    }
+
+    /**
+     * Accumulates the values of a column, then creates the most compact representation for them.
+     */
+    private static final class ColumnBuilder {
+
+        private final Map<String, Integer> _dictionary = new HashMap<>();
+
+        private final List<String> _values = new ArrayList<>();
+
+        private int[] _codes;
+
+        private int _size;
+
+        private ColumnBuilder(int expectedSize) {
+            _codes = new int[Math.max(expectedSize, 16)];
+        }
+
+        void add(String value) {
+            Integer code = _dictionary.get(value);
+            if (code == null) {
+                code = _values.size();
+                _dictionary.put(value, code);
+                _values.add(value);
+            }
+            if (_size == _codes.length)
+                _codes = Arrays.copyOf(_codes, _codes.length * 2);
+            _codes[_size++] = code;
+        }
+
+        Column build() {
+            String[] values = _values.toArray(new String[0]);
+            if (values.length <= 1 << Byte.SIZE) {
+                byte[] codes = new byte[_size];
+                for (int i = 0; i < _size; i++)
+                    codes[i] = (byte)_codes[i];
+                return new Column(values, codes, null, null);
+            }
+            if (values.length <= 1 << Character.SIZE) {
+                char[] codes = new char[_size];
+                for (int i = 0; i < _size; i++)
+                    codes[i] = (char)_codes[i];
+                return new Column(values, null, codes, null);
+            }
+            return new Column(values, null, null, Arrays.copyOf(_codes, _size));
+        }
+    }
+
+    /**
+     * Read-only view of the rows of the table.
+     */
+    private final class RowsView extends AbstractList<List<String>> implements RandomAccess {
+
+        @Override
+        public List<String> get(int rowIdx) {
+            if (rowIdx < 0 || rowIdx >= _numRows)
+                throw new IndexOutOfBoundsException("Row " + rowIdx + " is outside of table \"" + _name + "\"");
+            return new RowView(rowIdx);
+        }
+
+        @Override
+        public int size() {
+            return _numRows;
+        }
+    }
+
+    /**
+     * Read-only view of a single row of the table.
+     */
+    private final class RowView extends AbstractList<String> implements RandomAccess {
+
+        private final int _rowIdx;
+
+        private RowView(int rowIdx) {
+            _rowIdx = rowIdx;
+        }
+
+        @Override
+        public String get(int colIdx) {
+            return getCell(_rowIdx, colIdx);
+        }
+
+        @Override
+        public int size() {
+            return getRowLength(_rowIdx);
+        }
+    }
 }
@@ -4,37 +4,37 @@
 package com.imsweb.validation.entities;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.function.Function;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * This class represent a table index in the Genedits framework.
  * <br/><br/>
  * When a value is found, the row index in the corresponding table is returned; this is a 0-based value that doesn't take into account the table headers
  * (so if value 0 is returned, it means the first row of data in the table).
+ * <br/><br/>
+ * The index is stored as two parallel arrays sorted by key (and by row number for identical keys): the keys and their row numbers. Both the exact and
+ * floor lookups are binary searches on those arrays, whether the keys are unique or not.
  */
 public class ContextTableIndex {
 
     // index name
     private final String _name;
 
-    // data structure used for unique keys
-    private NavigableMap<String, Integer> _uniqueKeysData;
+    // the sorted keys
+    private final String[] _keys;
+
+    // the row numbers, in the same order as the keys
+    private final int[] _rows;
 
-    // data structure used for non-unique keys
-    private List<Pair<String, Integer>> _nonUniqueKeysData;
+    // whether the keys are unique
+    private final boolean _uniqueKeys;
 
     /**
      * Constructor
@@ -47,7 +47,7 @@ public class ContextTableIndex {
 
         List<Integer> colIdx = new ArrayList<>();
         for (String column : indexedColumns) {
-            int idx = table.getHeaders().indexOf(column.trim());
+            int idx = table.getColumnIndex(column.trim());
             if (idx == -1)
                 throw new IllegalStateException("Unable to find column \"" + column + "\" to index on table \"" + table.getName() + "\"");
             colIdx.add(idx);
@@ -57,25 +57,28 @@ public class ContextTableIndex {
         boolean keysAreUnique = true;
         Pattern pattern = Pattern.compile("\\s+$");
 
-        _nonUniqueKeysData = new ArrayList<>();
-        for (int rowIdx = 0; rowIdx < table.getData().size(); rowIdx++) {
-            List<String> row = table.getData().get(rowIdx);
+        int numRows = table.getNumRows();
+        String[] keys = new String[numRows];
+        Integer[] order = new Integer[numRows];
+        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
+            int row = rowIdx;
             // I *think* the index keys are right-trimmed in Genedits (I can't really prove it though)
-            String key = pattern.matcher(StringUtils.join(colIdx.stream().map(row::get).toArray(String[]::new))).replaceAll("");
-            if (keysAdded.contains(key))
+            String key = pattern.matcher(StringUtils.join(colIdx.stream().map(col -> table.getCell(row, col)).toArray(String[]::new))).replaceAll("");
+            if (!keysAdded.add(key))
                 keysAreUnique = false;
-            keysAdded.add(key);
-            _nonUniqueKeysData.add(new ImmutablePair<>(key, rowIdx));
+            keys[rowIdx] = key;
+            order[rowIdx] = rowIdx;
         }
 
-        if (keysAreUnique) {
-            _uniqueKeysData = new TreeMap<>();
-            for (Pair<String, Integer> pair : _nonUniqueKeysData)
-                _uniqueKeysData.put(pair.getKey(), pair.getValue());
-            _nonUniqueKeysData = null;
+        // the sort is stable, so identical keys remain sorted by row number
+        Arrays.sort(order, (r1, r2) -> keys[r1].compareTo(keys[r2]));
+        _keys = new String[numRows];
+        _rows = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+            _keys[i] = keys[order[i]];
+            _rows[i] = order[i];
         }
-        else
-            _nonUniqueKeysData.sort(Comparator.comparing((Function<Pair<String, Integer>, String>)Pair::getKey).thenComparingInt(Pair::getValue));
+        _uniqueKeys = keysAreUnique;
     }
 
     /**
@@ -87,23 +90,9 @@ public class ContextTableIndex {
         if (value == null)
             return -1;
 
-        int result = -1;
-
-        if (_uniqueKeysData != null)
-            result = _uniqueKeysData.getOrDefault(value, -1);
-        else {
-            for (Pair<String, Integer> pair : _nonUniqueKeysData) {
-                int comp = value.compareTo(pair.getKey());
-                if (comp == 0) {
-                    result = pair.getValue();
-                    break;
-                }
-                else if (comp < 0)
-                    break; // values in the list are sorted, so we can stop the iteration sooner...
-            }
-        }
-
-        return result;
+        // for non-unique keys, the first row with that key is returned
+        int idx = lowerBound(value);
+        return idx < _keys.length && value.equals(_keys[idx]) ? _rows[idx] : -1;
     }
 
     /**
@@ -115,43 +104,41 @@ public class ContextTableIndex {
         if (value == null)
             return -1;
 
-        int result = -1;
-
         // if the value is smaller than the smaller index key, return not found (-1)
         // if the value is greater than the greatest index key, return the last index value
         // if the value is equals to an index key, return the greatest index with that value
         // if a value is not equals to any index keys (but within the range of the keys), return the greatest (last) index that is smaller than the value
 
-        if (_uniqueKeysData != null) {
-            if (value.compareTo(_uniqueKeysData.firstKey()) >= 0) {
-                Entry<String, Integer> entry = _uniqueKeysData.floorEntry(value);
-                if (entry != null)
-                    result = entry.getValue();
-                else
-                    result = _uniqueKeysData.lastEntry().getValue();
-            }
+        int idx = upperBound(value) - 1;
+        return idx >= 0 ? _rows[idx] : -1;
+    }
 
+    // returns the index of the first key that is greater than or equal to the value (the number of keys if there is none)
+    private int lowerBound(String value) {
+        int low = 0;
+        int high = _keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (_keys[mid].compareTo(value) < 0)
+                low = mid + 1;
+            else
+                high = mid;
         }
-        else {
-            if (value.compareTo(_nonUniqueKeysData.get(0).getKey()) >= 0) {
-                for (int indexIdx = 0; indexIdx < _nonUniqueKeysData.size(); indexIdx++) {
-                    Pair<String, Integer> pair = _nonUniqueKeysData.get(indexIdx);
-                    int comp = value.compareTo(pair.getKey());
-                    if (comp == 0 && (indexIdx == _nonUniqueKeysData.size() - 1 || value.compareTo(_nonUniqueKeysData.get(indexIdx + 1).getKey()) < 0)) {
-                        result = pair.getValue();
-                        break;
-                    }
-                    else if (comp < 0) {
-                        result = _nonUniqueKeysData.get(indexIdx - 1).getValue();
-                        break;
-                    }
-                }
-                if (result == -1)
-                    result = _nonUniqueKeysData.get(_nonUniqueKeysData.size() - 1).getValue();
-            }
-        }
+        return low;
+    }
 
-        return result;
+    // returns the index of the first key that is strictly greater than the value (the number of keys if there is none)
+    private int upperBound(String value) {
+        int low = 0;
+        int high = _keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (_keys[mid].compareTo(value) <= 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
     }
 
     /**
@@ -159,7 +146,7 @@ public class ContextTableIndex {
      * @return true if the index has unique values, false otherwise.
      */
     public boolean hasUniqueKeys() {
-        return _uniqueKeysData != null;
+        return _uniqueKeys;
     }
 
     @Override
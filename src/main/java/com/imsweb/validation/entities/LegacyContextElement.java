@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.entities;
+
+import java.util.AbstractList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A row of a <code>LegacyContextTable</code> or a pair of a <code>LegacyContextIndex</code>, as returned by those lists: the modifications are written through
+ * to the original element, and they drop the keys the owner derived from its elements.
+ * @param <E> type of the values
+ */
+final class LegacyContextElement<E> extends AbstractList<E> implements RandomAccess {
+
+    // the original element
+    private final List<E> _values;
+
+    // drops the keys derived by the owner
+    private final Runnable _invalidator;
+
+    LegacyContextElement(List<E> values, Runnable invalidator) {
+        _values = values;
+        _invalidator = invalidator;
+    }
+
+    @Override
+    public E get(int index) {
+        return _values.get(index);
+    }
+
+    @Override
+    public int size() {
+        return _values.size();
+    }
+
+    @Override
+    public E set(int index, E value) {
+        E result = _values.set(index, value);
+        _invalidator.run();
+        return result;
+    }
+
+    @Override
+    public void add(int index, E value) {
+        _values.add(index, value);
+        modCount++;
+        _invalidator.run();
+    }
+
+    @Override
+    public E remove(int index) {
+        E result = _values.remove(index);
+        modCount++;
+        _invalidator.run();
+        return result;
+    }
+
+    @Override
+    public void sort(Comparator<? super E> c) {
+        _values.sort(c);
+        modCount++;
+        _invalidator.run();
+    }
+}
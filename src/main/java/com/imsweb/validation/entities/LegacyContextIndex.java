@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.entities;
+
+import java.util.AbstractList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * This class represents an index of the old Genedits framework (v4) defined as a Java context: a sorted list of values, or a sorted list of
+ * [value, row number] pairs.
+ * <br/><br/>
+ * The engine upgrades those lists when the context is loaded so the lookup functions can use binary searches instead of scanning them. The object is still
+ * a list backed by the original one: it can be modified like the original list, and so can the pairs it returns (the modifications are written through).
+ * Any modification, of the list or of one of its pairs, drops the searchable keys, which are computed again on the next lookup (the lookups scan the list
+ * if it is not a sorted index anymore). Only the sorted lists are upgraded since the lookups on the other ones rely on the order of their elements.
+ */
+public class LegacyContextIndex extends AbstractList<Object> implements RandomAccess {
+
+    // the keys of a list that is not a sorted index (anymore)
+    private static final Keys _NOT_AN_INDEX = new Keys(null, null);
+
+    // the original elements
+    private final List<Object> _elements;
+
+    // the keys of the elements, null if the list was modified since they were computed
+    private volatile Keys _keys;
+
+    // drops the keys when a pair is modified
+    private final Runnable _invalidator = () -> _keys = null;
+
+    private LegacyContextIndex(List<Object> elements, Keys keys) {
+        _elements = elements;
+        _keys = keys;
+    }
+
+    /**
+     * Creates an index for the provided list if it is a sorted list of values or a sorted list of [value, row number] pairs; returns null otherwise.
+     * @param list list to upgrade
+     * @return the corresponding index, null if the list is not a legacy index
+     */
+    @SuppressWarnings("unchecked")
+    public static LegacyContextIndex create(List<?> list) {
+        Keys keys = computeKeys(list);
+        return keys == null ? null : new LegacyContextIndex((List<Object>)list, keys);
+    }
+
+    // returns the keys (values and row numbers) of the elements, null if the list is not a sorted list of values or of [value, row number] pairs
+    private static Keys computeKeys(List<?> list) {
+        if (list == null || list.isEmpty())
+            return null;
+
+        boolean pairs = list.getFirst() instanceof List;
+        String[] values = new String[list.size()];
+        int[] rows = pairs ? new int[list.size()] : null;
+        for (int i = 0; i < values.length; i++) {
+            Object element = list.get(i);
+            if (pairs) {
+                if (!(element instanceof List<?> pair) || pair.size() != 2 || !(pair.get(0) instanceof String key) || !(pair.get(1) instanceof Integer row))
+                    return null;
+                values[i] = key;
+                rows[i] = row;
+            }
+            else if (element instanceof String key)
+                values[i] = key;
+            else
+                return null;
+            if (i > 0 && values[i - 1].compareTo(values[i]) > 0)
+                return null;
+        }
+
+        return new Keys(values, rows);
+    }
+
+    // returns the current keys, computing them again if the list was modified
+    private Keys getKeys() {
+        Keys keys = _keys;
+        if (keys == null) {
+            keys = computeKeys(_elements);
+            if (keys == null)
+                keys = _NOT_AN_INDEX;
+            _keys = keys;
+        }
+        return keys;
+    }
+
+    /**
+     * Returns true if the elements are (still) a sorted list of values or of [value, row number] pairs; the other methods of this class can only be used
+     * if this one returns true.
+     * @return true if the list can be searched as an index
+     */
+    public boolean isSorted() {
+        return getKeys() != _NOT_AN_INDEX;
+    }
+
+    /**
+     * Returns true if the elements of the index are [value, row number] pairs, false if they are simple values.
+     * @return true if the index contains row numbers
+     */
+    public boolean hasRowNumbers() {
+        return getKeys().rows() != null;
+    }
+
+    /**
+     * Returns the row number of the element at the provided position, null if the elements don't have row numbers.
+     * @param position position of the element
+     * @return the row number of the element
+     */
+    public Integer getRowNumber(int position) {
+        int[] rows = getKeys().rows();
+        return rows == null ? null : rows[position];
+    }
+
+    /**
+     * Returns the position of the first element having the requested value, -1 if there is none.
+     * @param value value to look for
+     * @return position of the element, -1 if not found
+     */
+    public int find(String value) {
+        String[] values = getKeys().values();
+        int idx = lowerBound(values, value);
+        return idx < values.length && values[idx].equals(value) ? idx : -1;
+    }
+
+    /**
+     * Returns the position of the first element having the requested value; if there is none, returns the position of the greatest element smaller than
+     * the value (-1 if the value is smaller than all the elements).
+     * @param value value to look for
+     * @return position of the element, -1 if not found
+     */
+    public int findFloor(String value) {
+        String[] values = getKeys().values();
+        int idx = lowerBound(values, value);
+        if (idx < values.length && values[idx].equals(value))
+            return idx;
+        return idx - 1;
+    }
+
+    // returns the position of the first value that is greater than or equal to the requested one (the number of values if there is none)
+    private static int lowerBound(String[] values, String value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid].compareTo(value) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object get(int index) {
+        Object element = _elements.get(index);
+        return element instanceof List ? new LegacyContextElement<>((List<Object>)element, _invalidator) : element;
+    }
+
+    @Override
+    public int size() {
+        return _elements.size();
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        Object result = _elements.set(index, element);
+        _keys = null;
+        return result;
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        _elements.add(index, element);
+        modCount++;
+        _keys = null;
+    }
+
+    @Override
+    public Object remove(int index) {
+        Object result = _elements.remove(index);
+        modCount++;
+        _keys = null;
+        return result;
+    }
+
+    @Override
+    public void sort(Comparator<? super Object> c) {
+        _elements.sort(c);
+        modCount++;
+        _keys = null;
+    }
+
+    // the values of the elements and their row numbers (null if the elements are simple values); both arrays are null if the list is not a sorted index
+    private record Keys(String[] values, int[] rows) {
+    }
+}
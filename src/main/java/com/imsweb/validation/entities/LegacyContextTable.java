@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.entities;
+
+import java.util.AbstractList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * This class represents a table of the old Genedits framework (v4) defined as a Java context: a list of rows of Strings, the first one being the headers.
+ * <br/><br/>
+ * A lookup in such a table without any index compares the value to the (right-trimmed) concatenation of the cells of every row; this class builds, on the first
+ * of those lookups, an implicit index of those concatenations so the table doesn't have to be scanned. The object is still a list backed by the original one:
+ * it can be modified like the original list, and so can the rows it returns (the modifications are written through). Any modification, of the list or of
+ * one of its rows, drops the implicit index, which is built again on the next lookup.
+ */
+public class LegacyContextTable extends AbstractList<List<String>> implements RandomAccess {
+
+    // the original rows
+    private final List<List<String>> _rows;
+
+    // the row numbers keyed by concatenated row (created on the first lookup, null if the list was modified since then)
+    private volatile Map<String, Integer> _implicitIndex;
+
+    // drops the implicit index when a row is modified
+    private final Runnable _invalidator = () -> _implicitIndex = null;
+
+    private LegacyContextTable(List<List<String>> rows) {
+        _rows = rows;
+    }
+
+    /**
+     * Creates a table for the provided list if it is a non-empty list of rows containing only Strings; returns null otherwise.
+     * @param list list to upgrade
+     * @return the corresponding table, null if the list is not a legacy table
+     */
+    @SuppressWarnings("unchecked")
+    public static LegacyContextTable create(List<?> list) {
+        if (list == null || list.isEmpty())
+            return null;
+
+        for (Object row : list) {
+            if (!(row instanceof List<?> cells))
+                return null;
+            for (Object cell : cells)
+                if (!(cell instanceof String))
+                    return null;
+        }
+
+        return new LegacyContextTable((List<List<String>>)list);
+    }
+
+    /**
+     * Returns the number of the first row (headers included, so the first data row is 1) whose right-trimmed concatenated cells are equal to the provided
+     * value, null if there is no such row.
+     * @param trimmedValue right-trimmed value to look for
+     * @return corresponding row number, null if not found
+     */
+    public Integer findRow(String trimmedValue) {
+        Map<String, Integer> index = _implicitIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = _implicitIndex;
+                if (index == null) {
+                    index = new HashMap<>();
+                    for (int i = 1; i < _rows.size(); i++) {
+                        StringBuilder buf = new StringBuilder();
+                        for (Object cell : _rows.get(i))
+                            buf.append(cell);
+                        index.putIfAbsent(trimRight(buf.toString()), i);
+                    }
+                    _implicitIndex = index;
+                }
+            }
+        }
+        return index.get(trimmedValue);
+    }
+
+    private static String trimRight(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) <= ' ')
+            end--;
+        return value.substring(0, end);
+    }
+
+    @Override
+    public List<String> get(int index) {
+        List<String> row = _rows.get(index);
+        return row == null ? null : new LegacyContextElement<>(row, _invalidator);
+    }
+
+    @Override
+    public int size() {
+        return _rows.size();
+    }
+
+    @Override
+    public List<String> set(int index, List<String> row) {
+        List<String> result = _rows.set(index, row);
+        _implicitIndex = null;
+        return result;
+    }
+
+    @Override
+    public void add(int index, List<String> row) {
+        _rows.add(index, row);
+        modCount++;
+        _implicitIndex = null;
+    }
+
+    @Override
+    public List<String> remove(int index) {
+        List<String> result = _rows.remove(index);
+        modCount++;
+        _implicitIndex = null;
+        return result;
+    }
+
+    @Override
+    public void sort(Comparator<? super List<String>> c) {
+        _rows.sort(c);
+        modCount++;
+        _implicitIndex = null;
+    }
+}
@@ -27,6 +27,8 @@ import com.imsweb.staging.Staging;
 import com.imsweb.validation.ValidationEngine;
 import com.imsweb.validation.entities.ContextTable;
 import com.imsweb.validation.entities.ContextTableIndex;
+import com.imsweb.validation.entities.LegacyContextIndex;
+import com.imsweb.validation.entities.LegacyContextTable;
 
 /**
  * Metafile-related helper methods made available to the edits. If you want to execute translated edits in your project, you need to initialize
@@ -901,7 +903,14 @@ public class MetafileContextFunctions extends StagingContextFunctions {
         boolean found = false;
         Integer valIndex = null;
         if (indexObj != null) {
-            if (indexObj instanceof List) {
+            if (indexObj instanceof LegacyContextIndex legacyIndex && legacyIndex.isSorted()) {
+                int pos = legacyIndex.find(trimmedVal);
+                if (pos != -1) {
+                    found = true;
+                    valIndex = legacyIndex.getRowNumber(pos);
+                }
+            }
+            else if (indexObj instanceof List) {
                 for (Object elem : (List<Object>)indexObj) {
                     if (elem instanceof List) {
                         List<Object> indexAndRecNum = (List<Object>)elem;
@@ -948,6 +957,10 @@ public class MetafileContextFunctions extends StagingContextFunctions {
             else
                 throw new IllegalStateException("Unsupported index type: " + indexObj.getClass().getSimpleName());
         }
+        else if (table instanceof LegacyContextTable legacyTable) { // the upgraded tables have an implicit index on the concatenated rows
+            valIndex = legacyTable.findRow(trimmedVal);
+            found = valIndex != null;
+        }
         else if (table != null) { // otherwise go over the entire table (ignore header)
             for (int i = 1; i < table.size(); i++) {
                 StringBuilder buf = new StringBuilder();
@@ -984,18 +997,8 @@ public class MetafileContextFunctions extends StagingContextFunctions {
         int idx = index.find(trimRight(val));
 
         // side effect, fill in any requested tableVar
-        if (tableVars != null && table != null) {
-            List<String> row = idx != -1 ? table.getData().get(idx) : null;
-            for (Map.Entry<String, char[]> entry : tableVars.entrySet()) {
-                if (row == null)
-                    GEN_STRCPY(entry.getValue(), "");
-                else {
-                    int colIdx = table.getHeaders().indexOf(entry.getKey());
-                    if (colIdx != -1)
-                        GEN_STRCPY(entry.getValue(), trimRight(Objects.toString(row.get(colIdx), "")));
-                }
-            }
-        }
+        if (tableVars != null && table != null)
+            fillTableVars(table, idx, tableVars);
 
         return idx != -1;
     }
@@ -1020,7 +1023,12 @@ public class MetafileContextFunctions extends StagingContextFunctions {
         if (indexObj == null)
             return false;
 
-        if (indexObj instanceof List) {
+        if (indexObj instanceof LegacyContextIndex legacyIndex && legacyIndex.isSorted() && legacyIndex.hasRowNumbers()) {
+            int pos = legacyIndex.findFloor(val);
+            if (pos != -1)
+                valIndex = legacyIndex.getRowNumber(pos);
+        }
+        else if (indexObj instanceof List) {
             List<List<Object>> indexList = (List<List<Object>>)indexObj;
 
             // for RLOOKUP, if a value is smaller than the smallest index value, return value not found
@@ -1095,18 +1103,8 @@ public class MetafileContextFunctions extends StagingContextFunctions {
         int idx = index.findFloor(trimRight(val));
 
         // side effect, fill in any requested tableVar
-        if (tableVars != null && table != null) {
-            List<String> row = idx != -1 ? table.getData().get(idx) : null;
-            for (Map.Entry<String, char[]> entry : tableVars.entrySet()) {
-                if (row == null)
-                    GEN_STRCPY(entry.getValue(), "");
-                else {
-                    int colIdx = table.getHeaders().indexOf(entry.getKey());
-                    if (colIdx != -1)
-                        GEN_STRCPY(entry.getValue(), trimRight(Objects.toString(row.get(colIdx), "")));
-                }
-            }
-        }
+        if (tableVars != null && table != null)
+            fillTableVars(table, idx, tableVars);
 
         return idx != -1;
     }
@@ -1122,7 +1120,9 @@ public class MetafileContextFunctions extends StagingContextFunctions {
         String trimmedVal = trimRight(val);
 
         boolean found = false;
-        if (indexObj instanceof List) {
+        if (indexObj instanceof LegacyContextIndex legacyIndex && legacyIndex.isSorted())
+            found = legacyIndex.find(trimmedVal) != -1;
+        else if (indexObj instanceof List) {
             for (Object elem : (List<Object>)indexObj) {
                 if (elem instanceof List) {
                     List<Object> indexAndRecNum = (List<Object>)elem;
@@ -1224,18 +1224,8 @@ public class MetafileContextFunctions extends StagingContextFunctions {
         int idx = index.find(GEN_TO_STRING(value));
 
         // side effect, fill in any requested tableVar
-        if (tableVars != null && table != null) {
-            List<String> row = idx != -1 ? table.getData().get(idx) : null;
-            for (Map.Entry<String, char[]> entry : tableVars.entrySet()) {
-                if (row == null)
-                    GEN_STRCPY(entry.getValue(), "");
-                else {
-                    int colIdx = table.getHeaders().indexOf(entry.getKey());
-                    if (colIdx != -1)
-                        GEN_STRCPY(entry.getValue(), trimRight(Objects.toString(row.get(colIdx), "")));
-                }
-            }
-        }
+        if (tableVars != null && table != null)
+            fillTableVars(table, idx, tableVars);
 
         return idx != -1;
     }
@@ -1251,18 +1241,8 @@ public class MetafileContextFunctions extends StagingContextFunctions {
         int idx = index.findFloor(GEN_TO_STRING(value));
 
         // side effect, fill in any requested tableVar
-        if (tableVars != null && table != null) {
-            List<String> row = idx != -1 ? table.getData().get(idx) : null;
-            for (Map.Entry<String, char[]> entry : tableVars.entrySet()) {
-                if (row == null)
-                    GEN_STRCPY(entry.getValue(), "");
-                else {
-                    int colIdx = table.getHeaders().indexOf(entry.getKey());
-                    if (colIdx != -1)
-                        GEN_STRCPY(entry.getValue(), trimRight(Objects.toString(row.get(colIdx), "")));
-                }
-            }
-        }
+        if (tableVars != null && table != null)
+            fillTableVars(table, idx, tableVars);
 
         return idx != -1;
     }
@@ -1978,6 +1958,18 @@ public class MetafileContextFunctions extends StagingContextFunctions {
         return builder.toString();
     }
 
+    // copies the (right-trimmed) cells of the requested row into the table variables, or clears them if the row wasn't found
+    private void fillTableVars(ContextTable table, int rowIdx, Map<String, char[]> tableVars) {
+        ContextTable.ColumnHandles handles = table.getColumnHandles(tableVars.keySet());
+        for (int i = 0; i < handles.size(); i++) {
+            char[] target = tableVars.get(handles.getHeader(i));
+            if (rowIdx == -1)
+                GEN_STRCPY(target, "");
+            else if (handles.getColumn(i) != -1)
+                table.copyTrimmedCell(rowIdx, handles.getColumn(i), target);
+        }
+    }
+
     private static String trimRight(String value) {
         if (value == null || value.isEmpty())
             return value;
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovySystem;
+import groovy.lang.Script;
+
+import com.imsweb.validation.internal.ScriptCompiler.ScriptClassLoader;
+
+/**
+ * A persistent cache of compiled Groovy scripts: the bytecode of every compiled expression is stored in a directory, and later compilations of the same
+ * expression (typically on the next start of the application) load that bytecode instead of invoking the Groovy compiler. The classes generated for the
+ * validators (see {@link DynamicCompiledRules}) are cached the same way.
+ * <br/><br/>
+ * The entries are keyed by a SHA-256 hash of the expression, the Groovy version, the engine and library versions and the compiler configuration, so changing
+ * any of those automatically ignores the existing entries. An entry is written to a temporary file that is then moved into place, so a crash never leaves a partial entry behind; entries also
+ * contain a checksum and an entry that can't be read is deleted and re-compiled. Problems with the directory itself are never reported as errors, the
+ * expressions are simply compiled as if there was no cache.
+ */
+public class CompiledScriptCache {
+
+    // identifies the files written by this class
+    private static final int _MAGIC = 0x56414C43;
+
+    // version of the format of the files, part of the key so a format change invalidates the existing entries
+    private static final int _FORMAT_VERSION = 1;
+
+    // the version of the library (written in the manifest from the VERSION file); when the classes are not packaged (development), the bytecode of the classes
+    // generating the cached code is used instead, so changing them also invalidates the existing entries
+    private static final String _LIBRARY_VERSION = computeLibraryVersion();
+
+    // the fingerprints of the compiler configurations (those are shared constants, so there are only a few of them)
+    private static final Map<CompilerConfiguration, String> _CONFIGURATION_FINGERPRINTS = new ConcurrentHashMap<>();
+
+    // the directory containing the entries
+    private final File _directory;
+
+    // the engine version (part of the key)
+    private final String _engineVersion;
+
+    // number of expressions loaded from the cache
+    private final LongAdder _hits;
+
+    // number of expressions that had to be compiled
+    private final LongAdder _misses;
+
+    /**
+     * Constructor.
+     * @param directory directory containing the entries (it will be created if it doesn't exist)
+     * @param engineVersion version of the engine
+     */
+    public CompiledScriptCache(File directory, String engineVersion) {
+        _directory = directory;
+        _engineVersion = engineVersion;
+        _hits = new LongAdder();
+        _misses = new LongAdder();
+    }
+
+    public File getDirectory() {
+        return _directory;
+    }
+
+    /**
+     * Returns the number of expressions that were loaded from the cache.
+     * @return number of hits
+     */
+    public long getNumHits() {
+        return _hits.sum();
+    }
+
+    /**
+     * Returns the number of expressions that were not found in the cache and had to be compiled.
+     * @return number of misses
+     */
+    public long getNumMisses() {
+        return _misses.sum();
+    }
+
+    /**
+     * Returns the script for the provided expression, loading it from the cache if possible, compiling it (and storing it in the cache) otherwise.
+     * @param expression expression to compile
+     * @param loader class loader in which the script classes are defined
+     * @return Groovy Script
+     * @throws CompilationFailedException if the expression can't be compiled
+     */
+    Script compile(String expression, ScriptClassLoader loader) throws CompilationFailedException {
+        CompilerConfiguration configuration = ScriptCompiler.getConfiguration();
+        String key = createKey(expression, configuration);
+        Class<?> scriptClass = loadOrCompile(key, "Script_" + key, expression, configuration, loader);
+        return InvokerHelper.createScript(scriptClass, new Binding());
+    }
+
+    /**
+     * Returns the class declared by the provided source, loading it from the cache if possible, compiling it (and storing it in the cache) otherwise.
+     * @param className name of the class declared in the source
+     * @param source Groovy source
+     * @param configuration compiler configuration to use
+     * @param loader class loader in which the classes are defined
+     * @return the compiled class
+     * @throws CompilationFailedException if the source can't be compiled
+     */
+    Class<?> compileClass(String className, String source, CompilerConfiguration configuration, ScriptClassLoader loader) throws CompilationFailedException {
+        return loadOrCompile(createKey(className + "\n" + source, configuration), className, source, configuration, loader);
+    }
+
+    private String createKey(String source, CompilerConfiguration configuration) {
+        String fingerprint = _CONFIGURATION_FINGERPRINTS.computeIfAbsent(configuration, CompiledScriptCache::computeFingerprint);
+        return DigestUtils.sha256Hex(GroovySystem.getVersion() + "\n" + _engineVersion + "\n" + _LIBRARY_VERSION + "\n" + _FORMAT_VERSION + "\n" + fingerprint + "\n" + source);
+    }
+
+    // returns a string representing all the options of the configuration that can affect the generated bytecode
+    private static String computeFingerprint(CompilerConfiguration configuration) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(configuration.getTargetBytecode()).append('|');
+        buf.append(configuration.getScriptBaseClass()).append('|');
+        buf.append(configuration.getSourceEncoding()).append('|');
+        buf.append(configuration.getParameters()).append('|');
+        buf.append(configuration.isPreviewFeatures()).append('|');
+        buf.append(new TreeMap<>(configuration.getOptimizationOptions())).append('|');
+        Set<String> disabledTransformations = configuration.getDisabledGlobalASTTransformations();
+        buf.append(disabledTransformations == null ? null : new TreeSet<>(disabledTransformations));
+        for (CompilationCustomizer customizer : configuration.getCompilationCustomizers())
+            buf.append('|').append(customizer.getClass().getName());
+        return buf.toString();
+    }
+
+    private static String computeLibraryVersion() {
+        String version = CompiledScriptCache.class.getPackage().getImplementationVersion();
+        if (version != null)
+            return version;
+
+        StringBuilder buf = new StringBuilder("dev");
+        for (Class<?> cls : List.of(CompiledScriptCache.class, ScriptCompiler.class, DynamicCompiledRules.class)) {
+            try (InputStream is = cls.getResourceAsStream(cls.getSimpleName() + ".class")) {
+                if (is != null)
+                    buf.append('-').append(DigestUtils.sha256Hex(is));
+            }
+            catch (IOException e) {
+                // ignored, the other classes are still part of the version
+            }
+        }
+        return buf.toString();
+    }
+
+    private Class<?> loadOrCompile(String key, String className, String source, CompilerConfiguration configuration, ScriptClassLoader loader) {
+        Path file = _directory.toPath().resolve(key + ".bin");
+
+        Class<?> cls = null;
+        if (Files.isRegularFile(file)) {
+            cls = read(file, loader);
+            if (cls == null)
+                delete(file);
+        }
+
+        if (cls == null) {
+            _misses.increment();
+            Map<String, byte[]> classes = ScriptCompiler.generateBytecode(className, source, configuration, loader);
+            write(file, className, classes);
+            cls = loader.defineClasses(className, classes);
+        }
+        else
+            _hits.increment();
+
+        return cls;
+    }
+
+    private Class<?> read(Path file, ScriptClassLoader loader) {
+        try {
+            byte[] content = Files.readAllBytes(file);
+            if (content.length < Long.BYTES)
+                return null;
+
+            // the last 8 bytes are the checksum of everything else
+            CRC32 crc = new CRC32();
+            crc.update(content, 0, content.length - Long.BYTES);
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(content));
+            input.skipNBytes(content.length - (long)Long.BYTES);
+            if (input.readLong() != crc.getValue())
+                return null;
+
+            input = new DataInputStream(new ByteArrayInputStream(content, 0, content.length - Long.BYTES));
+            if (input.readInt() != _MAGIC || input.readInt() != _FORMAT_VERSION)
+                return null;
+            String scriptClassName = input.readUTF();
+            int numClasses = input.readInt();
+            Map<String, byte[]> classes = new HashMap<>();
+            for (int i = 0; i < numClasses; i++) {
+                String name = input.readUTF();
+                byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                classes.put(name, bytes);
+            }
+
+            return loader.defineClasses(scriptClassName, classes);
+        }
+        catch (IOException | LinkageError | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void write(Path file, String className, Map<String, byte[]> classes) {
+        Path tmpFile = null;
+        try {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(content);
+            output.writeInt(_MAGIC);
+            output.writeInt(_FORMAT_VERSION);
+            output.writeUTF(className);
+            output.writeInt(classes.size());
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeInt(entry.getValue().length);
+                output.write(entry.getValue());
+            }
+            CRC32 crc = new CRC32();
+            crc.update(content.toByteArray());
+            output.writeLong(crc.getValue());
+            output.flush();
+
+            Files.createDirectories(_directory.toPath());
+            tmpFile = Files.createTempFile(_directory.toPath(), file.getFileName().toString(), ".tmp");
+            Files.write(tmpFile, content.toByteArray());
+            try {
+                Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmpFile = null;
+        }
+        catch (IOException | RuntimeException e) {
+            // the cache is only an optimization, the compiled script can still be used
+        }
+        finally {
+            if (tmpFile != null)
+                delete(tmpFile);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            // ignored, the entry will be re-written the next time
+        }
+    }
+}
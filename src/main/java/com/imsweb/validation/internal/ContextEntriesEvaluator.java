@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.imsweb.validation.ConstructionException;
+import com.imsweb.validation.entities.ContextEntry;
+
+/**
+ * Evaluates the context entries of a validator, following the references they make to each other.
+ * <br/><br/>
+ * The expressions are scanned for the identifiers matching the key of another entry; that covers the references using the context prefix
+ * (<code>Context.MY_TABLE</code>), the old references without a prefix and the tables referenced by the index definitions. An entry is evaluated as soon as all
+ * the entries it references have been evaluated, so the entries are evaluated in waves, the entries of a wave being evaluated in parallel.
+ * <br/><br/>
+ * Since the scan can only find the references that are written literally, an entry that fails is evaluated again (on the calling thread) once all the other
+ * entries have been evaluated; the entries involved in a reference cycle are handled the same way. The error of an entry failing that second time is reported.
+ */
+public class ContextEntriesEvaluator {
+
+    // an identifier (the keys of the context entries have to be valid identifiers since they are used as variables)
+    private static final Pattern _IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
+    /**
+     * Evaluates one context entry.
+     */
+    @FunctionalInterface
+    public interface ContextEntryEvaluation {
+
+        /**
+         * Evaluates the provided entry (and adds the result to the context).
+         * @param entry entry to evaluate
+         * @throws ConstructionException if the entry can't be evaluated
+         */
+        void evaluate(ContextEntry entry) throws ConstructionException;
+    }
+
+    private ContextEntriesEvaluator() {
+        // no instances
+    }
+
+    /**
+     * Returns the keys of the other entries referenced by the provided entry.
+     * @param entry entry
+     * @param keys the keys of all the entries
+     * @return the referenced keys, maybe empty but never null
+     */
+    public static Set<String> getReferencedKeys(ContextEntry entry, Set<String> keys) {
+        if (entry.getExpression() == null)
+            return Collections.emptySet();
+
+        Set<String> result = new LinkedHashSet<>();
+        Matcher matcher = _IDENTIFIER.matcher(entry.getExpression());
+        while (matcher.find()) {
+            String identifier = matcher.group();
+            if (keys.contains(identifier) && !identifier.equals(entry.getKey()))
+                result.add(identifier);
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates the provided entries; the entries that don't depend on each other are evaluated in parallel using the provided executor.
+     * @param entries entries to evaluate
+     * @param executor executor to use
+     * @param evaluation evaluation of a single entry (must be thread-safe)
+     * @throws ConstructionException if an entry can't be evaluated
+     */
+    public static void evaluate(Collection<ContextEntry> entries, Executor executor, ContextEntryEvaluation evaluation) throws ConstructionException {
+        if (entries.isEmpty())
+            return;
+
+        Map<String, ContextEntry> entriesByKey = new HashMap<>();
+        for (ContextEntry entry : entries)
+            entriesByKey.putIfAbsent(entry.getKey(), entry);
+
+        // build the graph: number of (distinct) referenced entries, and the entries referencing each entry
+        Map<ContextEntry, AtomicInteger> numDependencies = new HashMap<>();
+        Map<ContextEntry, List<ContextEntry>> dependents = new HashMap<>();
+        for (ContextEntry entry : entries) {
+            Set<String> referencedKeys = getReferencedKeys(entry, entriesByKey.keySet());
+            numDependencies.put(entry, new AtomicInteger(referencedKeys.size()));
+            for (String key : referencedKeys)
+                dependents.computeIfAbsent(entriesByKey.get(key), k -> new ArrayList<>()).add(entry);
+        }
+
+        // find the entries that can be scheduled (the other ones are part of a cycle, or depend on a cycle)
+        Queue<ContextEntry> queue = new ArrayDeque<>();
+        Map<ContextEntry, Integer> remaining = new HashMap<>();
+        for (Map.Entry<ContextEntry, AtomicInteger> entry : numDependencies.entrySet()) {
+            remaining.put(entry.getKey(), entry.getValue().get());
+            if (entry.getValue().get() == 0)
+                queue.add(entry.getKey());
+        }
+        List<ContextEntry> roots = new ArrayList<>(queue);
+        Set<ContextEntry> scheduled = new LinkedHashSet<>();
+        while (!queue.isEmpty()) {
+            ContextEntry entry = queue.poll();
+            scheduled.add(entry);
+            for (ContextEntry dependent : dependents.getOrDefault(entry, Collections.emptyList()))
+                if (remaining.merge(dependent, -1, Integer::sum) == 0)
+                    queue.add(dependent);
+        }
+
+        // evaluate the scheduled entries; every entry submits its dependents once their dependencies are all evaluated
+        Queue<ContextEntry> failed = new ConcurrentLinkedQueue<>();
+        CountDownLatch latch = new CountDownLatch(scheduled.size());
+        Scheduler scheduler = new Scheduler(executor, evaluation, numDependencies, dependents, failed, latch);
+        for (ContextEntry entry : roots)
+            scheduler.submit(entry);
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConstructionException("Interrupted while evaluating the context entries");
+        }
+
+        // evaluate the left-over entries on this thread; give them a first chance, then run again the ones that failed and report the errors
+        List<ContextEntry> leftOver = new ArrayList<>(failed);
+        for (ContextEntry entry : entries)
+            if (!scheduled.contains(entry))
+                leftOver.add(entry);
+        List<ContextEntry> reRun = new ArrayList<>();
+        for (ContextEntry entry : leftOver) {
+            try {
+                evaluation.evaluate(entry);
+            }
+            catch (ConstructionException | RuntimeException e) {
+                reRun.add(entry);
+            }
+        }
+        for (ContextEntry entry : reRun)
+            evaluation.evaluate(entry);
+    }
+
+    /**
+     * The state shared by the evaluation tasks.
+     */
+    private record Scheduler(Executor executor, ContextEntryEvaluation evaluation, Map<ContextEntry, AtomicInteger> numDependencies,
+                             Map<ContextEntry, List<ContextEntry>> dependents, Queue<ContextEntry> failed, CountDownLatch latch) {
+
+        void submit(ContextEntry entry) {
+            executor.execute(() -> {
+                try {
+                    evaluation.evaluate(entry);
+                }
+                catch (ConstructionException | RuntimeException e) {
+                    failed.add(entry);
+                }
+                finally {
+                    // the dependents are evaluated even if this entry failed, they will be evaluated again if they fail because of it
+                    for (ContextEntry dependent : dependents.getOrDefault(entry, Collections.emptyList()))
+                        if (numDependencies.get(dependent).decrementAndGet() == 0)
+                            submit(dependent);
+                    latch.countDown();
+                }
+            });
+        }
+    }
+}
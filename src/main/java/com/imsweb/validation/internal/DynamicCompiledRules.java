@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.codehaus.groovy.GroovyBugError;
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.DynamicVariable;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.MultipleCompilationErrorsException;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.codehaus.groovy.control.messages.ExceptionMessage;
+import org.codehaus.groovy.control.messages.Message;
+import org.codehaus.groovy.control.messages.SyntaxErrorMessage;
+
+import groovy.lang.Binding;
+
+import com.imsweb.validation.InitializationStats;
+import com.imsweb.validation.ValidationContextFunctions;
+import com.imsweb.validation.ValidationEngine;
+import com.imsweb.validation.ValidationServices;
+import com.imsweb.validation.entities.Rule;
+import com.imsweb.validation.entities.Validator;
+import com.imsweb.validation.runtime.CompiledRules;
+import com.imsweb.validation.runtime.CompiledRulesBundle;
+import com.imsweb.validation.runtime.RuntimeUtils;
+
+/**
+ * Base class of the pre-compiled rules generated at initialization time for the validators that don't provide their own <code>CompiledRules</code>.
+ * <br/><br/>
+ * The generated classes contain one method per edit, with the same signature as the methods of a hand-written <code>CompiledRules</code> class (the binding,
+ * the context, the functions and one parameter per alias of the java path). The edits are then invoked like any other pre-compiled edit (through a class
+ * generated by the lambda meta-factory) instead of running a Groovy script, which removes the script pools and the binding lookups of the aliases. The
+ * methods of a large validator are spread over several classes (bundled together) so every class stays under the limits of the JVM.
+ * <br/><br/>
+ * An edit can only be generated as a method if it doesn't reference any variable other than its aliases, the context, the functions and the binding (the same
+ * restriction as hand-written pre-compiled edits); the edits that don't follow that restriction, or that can't be compiled as a method for any other reason,
+ * are simply not included in the generated classes and are executed as Groovy scripts. When no edit can be generated, the reason is reported in the
+ * initialization stats.
+ */
+public abstract class DynamicCompiledRules implements CompiledRules {
+
+    // the maximum number of methods, and of characters of edits source code, per generated class
+    private static final int _MAX_METHODS_PER_CLASS = 100;
+
+    private static final int _MAX_SOURCE_LENGTH_PER_CLASS = 100_000;
+
+    // the number of failed compilations per class after which the generation gives up (every failure removes or splits the methods that failed to compile)
+    private static final int _MAX_FAILURES_PER_CLASS = 10;
+
+    // the names of the parameters common to all the methods
+    private static final Set<String> _RESERVED_NAMES = Set.of("binding", ValidationEngine.VALIDATOR_CONTEXT_KEY, ValidationEngine.VALIDATOR_FUNCTIONS_KEY);
+
+    // the configuration used to compile the generated classes
+    private static final CompilerConfiguration _CONFIGURATION = createConfiguration();
+
+    // the validator ID
+    private String _validatorId;
+
+    // the validator version
+    private String _validatorVersion;
+
+    // the parameter types, keyed by java path
+    private Map<String, List<Class<?>>> _methodParameters;
+
+    // the IDs of the edits that have a method in this class
+    private Set<String> _ruleIds;
+
+    @Override
+    public String getValidatorId() {
+        return _validatorId;
+    }
+
+    @Override
+    public String getValidatorVersion() {
+        return _validatorVersion;
+    }
+
+    @Override
+    public Map<String, List<Class<?>>> getMethodParameters() {
+        return _methodParameters;
+    }
+
+    @Override
+    public boolean containsRuleId(String id) {
+        return _ruleIds.contains(id);
+    }
+
+    /**
+     * Generates and compiles the pre-compiled rules for the provided validator.
+     * @param validator validator
+     * @param compiler compiler of the validator
+     * @param stats initialization stats, receiving the reason the edits couldn't be generated (can be null)
+     * @return the pre-compiled rules, null if no edit could be compiled as a method
+     */
+    public static CompiledRules generate(Validator validator, ScriptCompiler compiler, InitializationStats stats) {
+        if (validator.getRules() == null || validator.getRules().isEmpty())
+            return null;
+
+        // gather the aliases of the java paths and the method names; a rule with a method name used by another rule can't be generated
+        Map<String, List<String>> aliases = new HashMap<>();
+        Map<String, Rule> methods = new TreeMap<>();
+        Set<String> duplicates = new HashSet<>();
+        for (Rule rule : validator.getRules()) {
+            if (StringUtils.isBlank(rule.getId()) || rule.getJavaPath() == null)
+                continue;
+            List<String> javaPathAliases = aliases.computeIfAbsent(rule.getJavaPath(), DynamicCompiledRules::getAliases);
+            if (javaPathAliases == null)
+                continue;
+            String methodName = RuntimeUtils.createMethodName(rule.getId());
+            if (methods.put(methodName, rule) != null)
+                duplicates.add(methodName);
+        }
+        methods.keySet().removeAll(duplicates);
+        if (methods.isEmpty()) {
+            setReason(stats, validator, "no edit can be generated as a method");
+            return null;
+        }
+
+        // split the methods into several classes so the generated classes stay under the JVM limits (class size, constant pool, etc...)
+        Deque<List<String>> chunks = new ArrayDeque<>();
+        List<String> chunk = new ArrayList<>();
+        int chunkLength = 0;
+        for (Map.Entry<String, Rule> entry : methods.entrySet()) {
+            int length = StringUtils.length(entry.getValue().getExpression());
+            if (!chunk.isEmpty() && (chunk.size() >= _MAX_METHODS_PER_CLASS || chunkLength + length > _MAX_SOURCE_LENGTH_PER_CLASS)) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkLength = 0;
+            }
+            chunk.add(entry.getKey());
+            chunkLength += length;
+        }
+        chunks.add(chunk);
+
+        // compile every class on its own; a class that fails is compiled again without the methods that failed, or split in two if the failure can't be
+        // attributed to a method, so only the failing part of the validator is ever compiled again
+        String classNamePrefix = "Dynamic" + RuntimeUtils.createCompiledRulesClassName(validator.getId()).replaceAll("\\W", "_");
+        List<CompiledRules> generated = new ArrayList<>();
+        String failure = null;
+        int numFailures = 0;
+        int maxFailures = _MAX_FAILURES_PER_CLASS * chunks.size();
+        while (!chunks.isEmpty()) {
+            if (numFailures >= maxFailures) {
+                failure = "too many compilation failures (" + numFailures + "), last one: " + failure;
+                break;
+            }
+
+            chunk = chunks.poll();
+            String className = classNamePrefix + (generated.isEmpty() ? "" : "_" + generated.size());
+            TreeMap<Integer, String> methodsByLine = new TreeMap<>();
+            try {
+                generated.add(compile(validator, compiler, className, generateSource(className, chunk, methods, aliases, methodsByLine), chunk, methods, aliases));
+            }
+            catch (MultipleCompilationErrorsException e) {
+                numFailures++;
+                failure = describe(e);
+                Set<String> failed = getFailedMethods(e, methodsByLine);
+                if (failed != null) {
+                    chunk.removeAll(failed);
+                    if (!chunk.isEmpty())
+                        chunks.push(chunk);
+                }
+                else
+                    split(chunk, chunks);
+            }
+            catch (RuntimeException | ReflectiveOperationException | LinkageError | GroovyBugError e) {
+                numFailures++;
+                failure = describe(e);
+                split(chunk, chunks);
+            }
+        }
+
+        if (generated.isEmpty()) {
+            setReason(stats, validator, failure);
+            return null;
+        }
+
+        return generated.size() == 1 ? generated.getFirst() : new CompiledRulesBundle(generated.toArray(new CompiledRules[0]));
+    }
+
+    private static String generateSource(String className, List<String> chunk, Map<String, Rule> methods, Map<String, List<String>> aliases, TreeMap<Integer, String> methodsByLine) {
+        StringBuilder source = new StringBuilder();
+        int line = 1;
+        source.append("class ").append(className).append(" extends ").append(DynamicCompiledRules.class.getName()).append(" {\n");
+        for (String methodName : chunk) {
+            Rule rule = methods.get(methodName);
+            source.append("\n");
+            line += 2;
+            methodsByLine.put(line, methodName);
+            source.append("    boolean ").append(methodName).append("(").append(Binding.class.getName()).append(" binding, ").append(Map.class.getName()).append(" ")
+                    .append(ValidationEngine.VALIDATOR_CONTEXT_KEY).append(", ").append(ValidationContextFunctions.class.getName()).append(" ")
+                    .append(ValidationEngine.VALIDATOR_FUNCTIONS_KEY);
+            for (String alias : aliases.get(rule.getJavaPath()))
+                source.append(", Object ").append(alias);
+            source.append(") {\n");
+            String expression = StringUtils.isBlank(rule.getExpression()) ? "return true" : rule.getExpression();
+            source.append(expression).append("\n    }\n");
+            line += 2 + StringUtils.countMatches(expression, '\n');
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private static DynamicCompiledRules compile(Validator validator, ScriptCompiler compiler, String className, String source, List<String> chunk, Map<String, Rule> methods,
+            Map<String, List<String>> aliases) throws ReflectiveOperationException {
+        Class<?> cls = compiler.compileClass(className, source, _CONFIGURATION);
+        DynamicCompiledRules rules = (DynamicCompiledRules)cls.getDeclaredConstructor().newInstance();
+        rules._validatorId = validator.getId();
+        rules._validatorVersion = validator.getVersion();
+        rules._methodParameters = new HashMap<>();
+        rules._ruleIds = new HashSet<>();
+        for (String methodName : chunk) {
+            Rule rule = methods.get(methodName);
+            rules._ruleIds.add(rule.getId());
+            rules._methodParameters.computeIfAbsent(rule.getJavaPath(), k -> getParameters(aliases.get(k)));
+        }
+        return rules;
+    }
+
+    // returns the methods the errors are reported for, null if an error can't be attributed to a method
+    private static Set<String> getFailedMethods(MultipleCompilationErrorsException e, TreeMap<Integer, String> methodsByLine) {
+        Set<String> failed = new HashSet<>();
+        for (Message message : e.getErrorCollector().getErrors()) {
+            if (!(message instanceof SyntaxErrorMessage))
+                return null;
+            Map.Entry<Integer, String> method = methodsByLine.floorEntry(((SyntaxErrorMessage)message).getCause().getLine());
+            if (method == null)
+                return null;
+            failed.add(method.getValue());
+        }
+        return failed.isEmpty() ? null : failed;
+    }
+
+    // splits the methods in two classes, or gives up on the method if there is only one
+    private static void split(List<String> chunk, Deque<List<String>> chunks) {
+        if (chunk.size() > 1) {
+            chunks.push(new ArrayList<>(chunk.subList(chunk.size() / 2, chunk.size())));
+            chunks.push(new ArrayList<>(chunk.subList(0, chunk.size() / 2)));
+        }
+    }
+
+    private static String describe(Throwable e) {
+        if (e instanceof MultipleCompilationErrorsException && ((MultipleCompilationErrorsException)e).getErrorCollector().getErrorCount() > 0) {
+            Message message = ((MultipleCompilationErrorsException)e).getErrorCollector().getError(0);
+            if (message instanceof SyntaxErrorMessage)
+                return ((SyntaxErrorMessage)message).getCause().getMessage();
+            if (message instanceof ExceptionMessage)
+                e = ((ExceptionMessage)message).getCause();
+        }
+        return e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+    }
+
+    private static void setReason(InitializationStats stats, Validator validator, String reason) {
+        if (stats != null)
+            stats.setReasonNotPreCompiled(validator.getId(), InitializationStats.REASON_NOT_GENERATED.replace("{0}", reason));
+    }
+
+    private static List<String> getAliases(String javaPath) {
+        List<String> result = new ArrayList<>();
+        StringBuilder buf = new StringBuilder();
+        for (String javaPathPart : StringUtils.split(javaPath, '.')) {
+            if (buf.length() > 0)
+                buf.append(".");
+            buf.append(javaPathPart);
+            String alias = ValidationServices.getInstance().getAliasForJavaPath(buf.toString());
+            if (alias == null || _RESERVED_NAMES.contains(alias) || result.contains(alias))
+                return null;
+            result.add(alias);
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    private static List<Class<?>> getParameters(List<String> aliases) {
+        List<Class<?>> parameters = new ArrayList<>();
+        parameters.add(Binding.class);
+        parameters.add(Map.class);
+        parameters.add(ValidationContextFunctions.class);
+        for (int i = 0; i < aliases.size(); i++)
+            parameters.add(Object.class);
+        return Collections.unmodifiableList(parameters);
+    }
+
+    private static CompilerConfiguration createConfiguration() {
+        CompilerConfiguration configuration = new CompilerConfiguration(ScriptCompiler.getConfiguration());
+        configuration.addCompilationCustomizers(new UndeclaredVariablesChecker());
+        return configuration;
+    }
+
+    /**
+     * Reports the variables that are not declared in the generated methods; in a script, those variables would be read from (or written to) the binding,
+     * but in a class they become properties of the class, which would change the behavior of the edit.
+     */
+    private static final class UndeclaredVariablesChecker extends CompilationCustomizer {
+
+        private UndeclaredVariablesChecker() {
+            super(CompilePhase.CANONICALIZATION);
+        }
+
+        @Override
+        public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+            new ClassCodeVisitorSupport() {
+
+                @Override
+                protected SourceUnit getSourceUnit() {
+                    return source;
+                }
+
+                @Override
+                public void visitVariableExpression(VariableExpression expression) {
+                    if (expression.getAccessedVariable() instanceof DynamicVariable)
+                        addError("Variable '" + expression.getName() + "' is not declared", expression);
+                    super.visitVariableExpression(expression);
+                }
+            }.visitClass(classNode);
+        }
+    }
+}
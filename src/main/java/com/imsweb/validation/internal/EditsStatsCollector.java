@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.imsweb.validation.EngineStats;
+
+/**
+ * The edits statistics gathered by the engine since they were last reset, along with the number of validations they correspond to.
+ * <br/><br/>
+ * The engine replaces the whole collector when the statistics are reset, so the statistics and the counters always correspond to the same validations. A
+ * validation registers with the current collector when it starts and reports everything to that collector; a collector that was replaced can then wait for
+ * the validations still running against it, so none of them is lost.
+ */
+public final class EditsStatsCollector {
+
+    // the statistics, keyed by edit ID
+    private final Map<String, EngineStats> _stats = new ConcurrentHashMap<>();
+
+    // number of validations registered with this collector
+    private final LongAdder _numValidations = new LongAdder();
+
+    // number of validations registered with this collector that had their edits timed
+    private final LongAdder _numSampledValidations = new LongAdder();
+
+    // number of validations registered with this collector that are still running
+    private final LongAdder _numRunningValidations = new LongAdder();
+
+    /**
+     * Registers a validation with the current collector and returns it; <code>unregister()</code> must be called on the returned collector once the validation is done.
+     * @param current reference to the current collector
+     * @param sampled whether the edits of the validation are timed
+     * @return the collector the validation must report to
+     */
+    public static EditsStatsCollector register(AtomicReference<EditsStatsCollector> current, boolean sampled) {
+        while (true) {
+            EditsStatsCollector collector = current.get();
+            collector._numRunningValidations.increment();
+
+            // if the collector was replaced in the meantime, it might not wait for this validation, so let's register with the new one instead
+            if (current.get() == collector) {
+                collector._numValidations.increment();
+                if (sampled)
+                    collector._numSampledValidations.increment();
+                return collector;
+            }
+            collector._numRunningValidations.decrement();
+        }
+    }
+
+    /**
+     * Reports the durations of the edits of a validation.
+     * @param durations durations, in nanoseconds, keyed by edit ID
+     */
+    public void report(Map<String, Long> durations) {
+        for (Entry<String, Long> entry : durations.entrySet())
+            _stats.computeIfAbsent(entry.getKey(), EngineStats::new).reportStatNanos(entry.getValue());
+    }
+
+    /**
+     * Un-registers a validation that was registered with this collector.
+     */
+    public void unregister() {
+        _numRunningValidations.decrement();
+    }
+
+    /**
+     * Waits for all the validations registered with this collector to be done; this should only be called once the collector was replaced.
+     */
+    public void awaitRunningValidations() {
+        while (_numRunningValidations.sum() > 0)
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+    }
+
+    /**
+     * Returns a read-only view of the statistics.
+     * @return the statistics, keyed by edit ID
+     */
+    public Map<String, EngineStats> getStats() {
+        return Collections.unmodifiableMap(_stats);
+    }
+
+    /**
+     * Returns a copy of the statistics, extrapolated to all the registered validations (the factor is 1 if every validation was timed).
+     * @param extrapolate whether the statistics should be extrapolated
+     * @return the statistics, keyed by edit ID
+     */
+    public Map<String, EngineStats> copyStats(boolean extrapolate) {
+        double factor = 1.0;
+        if (extrapolate) {
+            long numSampled = _numSampledValidations.sum();
+            if (numSampled > 0)
+                factor = (double)_numValidations.sum() / numSampled;
+        }
+
+        Map<String, EngineStats> result = new HashMap<>();
+        for (Entry<String, EngineStats> entry : _stats.entrySet())
+            result.put(entry.getKey(), new EngineStats(entry.getValue(), factor));
+        return result;
+    }
+}
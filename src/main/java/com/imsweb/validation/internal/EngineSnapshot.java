@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.imsweb.validation.entities.Category;
+import com.imsweb.validation.entities.Condition;
+import com.imsweb.validation.entities.Rule;
+import com.imsweb.validation.entities.Validator;
+
+/**
+ * An immutable view of the runtime state of the engine (processors, executable rules and conditions, contexts and lookup indexes for the raw entities).
+ * <br/><br/>
+ * The engine builds a new snapshot every time its state is modified and publishes it atomically; the validations and the getters only read the current
+ * snapshot, so they never have to wait for a modification to complete, and a validation that started before a modification keeps using the state it started with.
+ * <br/><br/>
+ * The processors referenced by a snapshot are never modified once the snapshot is published; a modification of the engine always creates new processors.
+ */
+public final class EngineSnapshot {
+
+    /**
+     * Empty snapshot, used when the engine is not initialized
+     */
+    public static final EngineSnapshot EMPTY = new EngineSnapshot(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptyMap());
+
+    // the validators, keyed by ID
+    private final Map<String, Validator> _validators;
+
+    // the processors, keyed by java path
+    private final Map<String, ValidatingProcessor> _processors;
+
+    // the number of rules under each root java path
+    private final Map<String, Integer> _processorRoots;
+
+    // the executable rules, keyed by internal ID
+    private final Map<Long, ExecutableRule> _executableRules;
+
+    // the executable conditions, keyed by internal ID
+    private final Map<Long, ExecutableCondition> _executableConditions;
+
+    // the compiled contexts, keyed by validator internal ID
+    private final Map<Long, Map<String, Object>> _contexts;
+
+    // the rules, keyed by validator ID, then by rule ID (case-insensitive)
+    private final Map<String, Map<String, Rule>> _rules;
+
+    // the conditions, keyed by validator ID, then by condition ID (case-insensitive)
+    private final Map<String, Map<String, Condition>> _conditions;
+
+    // the categories, keyed by validator ID, then by category ID (case-insensitive)
+    private final Map<String, Map<String, Category>> _categories;
+
+    /**
+     * Constructor; all the provided collections are copied.
+     * @param validators validators, keyed by ID
+     * @param processors processors, keyed by java path
+     * @param processorRoots number of rules under each root java path
+     * @param executableRules executable rules
+     * @param executableConditions executable conditions
+     * @param contexts compiled contexts, keyed by validator internal ID
+     */
+    public EngineSnapshot(Map<String, Validator> validators, Map<String, ValidatingProcessor> processors, Map<String, Integer> processorRoots, Map<Long, ExecutableRule> executableRules,
+            Map<Long, ExecutableCondition> executableConditions, Map<Long, Map<String, Object>> contexts) {
+        _validators = Collections.unmodifiableMap(new HashMap<>(validators));
+        _processors = Collections.unmodifiableMap(new HashMap<>(processors));
+        _processorRoots = Collections.unmodifiableMap(new HashMap<>(processorRoots));
+        _executableRules = Collections.unmodifiableMap(new HashMap<>(executableRules));
+        _executableConditions = Collections.unmodifiableMap(new HashMap<>(executableConditions));
+
+        Map<Long, Map<String, Object>> contextsCopy = new HashMap<>();
+        for (Entry<Long, Map<String, Object>> entry : contexts.entrySet())
+            contextsCopy.put(entry.getKey(), Collections.unmodifiableMap(new HashMap<>(entry.getValue())));
+        _contexts = Collections.unmodifiableMap(contextsCopy);
+
+        // the raw entities can be modified by the engine after this snapshot is replaced, so the indexes are built once, from their current content
+        _rules = new HashMap<>();
+        _conditions = new HashMap<>();
+        _categories = new HashMap<>();
+        for (Validator v : _validators.values()) {
+            Map<String, Rule> rules = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            if (v.getRules() != null)
+                for (Rule r : v.getRules())
+                    if (r.getId() != null)
+                        rules.putIfAbsent(r.getId(), r);
+            _rules.put(v.getId(), rules);
+            Map<String, Condition> conditions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            if (v.getConditions() != null)
+                for (Condition c : v.getConditions())
+                    if (c.getId() != null)
+                        conditions.putIfAbsent(c.getId(), c);
+            _conditions.put(v.getId(), conditions);
+            Map<String, Category> categories = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            if (v.getCategories() != null)
+                for (Category c : v.getCategories())
+                    if (c.getId() != null)
+                        categories.putIfAbsent(c.getId(), c);
+            _categories.put(v.getId(), categories);
+        }
+    }
+
+    public Map<String, Validator> getValidators() {
+        return _validators;
+    }
+
+    public Map<String, ValidatingProcessor> getProcessors() {
+        return _processors;
+    }
+
+    public Map<String, Integer> getProcessorRoots() {
+        return _processorRoots;
+    }
+
+    public Map<Long, ExecutableRule> getExecutableRules() {
+        return _executableRules;
+    }
+
+    public Map<Long, ExecutableCondition> getExecutableConditions() {
+        return _executableConditions;
+    }
+
+    public Map<Long, Map<String, Object>> getContexts() {
+        return _contexts;
+    }
+
+    /**
+     * Returns the requested rule.
+     * @param ruleId rule ID, cannot be null
+     * @param validatorId validator ID, if null the rule is searched in all the validators
+     * @return the rule, null if not found
+     */
+    public Rule getRule(String ruleId, String validatorId) {
+        return find(_rules, ruleId, validatorId);
+    }
+
+    /**
+     * Returns the requested condition.
+     * @param conditionId condition ID, cannot be null
+     * @param validatorId validator ID, if null the condition is searched in all the validators
+     * @return the condition, null if not found
+     */
+    public Condition getCondition(String conditionId, String validatorId) {
+        return find(_conditions, conditionId, validatorId);
+    }
+
+    /**
+     * Returns the requested category.
+     * @param categoryId category ID, cannot be null
+     * @param validatorId validator ID, if null the category is searched in all the validators
+     * @return the category, null if not found
+     */
+    public Category getCategory(String categoryId, String validatorId) {
+        return find(_categories, categoryId, validatorId);
+    }
+
+    private static <T> T find(Map<String, Map<String, T>> index, String id, String validatorId) {
+        if (validatorId != null) {
+            Map<String, T> entities = index.get(validatorId);
+            return entities == null ? null : entities.get(id);
+        }
+
+        for (Map<String, T> entities : index.values()) {
+            T entity = entities.get(id);
+            if (entity != null)
+                return entity;
+        }
+
+        return null;
+    }
+}
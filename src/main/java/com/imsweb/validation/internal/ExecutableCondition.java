@@ -13,6 +13,7 @@ import com.imsweb.validation.ValidationException;
 import com.imsweb.validation.ValidationServices;
 import com.imsweb.validation.entities.Condition;
 import com.imsweb.validation.entities.Validatable;
+import com.imsweb.validation.internal.jfr.ConditionEvaluationEvent;
 
 /**
  * Created on Jun 28, 2011 by depryf
@@ -32,11 +33,11 @@ public class ExecutableCondition {
     // java-path for this rule
     private String _javaPath;
 
-    // groovy script to execute
-    private Script _script;
+    // dense ordinal assigned by the engine (-1 if none was assigned), used to track the failures as bits
+    private int _ordinal = -1;
 
-    // lock used for executing groovy scripts (since their interaction with the Binding objects is not thread-safe)
-    private final Object _scriptLock = new Object();
+    // groovy script to execute (a pool of instances of the compiled script since their interaction with the Binding objects is not thread-safe)
+    private ScriptPool _script;
 
     /**
      * Constructor.
@@ -45,13 +46,24 @@ public class ExecutableCondition {
      * @param condition the <code>Condition</code> on which this executable ruleset is based one
      */
     public ExecutableCondition(Condition condition) throws ConstructionException {
+        this(condition, ScriptOptions.DEFAULT);
+    }
+
+    /**
+     * Constructor.
+     * @param condition the <code>Condition</code> on which this executable ruleset is based one
+     * @param options how the Groovy script is created (the conditions are always compiled right away)
+     */
+    public ExecutableCondition(Condition condition, ScriptOptions options) throws ConstructionException {
         _condition = condition;
         _id = condition.getId();
         _internalId = condition.getConditionId();
         _javaPath = condition.getJavaPath();
 
         try {
-            _script = ValidationServices.getInstance().compileExpression(condition.getExpression());
+            ScriptCompiler compiler = options.compiler();
+            Script script = compiler != null ? compiler.compile(condition.getExpression()) : ValidationServices.getInstance().compileExpression(condition.getExpression());
+            _script = new ScriptPool(script, options.scriptPoolSize());
         }
         catch (CompilationFailedException e) {
             _script = null;
@@ -107,6 +119,22 @@ public class ExecutableCondition {
         return _internalId;
     }
 
+    /**
+     * Returns the ordinal of this condition, -1 if the condition wasn't registered in the engine.
+     * @return ordinal
+     */
+    public int getOrdinal() {
+        return _ordinal;
+    }
+
+    /**
+     * Assigns the ordinal of this condition; this method should only be called by the engine.
+     * @param conditionOrdinals condition ordinals
+     */
+    public void computeOrdinal(OrdinalRegistry conditionOrdinals) {
+        _ordinal = conditionOrdinals.getOrdinal(_id);
+    }
+
     /**
      * Getter for the java path.
      * <p/>
@@ -135,13 +163,29 @@ public class ExecutableCondition {
      */
     public void setExpression(String expression) throws ConstructionException {
         try {
-            _script = ValidationServices.getInstance().compileExpression(expression);
+            _script = new ScriptPool(ValidationServices.getInstance().compileExpression(expression), _script == null ? 1 : _script.getMaxSize());
         }
         catch (CompilationFailedException e) {
             throw new ConstructionException("Unable to compile expression for condition " + _condition.getId(), e);
         }
     }
 
+    /**
+     * Returns the number of times a thread had to wait for a Groovy Script instance to execute this condition.
+     * @return number of contentions
+     */
+    public long getNumScriptContentions() {
+        return _script == null ? 0 : _script.getNumContentions();
+    }
+
+    /**
+     * Resets the number of contentions.
+     */
+    public void resetNumScriptContentions() {
+        if (_script != null)
+            _script.resetNumContentions();
+    }
+
     @Override
     public String toString() {
         return _id;
@@ -169,36 +213,56 @@ public class ExecutableCondition {
         if (_script == null)
             return true;
 
+        ConditionEvaluationEvent event = new ConditionEvaluationEvent();
+        event.begin();
+        try {
+            boolean success = internalCheck(validatable, binding);
+            event.passed = success;
+            return success;
+        }
+        catch (ValidationException | RuntimeException e) {
+            event.exception = e.toString();
+            throw e;
+        }
+        finally {
+            if (event.shouldCommit()) {
+                event.conditionId = _id;
+                event.javaPath = _javaPath;
+                event.commit();
+            }
+        }
+    }
+
+    private boolean internalCheck(Validatable validatable, Binding binding) throws ValidationException {
+
         boolean success;
 
-        synchronized (_scriptLock) {
-            _script.setBinding(binding);
-            try {
-                Object result = _script.run();
-                if (result instanceof Boolean)
-                    success = (Boolean)result;
-                else {
-                    throw new ValidationException("result is not a boolean");
-                }
+        Script script = _script.acquire(binding);
+        try {
+            Object result = script.run();
+            if (result instanceof Boolean)
+                success = (Boolean)result;
+            else {
+                throw new ValidationException("result is not a boolean");
             }
-            catch (Exception e) {
-                StringBuilder buf = new StringBuilder();
-                if (_id != null) {
-                    buf.append("Unable to execute condition '").append(_id).append("'");
-                    String validated = validatable.getDisplayId();
-                    if (validated != null)
-                        buf.append(" on ").append(validatable.getDisplayId()).append(": ");
-                    else
-                        buf.append(": ");
-                }
+        }
+        catch (Exception e) {
+            StringBuilder buf = new StringBuilder();
+            if (_id != null) {
+                buf.append("Unable to execute condition '").append(_id).append("'");
+                String validated = validatable.getDisplayId();
+                if (validated != null)
+                    buf.append(" on ").append(validatable.getDisplayId()).append(": ");
                 else
-                    buf.append("Unable to execute condition: ");
-                buf.append(e.getMessage() == null ? "null reference" : e.getMessage());
-                throw new ValidationException(buf.toString(), e);
-            }
-            finally {
-                _script.setBinding(null);
+                    buf.append(": ");
             }
+            else
+                buf.append("Unable to execute condition: ");
+            buf.append(e.getMessage() == null ? "null reference" : e.getMessage());
+            throw new ValidationException(buf.toString(), e);
+        }
+        finally {
+            _script.release(script);
         }
 
         return success;
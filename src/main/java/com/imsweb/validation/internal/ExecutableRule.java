@@ -3,8 +3,6 @@
  */
 package com.imsweb.validation.internal;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -23,6 +21,8 @@ import com.imsweb.validation.ValidationException;
 import com.imsweb.validation.ValidationServices;
 import com.imsweb.validation.entities.Rule;
 import com.imsweb.validation.entities.Validatable;
+import com.imsweb.validation.internal.jfr.EditExecutionEvent;
+import com.imsweb.validation.runtime.CompiledRuleInvoker;
 import com.imsweb.validation.runtime.CompiledRules;
 import com.imsweb.validation.runtime.CompiledRulesBundle;
 import com.imsweb.validation.runtime.RuntimeUtils;
@@ -66,20 +66,27 @@ public class ExecutableRule {
     // whether this rule needs to check for forced failures on entities/properties (this is an expensive mechanism); automatically populated when setExpression() is called.
     private Boolean _checkForcedEntities;
 
-    // groovy script to execute
-    private Script _script;
+    // groovy script to execute (a pool of instances of the compiled script since their interaction with the Binding objects is not thread-safe)
+    private volatile ScriptPool _script;
 
-    // lock used for executing groovy scripts (since their interaction with the Binding objects is not thread-safe)
-    private final Object _scriptLock = new Object();
+    // what's needed to compile the script on first use (null if the script was compiled when the rule was created, or if it already has been compiled); shared
+    // with the copies of this rule so the script is compiled only once
+    private volatile DeferredScript _deferred;
+
+    // dense ordinal assigned by the engine (-1 if none was assigned), used to track the failures as bits
+    private int _ordinal = -1;
+
+    // bit mask of the dependencies (null if there are no dependencies); computed by the engine
+    private long[] _dependencyMask;
+
+    // bit mask of the conditions (null if there are no conditions); computed by the engine
+    private long[] _conditionMask;
 
     // pre-compiled rules; if those are available and a method corresponding to this rule is found in that class, then the Groovy script won't be compiled.
     private CompiledRules _compiledRules;
 
-    // pre-compiled rule (as a Groovy method instead of a dynamically compiled Groovy script).
-    private Method _compiledRule;
-
-    // cached aliases for the java-path, only used with pre-compiled edits
-    private List<String> _aliases;
+    // pre-compiled rule (as an invoker of a Groovy method instead of a dynamically compiled Groovy script).
+    private CompiledRuleInvoker _compiledRule;
 
     /**
      * Constructor.
@@ -100,6 +107,17 @@ public class ExecutableRule {
      * @param stats initialization stats (can be null)
      */
     public ExecutableRule(Rule rule, CompiledRules compiledRules, InitializationStats stats) throws ConstructionException {
+        this(rule, compiledRules, stats, ScriptOptions.DEFAULT);
+    }
+
+    /**
+     * Constructor.
+     * @param rule parent rule
+     * @param compiledRules pre-compiled rules (can be null in which case a Groovy Script will be compiled)
+     * @param stats initialization stats (can be null)
+     * @param options how the Groovy script is created (see {@link #compileDeferredScript()} for the deferred compilation)
+     */
+    public ExecutableRule(Rule rule, CompiledRules compiledRules, InitializationStats stats, ScriptOptions options) throws ConstructionException {
         _rule = rule;
         _id = rule.getId();
         _internalId = rule.getRuleId();
@@ -119,35 +137,50 @@ public class ExecutableRule {
             if (_compiledRules instanceof CompiledRulesBundle)
                 _compiledRules = ((CompiledRulesBundle)compiledRules).getCompiledRulesForRuleId(_id);
 
-            _compiledRule = RuntimeUtils.findCompiledMethod(_compiledRules, rule.getId(), _compiledRules.getMethodParameters().get(rule.getJavaPath()));
-
             // optimization - pre-compute the different aliases for the rule's java path
-            _aliases = new ArrayList<>();
+            List<String> aliases = new ArrayList<>();
             StringBuilder buf = new StringBuilder();
             for (String javaPathPart : StringUtils.split(_javaPath, '.')) {
                 if (buf.length() > 0)
                     buf.append(".");
                 buf.append(javaPathPart);
-                _aliases.add(ValidationServices.getInstance().getAliasForJavaPath(buf.toString()));
+                aliases.add(ValidationServices.getInstance().getAliasForJavaPath(buf.toString()));
             }
+
+            long start = System.nanoTime();
+            _compiledRule = RuntimeUtils.findCompiledRuleInvoker(_compiledRules, rule.getId(), _compiledRules.getMethodParameters().get(rule.getJavaPath()), aliases);
+            if (stats != null)
+                stats.addPreCompiledLookupDuration(System.nanoTime() - start);
         }
 
         // only compile Groovy script if no re-compiled Groovy method was available...
-        if (_compiledRule == null) {
+        ScriptCompiler compiler = options.compiler();
+        if (_compiledRule == null && options.deferCompilation())
+            _deferred = new DeferredScript(rule.getExpression(), compiler, options.scriptPoolSize(), stats, _rule.getValidator() == null ? null : _rule.getValidator().getId());
+        else if (_compiledRule == null) {
+            long start = System.nanoTime();
             try {
-                _script = ValidationServices.getInstance().compileExpression(rule.getExpression());
+                Script script = compiler != null ? compiler.compile(rule.getExpression()) : ValidationServices.getInstance().compileExpression(rule.getExpression());
+                _script = new ScriptPool(script, options.scriptPoolSize());
             }
             catch (CompilationFailedException e) {
                 throw new ConstructionException("Unable to compile rule " + _rule.getId(), e);
             }
+            if (stats != null)
+                stats.addCompilationDuration(System.nanoTime() - start);
         }
 
         if (stats != null) {
             stats.incrementNumEditsLoaded(_rule.getValidator().getId());
-            if (_compiledRule != null)
+            if (_compiledRule != null) {
                 stats.incrementNumEditsPreCompiled(_rule.getValidator().getId());
+                if (!_compiledRule.isFixedArity())
+                    stats.incrementNumEditsSpreadingInvoker(_rule.getValidator().getId());
+            }
             else if (_script != null)
                 stats.incrementNumEditsCompiled(_rule.getValidator().getId());
+            else if (_deferred != null)
+                stats.incrementNumEditsDeferred(_rule.getValidator().getId());
         }
     }
 
@@ -169,9 +202,9 @@ public class ExecutableRule {
         _ignored = execRule._ignored;
         _usedProperties = execRule._usedProperties;
         _script = execRule._script;
+        _deferred = execRule._deferred;
         _compiledRules = execRule._compiledRules;
         _compiledRule = execRule._compiledRule;
-        _aliases = execRule._aliases;
         _checkForcedEntities = execRule._checkForcedEntities;
     }
 
@@ -315,6 +348,49 @@ public class ExecutableRule {
         _conditions = conditions;
     }
 
+    /**
+     * Returns the ordinal of this rule, -1 if the rule wasn't registered in the engine.
+     * @return ordinal
+     */
+    public int getOrdinal() {
+        return _ordinal;
+    }
+
+    /**
+     * Returns the bit mask of the dependencies, null if there are no dependencies.
+     * @return dependencies mask
+     */
+    public long[] getDependencyMask() {
+        return _dependencyMask;
+    }
+
+    /**
+     * Returns the bit mask of the conditions, null if there are no conditions.
+     * @return conditions mask
+     */
+    public long[] getConditionMask() {
+        return _conditionMask;
+    }
+
+    /**
+     * Returns true if this rule is executed through a pre-compiled method instead of a Groovy script.
+     * @return true if this rule is pre-compiled
+     */
+    public boolean isPreCompiled() {
+        return _compiledRule != null;
+    }
+
+    /**
+     * Assigns the ordinal of this rule and computes the dependencies and conditions masks; this method should only be called by the engine.
+     * @param ruleOrdinals rule ordinals
+     * @param conditionOrdinals condition ordinals
+     */
+    public void computeOrdinals(OrdinalRegistry ruleOrdinals, OrdinalRegistry conditionOrdinals) {
+        _ordinal = ruleOrdinals.getOrdinal(_id);
+        _dependencyMask = ruleOrdinals.getMask(_dependencies);
+        _conditionMask = conditionOrdinals.getMask(_conditions);
+    }
+
     /**
      * Sets the rule expression.
      * <p/>
@@ -327,20 +403,67 @@ public class ExecutableRule {
             Set<String> usedProperties = new HashSet<>();
             Set<String> usedContextEntries = new HashSet<>();
             ValidationServices.getInstance().parseExpression("rule", expression, usedProperties, usedContextEntries, null);
-            _script = ValidationServices.getInstance().compileExpression(expression);
+            DeferredScript deferred = _deferred;
+            int scriptPoolSize = _script != null ? _script.getMaxSize() : deferred != null ? deferred.getScriptPoolSize() : 1;
+            _script = new ScriptPool(ValidationServices.getInstance().compileExpression(expression), scriptPoolSize);
+            _deferred = null;
             _usedProperties = usedProperties;
             _checkForcedEntities = computeCheckForcedEntities(expression);
 
             // can't use pre-compiled methods when dynamically changing the expression! Let's make sure of that...
             _compiledRules = null;
             _compiledRule = null;
-            _aliases = null;
         }
         catch (CompilationFailedException e) {
             throw new ConstructionException("Unable to compile rule " + _id, e);
         }
     }
 
+    /**
+     * Returns true if the Groovy script of this rule still needs to be compiled (only possible if the compilation was deferred when the rule was created).
+     * @return true if the compilation of the script is pending
+     */
+    public boolean isCompilationDeferred() {
+        DeferredScript deferred = _deferred;
+        return deferred != null && deferred.isPending();
+    }
+
+    /**
+     * Compiles the Groovy script of this rule if its compilation was deferred; does nothing otherwise. This is called automatically the first time the rule
+     * is executed, but it can also be called ahead of time (to warm up the rules in the background for example).
+     * <br/><br/>
+     * The script is compiled only once, even for the copies of this rule; if the compilation fails, the failure is remembered and re-thrown without compiling
+     * the expression again.
+     * @return the compiled script, null if the rule doesn't use a Groovy script
+     * @throws CompilationFailedException if the expression can't be compiled
+     */
+    public ScriptPool compileDeferredScript() throws CompilationFailedException {
+        DeferredScript deferred = _deferred;
+        if (deferred == null)
+            return _script;
+
+        ScriptPool script = deferred.getScript();
+        _script = script;
+        _deferred = null;
+        return script;
+    }
+
+    /**
+     * Returns the number of times a thread had to wait for a Groovy Script instance to execute this rule (always 0 for pre-compiled edits).
+     * @return number of contentions
+     */
+    public long getNumScriptContentions() {
+        return _script == null ? 0 : _script.getNumContentions();
+    }
+
+    /**
+     * Resets the number of contentions.
+     */
+    public void resetNumScriptContentions() {
+        if (_script != null)
+            _script.resetNumContentions();
+    }
+
     private boolean computeCheckForcedEntities(String expression) {
         return expression != null && (expression.contains("forceFailureOnEntity") || expression.contains("forceFailureOnProperty") || expression.contains("ignoreFailureOnProperty"));
     }
@@ -369,27 +492,69 @@ public class ExecutableRule {
      * @return true if the expression passes, false otherwise
      */
     public boolean validate(Validatable validatable, Binding binding) throws ValidationException {
+        return complete(validatable, evaluate(validatable, binding));
+    }
+
+    /**
+     * Runs the expression against the passed <code>Validatable</code> but doesn't report the failing properties on it; this method doesn't modify the
+     * validatable so it can be called for several rules at the same time (as long as each call uses its own binding).
+     * <br/><br/>
+     * The returned evaluation needs to be passed to <code>complete()</code> to report the failing properties and get the final result.
+     * @param validatable <code>Validatable</code>
+     * @param binding the Groovy binding to use
+     * @return the evaluation, never null
+     */
+    Evaluation evaluate(Validatable validatable, Binding binding) {
+        EditExecutionEvent event = new EditExecutionEvent();
+        event.begin();
+
+        Evaluation evaluation = internalEvaluate(validatable, binding);
+
+        if (event.shouldCommit()) {
+            event.editId = _id;
+            event.javaPath = _javaPath;
+            event.passed = evaluation.success();
+            event.exception = evaluation.exception() == null ? null : evaluation.exception().toString();
+            event.commit();
+        }
+
+        return evaluation;
+    }
+
+    private Evaluation internalEvaluate(Validatable validatable, Binding binding) {
         ExtraPropertyHandlerDto extra = Boolean.TRUE.equals(_checkForcedEntities) ? new ExtraPropertyHandlerDto() : null;
 
         // this is a bit convoluted, but we still want to set the failing properties even if an exception happens...
-        ValidationException exception = null;
-
-        boolean success;
         try {
-            success = internalValidate(validatable, binding, extra);
+            boolean success = internalValidate(validatable, binding, extra);
             // edits from Genedits use side-effect flags to fail, instead of returning false...
             if (success) {
                 Boolean failingFlag = (Boolean)binding.getVariable(ValidationEngine.VALIDATOR_FAILING_FLAG);
                 if (failingFlag != null && failingFlag)
                     success = false;
             }
+            return new Evaluation(success, extra, null);
         }
-        catch (ValidationException e) {
-            success = false;
-            exception = e;
+        catch (ValidationException | RuntimeException e) {
+            return new Evaluation(false, extra, e);
         }
+    }
+
+    /**
+     * Reports the failing properties of the provided evaluation on the <code>Validatable</code> and returns the result of the evaluation.
+     * @param validatable <code>Validatable</code>
+     * @param evaluation evaluation returned by <code>evaluate()</code>
+     * @return true if the expression passed, false otherwise
+     * @throws ValidationException if the expression couldn't be evaluated
+     */
+    boolean complete(Validatable validatable, Evaluation evaluation) throws ValidationException {
+
+        // unexpected exceptions are not reported on the properties
+        if (evaluation.exception() instanceof RuntimeException e)
+            throw e;
 
-        if (!success) {
+        ExtraPropertyHandlerDto extra = evaluation.extra();
+        if (!evaluation.success()) {
             try {
                 // go through each property to report
                 for (String property : _usedProperties)
@@ -408,10 +573,85 @@ public class ExecutableRule {
             }
         }
 
-        if (exception != null)
-            throw exception;
+        if (evaluation.exception() != null)
+            throw (ValidationException)evaluation.exception();
 
-        return success;
+        return evaluation.success();
+    }
+
+    /**
+     * Result of running the expression of a rule, before the failing properties are reported.
+     * @param success whether the expression passed
+     * @param extra properties or entities to ignore or force, can be null
+     * @param exception exception that happened while running the expression, null if none
+     */
+    record Evaluation(boolean success, ExtraPropertyHandlerDto extra, Exception exception) {}
+
+    /**
+     * The Groovy script of a rule that is compiled on first use; the result of the compilation (the script or the failure) is kept so it happens only once.
+     */
+    static final class DeferredScript {
+
+        private final String _expression;
+        private final ScriptCompiler _compiler;
+        private final int _scriptPoolSize;
+        private final InitializationStats _stats;
+        private final String _validatorId;
+        private volatile ScriptPool _script;
+        private volatile CompilationFailedException _failure;
+
+        /**
+         * Constructor.
+         * @param expression expression to compile
+         * @param compiler compiler of the validator, can be null
+         * @param scriptPoolSize maximum number of Groovy Script instances
+         * @param stats initialization stats to update when the script is compiled, can be null
+         * @param validatorId ID of the validator of the rule (used for the stats)
+         */
+        DeferredScript(String expression, ScriptCompiler compiler, int scriptPoolSize, InitializationStats stats, String validatorId) {
+            _expression = expression;
+            _compiler = compiler;
+            _scriptPoolSize = scriptPoolSize;
+            _stats = stats;
+            _validatorId = validatorId;
+        }
+
+        int getScriptPoolSize() {
+            return _scriptPoolSize;
+        }
+
+        boolean isPending() {
+            return _script == null && _failure == null;
+        }
+
+        ScriptPool getScript() throws CompilationFailedException {
+            ScriptPool script = _script;
+            if (script == null) {
+                if (_failure != null)
+                    throw _failure;
+                synchronized (this) {
+                    script = _script;
+                    if (script == null) {
+                        if (_failure != null)
+                            throw _failure;
+                        long start = System.nanoTime();
+                        try {
+                            script = new ScriptPool(_compiler != null ? _compiler.compile(_expression) : ValidationServices.getInstance().compileExpression(_expression), _scriptPoolSize);
+                        }
+                        catch (CompilationFailedException e) {
+                            _failure = e;
+                            throw e;
+                        }
+                        _script = script;
+                        if (_stats != null) {
+                            _stats.addCompilationDuration(System.nanoTime() - start);
+                            _stats.incrementNumEditsCompiledLazily(_validatorId);
+                        }
+                    }
+                }
+            }
+            return script;
+        }
     }
 
     /**
@@ -439,48 +679,46 @@ public class ExecutableRule {
 
         // if a method is available, invoke it, otherwise execute the script
         if (_compiledRule != null) {
-            List<Object> params = new ArrayList<>();
-            params.add(binding);
-            params.add(binding.getVariable(ValidationEngine.VALIDATOR_CONTEXT_KEY));
-            params.add(binding.getVariable(ValidationEngine.VALIDATOR_FUNCTIONS_KEY));
-            for (String alias : _aliases)
-                params.add(binding.getVariable(alias));
-
             try {
-                success = (Boolean)_compiledRule.invoke(_compiledRules, params.toArray(new Object[0]));
+                success = _compiledRule.invoke(binding);
             }
-            catch (IllegalAccessException | InvocationTargetException e) {
+            catch (Throwable e) {
                 throw new ValidationException("Exception invoking method for edit " + _id, e);
             }
         }
-        else if (_script != null) {
-            synchronized (_scriptLock) {
-                _script.setBinding(binding);
-                try {
-                    Object result = _script.run();
-                    if (result instanceof Boolean)
-                        success = (Boolean)result;
-                    else
-                        throw new ValidationException("result is not a boolean");
-                }
-                catch (Exception e) {
-                    StringBuilder buf = new StringBuilder();
-                    if (_id != null) {
-                        buf.append("Unable to execute edit '").append(_id).append("'");
-                        String validated = validatable.getDisplayId();
-                        if (validated != null)
-                            buf.append(" on ").append(validatable.getDisplayId()).append(": ");
-                        else
-                            buf.append(": ");
-                    }
+        else if (_script != null || _deferred != null) {
+            ScriptPool pool;
+            try {
+                pool = compileDeferredScript();
+            }
+            catch (CompilationFailedException e) {
+                throw new ValidationException("Unable to compile edit '" + _id + "'", e);
+            }
+            Script script = pool.acquire(binding);
+            try {
+                Object result = script.run();
+                if (result instanceof Boolean)
+                    success = (Boolean)result;
+                else
+                    throw new ValidationException("result is not a boolean");
+            }
+            catch (Exception e) {
+                StringBuilder buf = new StringBuilder();
+                if (_id != null) {
+                    buf.append("Unable to execute edit '").append(_id).append("'");
+                    String validated = validatable.getDisplayId();
+                    if (validated != null)
+                        buf.append(" on ").append(validatable.getDisplayId()).append(": ");
                     else
-                        buf.append("Unable to execute edit: ");
-                    buf.append(e.getMessage() == null ? "null reference" : e.getMessage());
-                    throw new ValidationException(buf.toString(), e);
-                }
-                finally {
-                    _script.setBinding(null);
+                        buf.append(": ");
                 }
+                else
+                    buf.append("Unable to execute edit: ");
+                buf.append(e.getMessage() == null ? "null reference" : e.getMessage());
+                throw new ValidationException(buf.toString(), e);
+            }
+            finally {
+                pool.release(script);
             }
         }
         else
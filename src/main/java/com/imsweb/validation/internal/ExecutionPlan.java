@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An execution plan contains the rules that a processor needs to evaluate for a given configuration of rules to ignore/execute.
+ * <br/><br/>
+ * The rules that are never evaluated with that configuration (ignored rules, rules not requested to be executed) are not part of the plan; they are represented
+ * by a mask of "skipped" rules that is reported as failed when a level is entered (so the rules depending on them are not evaluated either).
+ * <br/><br/>
+ * The plan also contains the dependencies between its rules (as indexes in the plan), so the rules can be scheduled as a graph when they are executed in parallel.
+ * <br/><br/>
+ * Plans are immutable; they are cached by the processors and discarded every time the processor's rules change.
+ */
+public final class ExecutionPlan {
+
+    // the rules to evaluate, in the order they need to be evaluated
+    private final ExecutableRule[] _rules;
+
+    // the rules that are skipped (and therefore considered as failed)
+    private final long[] _skippedRules;
+
+    // for each rule of the plan, the number of rules of the plan it depends on
+    private final int[] _numDependencies;
+
+    // for each rule of the plan, the indexes of the rules of the plan that depend on it
+    private final int[][] _dependents;
+
+    /**
+     * Constructor.
+     * @param rules all the rules of the processor, sorted by dependencies
+     * @param toIgnore rule IDs to ignore, can be null
+     * @param toExecute rule IDs to execute, null means all of them
+     */
+    public ExecutionPlan(List<ExecutableRule> rules, Collection<String> toIgnore, Collection<String> toExecute) {
+        List<ExecutableRule> active = new ArrayList<>(rules.size());
+        long[] skipped = new long[0];
+        for (ExecutableRule rule : rules) {
+            String id = rule.getId();
+            boolean skip = (toExecute != null && !toExecute.contains(id)) || (toIgnore != null && toIgnore.contains(id)) || Boolean.TRUE.equals(rule.getIgnored());
+            if (skip)
+                skipped = LevelFailures.set(skipped, rule.getOrdinal());
+            else
+                active.add(rule);
+        }
+        _rules = active.toArray(new ExecutableRule[0]);
+        _skippedRules = skipped;
+
+        // dependencies on rules that are not part of the plan (skipped rules, rules from other levels) are already resolved when the level is entered
+        Map<Integer, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < _rules.length; i++)
+            if (_rules[i].getOrdinal() >= 0)
+                indexes.put(_rules[i].getOrdinal(), i);
+        _numDependencies = new int[_rules.length];
+        List<List<Integer>> dependents = new ArrayList<>(_rules.length);
+        for (int i = 0; i < _rules.length; i++)
+            dependents.add(new ArrayList<>());
+        for (int i = 0; i < _rules.length; i++) {
+            long[] mask = _rules[i].getDependencyMask();
+            if (mask == null)
+                continue;
+            for (int word = 0; word < mask.length; word++) {
+                long bits = mask[word];
+                while (bits != 0) {
+                    Integer index = indexes.get((word << 6) + Long.numberOfTrailingZeros(bits));
+                    if (index != null) {
+                        _numDependencies[i]++;
+                        dependents.get(index).add(i);
+                    }
+                    bits &= bits - 1;
+                }
+            }
+        }
+        _dependents = new int[_rules.length][];
+        for (int i = 0; i < _rules.length; i++)
+            _dependents[i] = dependents.get(i).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public ExecutableRule[] getRules() {
+        return _rules;
+    }
+
+    public long[] getSkippedRules() {
+        return _skippedRules;
+    }
+
+    /**
+     * Returns, for each rule of the plan, the number of rules of the plan it depends on (the returned array must not be modified).
+     * @return number of dependencies of each rule
+     */
+    public int[] getNumDependencies() {
+        return _numDependencies;
+    }
+
+    /**
+     * Returns the indexes of the rules of the plan that depend on the rule at the provided index.
+     * @param index rule index in the plan
+     * @return indexes of the dependent rules, maybe empty but never null
+     */
+    public int[] getDependents(int index) {
+        return _dependents[index];
+    }
+}
@@ -5,7 +5,13 @@ package com.imsweb.validation.internal;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
+import com.imsweb.validation.RuleFailureListener;
 import com.imsweb.validation.ValidatingContext;
 import com.imsweb.validation.ValidationException;
 import com.imsweb.validation.entities.RuleFailure;
@@ -31,6 +37,16 @@ public class IterativeProcessor implements Processor {
      */
     private final Processor _processor;
 
+    /**
+     * Pool used to process the children in parallel, null if they are processed sequentially
+     */
+    private volatile ForkJoinPool _pool;
+
+    /**
+     * Minimum number of children for the collection to be processed in parallel
+     */
+    private volatile int _parallelismThreshold;
+
     /**
      * Constructor
      * <p/>
@@ -49,18 +65,82 @@ public class IterativeProcessor implements Processor {
     }
 
     @Override
-    public Collection<RuleFailure> process(Validatable validatable, ValidatingContext procCtx) throws ValidationException {
-        Collection<RuleFailure> results = new ArrayList<>();
-
+    public void process(Validatable validatable, ValidatingContext procCtx, LevelFailures parentFailures, RuleFailureListener listener) throws ValidationException {
+        List<Validatable> children;
         try {
-            // it is important to pass a new version of the failedRuleIds and failedConditionsIds!
-            for (Validatable childValidatable : validatable.followCollection(_collectionName))
-                results.addAll(_processor.process(childValidatable, procCtx));
+            children = validatable.followCollection(_collectionName);
         }
         catch (IllegalAccessException e) {
             throw new ValidationException(e);
         }
 
-        return results;
+        // the children are independent from each other (every child gets its own failures, built on top of the parent ones), so they can be processed in parallel;
+        // that's not the case if the context overrides the failures checks since those rely on the failures maps of the context
+        ForkJoinPool pool = _pool;
+        if (pool != null && children.size() >= _parallelismThreshold && procCtx.isFailuresTrackedWithBits()) {
+            List<ChildTask> tasks = new ArrayList<>(children.size());
+            for (Validatable childValidatable : children)
+                tasks.add(new ChildTask(childValidatable, procCtx, parentFailures));
+            try {
+                if (ForkJoinTask.getPool() == pool)
+                    ForkJoinTask.invokeAll(tasks);
+                else
+                    pool.invoke(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            invokeAll(tasks);
+                        }
+                    });
+            }
+            catch (RuntimeException e) {
+                for (Throwable cause = e; cause != null; cause = cause.getCause())
+                    if (cause instanceof ValidationException ve)
+                        throw ve;
+                throw e;
+            }
+            // the results are pushed in the order of the children (and from the calling thread), like when they are processed sequentially
+            for (ChildTask task : tasks)
+                for (RuleFailure failure : task.getRawResult())
+                    listener.ruleFailed(failure);
+        }
+        else
+            for (Validatable childValidatable : children)
+                _processor.process(childValidatable, procCtx, parentFailures, listener);
+    }
+
+    /**
+     * Sets the pool used to process the children of this processor in parallel.
+     * @param pool pool to use, null to process the children sequentially
+     * @param threshold minimum number of children for the collection to be processed in parallel
+     */
+    public void setParallelTraversal(ForkJoinPool pool, int threshold) {
+        _pool = pool;
+        _parallelismThreshold = threshold;
+    }
+
+    /**
+     * Processes a single child in the pool.
+     */
+    private final class ChildTask extends RecursiveTask<Collection<RuleFailure>> {
+
+        private final transient Validatable _child;
+        private final transient ValidatingContext _context;
+        private final transient LevelFailures _parentFailures;
+
+        private ChildTask(Validatable child, ValidatingContext context, LevelFailures parentFailures) {
+            _child = child;
+            _context = context;
+            _parentFailures = parentFailures;
+        }
+
+        @Override
+        protected Collection<RuleFailure> compute() {
+            try {
+                return _processor.process(_child, _context, _parentFailures);
+            }
+            catch (ValidationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
     }
 }
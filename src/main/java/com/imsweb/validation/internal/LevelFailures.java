@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the rules and conditions that failed (or were ignored) for a given level of a validatable (for example "lines.line[0]").
+ * <br/><br/>
+ * The failures are stored as bits (see {@link OrdinalRegistry}); the bits are cumulative, meaning they include the failures of all the parent levels. That way
+ * checking the dependencies or the conditions of a rule is a single mask test, regardless of the depth of the level.
+ * <br/><br/>
+ * The failed IDs (as strings) are only computed if they are requested (see {@link com.imsweb.validation.ValidatingContext#getFailedRuleIds()}).
+ */
+public final class LevelFailures {
+
+    private static final long[] _EMPTY = new long[0];
+
+    // the validatable path of this level
+    private final String _path;
+
+    // failed rules, for this level and its parents
+    private long[] _failedRules;
+
+    // failed conditions, for this level and its parents
+    private long[] _failedConditions;
+
+    // rules executed on this level (null if this level didn't execute any rule)
+    private List<ExecutableRule> _rules;
+
+    // conditions executed on this level (null if this level didn't execute any condition)
+    private List<ExecutableCondition> _conditions;
+
+    // IDs of the failed rules that don't have an ordinal (forced rules)
+    private Set<String> _failedRulesWithoutOrdinal;
+
+    /**
+     * Constructor.
+     * @param path validatable path of this level
+     * @param parent failures of the parent level, null for the root level
+     */
+    public LevelFailures(String path, LevelFailures parent) {
+        _path = path;
+        _failedRules = parent == null || parent._failedRules.length == 0 ? _EMPTY : parent._failedRules.clone();
+        _failedConditions = parent == null || parent._failedConditions.length == 0 ? _EMPTY : parent._failedConditions.clone();
+    }
+
+    public String getPath() {
+        return _path;
+    }
+
+    /**
+     * Registers the rules executed on this level (their failures will be reported under this level's path).
+     * @param rules rules
+     */
+    public void trackRules(List<ExecutableRule> rules) {
+        _rules = rules;
+    }
+
+    /**
+     * Registers the conditions executed on this level (their failures will be reported under this level's path).
+     * @param conditions conditions
+     */
+    public void trackConditions(List<ExecutableCondition> conditions) {
+        _conditions = conditions;
+    }
+
+    public void reportRuleFailure(ExecutableRule rule) {
+        if (rule.getOrdinal() >= 0)
+            _failedRules = set(_failedRules, rule.getOrdinal());
+        else {
+            if (_failedRulesWithoutOrdinal == null)
+                _failedRulesWithoutOrdinal = new HashSet<>();
+            _failedRulesWithoutOrdinal.add(rule.getId());
+        }
+    }
+
+    /**
+     * Reports all the rules of the provided mask as failed.
+     * @param rulesMask rules mask
+     */
+    public void reportRuleFailures(long[] rulesMask) {
+        if (rulesMask.length == 0)
+            return;
+        if (_failedRules.length < rulesMask.length) {
+            long[] newBits = new long[rulesMask.length];
+            System.arraycopy(_failedRules, 0, newBits, 0, _failedRules.length);
+            _failedRules = newBits;
+        }
+        for (int i = 0; i < rulesMask.length; i++)
+            _failedRules[i] |= rulesMask[i];
+    }
+
+    public void reportConditionFailure(ExecutableCondition condition) {
+        _failedConditions = set(_failedConditions, condition.getOrdinal());
+    }
+
+    /**
+     * Returns true if at least one of the rules in the mask failed on this level or one of its parents.
+     * @param dependencyMask rules mask, can be null
+     * @return true if at least one of the rules failed
+     */
+    public boolean atLeastOneDependencyFailed(long[] dependencyMask) {
+        return dependencyMask != null && intersects(_failedRules, dependencyMask);
+    }
+
+    /**
+     * Returns true if the conditions in the provided mask failed on this level or one of its parents.
+     * @param conditionMask conditions mask, can be null
+     * @param useAnd if true, a single failed condition makes the result fail; otherwise all the conditions must have failed
+     * @return true if the conditions failed
+     */
+    public boolean conditionsFailed(long[] conditionMask, boolean useAnd) {
+        if (conditionMask == null)
+            return false;
+        return useAnd ? intersects(_failedConditions, conditionMask) : containsAll(_failedConditions, conditionMask);
+    }
+
+    /**
+     * Adds the failed IDs of this level to the provided maps.
+     * @param failedRuleIds failed rule IDs, keyed by path
+     * @param failedConditionIds failed condition IDs, keyed by path
+     */
+    public void populateFailedIds(Map<String, Set<String>> failedRuleIds, Map<String, Set<String>> failedConditionIds) {
+        if (_conditions != null) {
+            Set<String> ids = new HashSet<>();
+            for (ExecutableCondition condition : _conditions)
+                if (isSet(_failedConditions, condition.getOrdinal()))
+                    ids.add(condition.getId());
+            failedConditionIds.put(_path, ids);
+        }
+        if (_rules != null) {
+            Set<String> ids = new HashSet<>();
+            for (ExecutableRule rule : _rules)
+                if (rule.getOrdinal() >= 0 && isSet(_failedRules, rule.getOrdinal()))
+                    ids.add(rule.getId());
+            if (_failedRulesWithoutOrdinal != null)
+                ids.addAll(_failedRulesWithoutOrdinal);
+            failedRuleIds.put(_path, ids);
+        }
+    }
+
+    /**
+     * Sets the provided bit, growing the array if needed.
+     * @param bits bits
+     * @param ordinal bit to set
+     * @return the bits (might be a new array)
+     */
+    public static long[] set(long[] bits, int ordinal) {
+        int word = ordinal >>> 6;
+        if (word >= bits.length) {
+            long[] newBits = new long[Math.max(word + 1, bits.length * 2)];
+            System.arraycopy(bits, 0, newBits, 0, bits.length);
+            bits = newBits;
+        }
+        bits[word] |= 1L << ordinal;
+        return bits;
+    }
+
+    /**
+     * Returns true if the provided bit is set.
+     * @param bits bits
+     * @param ordinal bit to check
+     * @return true if the bit is set
+     */
+    public static boolean isSet(long[] bits, int ordinal) {
+        int word = ordinal >>> 6;
+        return ordinal >= 0 && word < bits.length && (bits[word] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Returns true if at least one bit of the mask is set.
+     * @param bits bits
+     * @param mask mask
+     * @return true if at least one bit of the mask is set
+     */
+    public static boolean intersects(long[] bits, long[] mask) {
+        int length = Math.min(bits.length, mask.length);
+        for (int i = 0; i < length; i++)
+            if ((bits[i] & mask[i]) != 0)
+                return true;
+        return false;
+    }
+
+    /**
+     * Returns true if all the bits of the mask are set.
+     * @param bits bits
+     * @param mask mask
+     * @return true if all the bits of the mask are set
+     */
+    public static boolean containsAll(long[] bits, long[] mask) {
+        for (int i = 0; i < mask.length; i++) {
+            long word = i < bits.length ? bits[i] : 0L;
+            if ((word & mask[i]) != mask[i])
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns dense ordinals (0, 1, 2, etc...) to rule or condition IDs; those ordinals are used as bit positions when tracking the failures during a validation.
+ * <br/><br/>
+ * An ID always gets the same ordinal for the lifetime of the registry, even if the corresponding rule/condition is removed from the engine and added back later;
+ * that means there can be holes in the ordinals, but also that an ordinal can be assigned to an ID before the corresponding entity is registered (for example
+ * a rule referencing a condition that is added later).
+ */
+public class OrdinalRegistry {
+
+    // the ordinals, keyed by ID
+    private final Map<String, Integer> _ordinals = new HashMap<>();
+
+    /**
+     * Returns the ordinal for the provided ID, assigning a new one if the ID has never been seen.
+     * @param id ID, cannot be null
+     * @return corresponding ordinal
+     */
+    public synchronized int getOrdinal(String id) {
+        return _ordinals.computeIfAbsent(id, k -> _ordinals.size());
+    }
+
+    /**
+     * Returns a bit mask corresponding to the provided IDs, null if there are no IDs.
+     * @param ids IDs, can be null
+     * @return corresponding bit mask, maybe null
+     */
+    public long[] getMask(Collection<String> ids) {
+        if (ids == null || ids.isEmpty())
+            return null;
+
+        long[] mask = new long[0];
+        for (String id : ids)
+            mask = LevelFailures.set(mask, getOrdinal(id));
+
+        return mask;
+    }
+
+    /**
+     * Clears all the assigned ordinals.
+     */
+    public synchronized void clear() {
+        _ordinals.clear();
+    }
+}
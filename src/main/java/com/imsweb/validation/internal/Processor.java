@@ -3,8 +3,11 @@
  */
 package com.imsweb.validation.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
+import com.imsweb.validation.RuleFailureListener;
 import com.imsweb.validation.ValidatingContext;
 import com.imsweb.validation.ValidationException;
 import com.imsweb.validation.entities.RuleFailure;
@@ -29,5 +32,32 @@ public interface Processor {
      * @return a collection of <code>RuleFailure</code>, maybe empty but never null
      * @throws ValidationException
      */
-    Collection<RuleFailure> process(Validatable validatable, ValidatingContext procCtx) throws ValidationException;
+    default Collection<RuleFailure> process(Validatable validatable, ValidatingContext procCtx) throws ValidationException {
+        return process(validatable, procCtx, null);
+    }
+
+    /**
+     * Calculates the edits on the passed validatable object, taking into account the failures of the parent level.
+     * @param validatable the <code>Validatable</code> to process
+     * @param procCtx a processing context
+     * @param parentFailures the failures of the parent level, null for a root level
+     * @return a collection of <code>RuleFailure</code>, maybe empty but never null
+     * @throws ValidationException
+     */
+    default Collection<RuleFailure> process(Validatable validatable, ValidatingContext procCtx, LevelFailures parentFailures) throws ValidationException {
+        List<RuleFailure> results = new ArrayList<>();
+        process(validatable, procCtx, parentFailures, results::add);
+        return results;
+    }
+
+    /**
+     * Calculates the edits on the passed validatable object, taking into account the failures of the parent level; the failures are pushed to the listener
+     * as they are produced.
+     * @param validatable the <code>Validatable</code> to process
+     * @param procCtx a processing context
+     * @param parentFailures the failures of the parent level, null for a root level
+     * @param listener the listener receiving the failures
+     * @throws ValidationException
+     */
+    void process(Validatable validatable, ValidatingContext procCtx, LevelFailures parentFailures, RuleFailureListener listener) throws ValidationException;
 }
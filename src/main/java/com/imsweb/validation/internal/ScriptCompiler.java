@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.codehaus.groovy.tools.GroovyClass;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.Script;
+
+/**
+ * Compiles the Groovy expressions (edits and conditions) of a single validator.
+ * <br/><br/>
+ * All the scripts of a validator are defined in the same class loader, using a compiler configuration shared by the whole framework; this avoids creating a
+ * new <code>GroovyShell</code> (and its class loader and caches) for every expression. The engine closes the compiler when the validator is removed, which
+ * releases the Groovy caches of its classes so they can be garbage collected once the edits are not referenced anymore.
+ */
+public class ScriptCompiler {
+
+    // the configuration shared by all the compilers (it should not be modified)
+    private static final CompilerConfiguration _CONFIGURATION = createConfiguration();
+
+    // same code base as the one used by GroovyShell
+    private static final String _CODE_BASE = "/groovy/shell";
+
+    // the class loader defining the scripts of the validator
+    private final ScriptClassLoader _loader;
+
+    // optional persistent cache of the compiled scripts
+    private final CompiledScriptCache _cache;
+
+    // used to generate unique script names within the loader
+    private final AtomicInteger _counter;
+
+    /**
+     * Constructor.
+     * @param cache persistent cache of the compiled scripts (can be null)
+     */
+    public ScriptCompiler(CompiledScriptCache cache) {
+        _loader = new ScriptClassLoader();
+        _cache = cache;
+        _counter = new AtomicInteger();
+    }
+
+    /**
+     * Returns the compiler configuration used for all the Groovy expressions; the returned object should not be modified.
+     * @return compiler configuration
+     */
+    public static CompilerConfiguration getConfiguration() {
+        return _CONFIGURATION;
+    }
+
+    private static CompilerConfiguration createConfiguration() {
+        CompilerConfiguration configuration = new CompilerConfiguration();
+        configuration.setRecompileGroovySource(false);
+        Map<String, Boolean> optimizations = configuration.getOptimizationOptions();
+        optimizations.put(CompilerConfiguration.INVOKEDYNAMIC, Boolean.TRUE);
+        optimizations.put("int", Boolean.TRUE);
+        optimizations.put(CompilerConfiguration.GROOVYDOC, Boolean.FALSE);
+        optimizations.put(CompilerConfiguration.RUNTIME_GROOVYDOC, Boolean.FALSE);
+        return configuration;
+    }
+
+    /**
+     * Compile the provided expression into a Groovy script.
+     * @param expression expression to compile
+     * @return Groovy Script
+     * @throws CompilationFailedException if anything goes wrong
+     */
+    public Script compile(String expression) throws CompilationFailedException {
+        if (expression == null || expression.trim().isEmpty())
+            expression = "return true";
+
+        if (_cache != null)
+            return _cache.compile(expression, _loader);
+
+        Class<?> scriptClass = _loader.parseClass(new GroovyCodeSource(expression, "Script" + _counter.incrementAndGet() + ".groovy", _CODE_BASE), false);
+        return InvokerHelper.createScript(scriptClass, new Binding());
+    }
+
+    /**
+     * Compiles the provided source into a class defined in the class loader of this compiler.
+     * @param className name of the class declared in the source
+     * @param source Groovy source
+     * @param configuration compiler configuration to use
+     * @return the compiled class
+     * @throws CompilationFailedException if anything goes wrong
+     */
+    public Class<?> compileClass(String className, String source, CompilerConfiguration configuration) throws CompilationFailedException {
+        if (_cache != null)
+            return _cache.compileClass(className, source, configuration, _loader);
+
+        return _loader.defineClasses(className, generateBytecode(className, source, configuration, _loader));
+    }
+
+    /**
+     * Compiles the provided source into bytecode, without defining any class.
+     * @param className name of the main class declared in the source
+     * @param source Groovy source
+     * @param configuration compiler configuration to use
+     * @param loader class loader used to resolve the classes referenced by the source
+     * @return the bytecode of all the generated classes (closures included), keyed by class name
+     * @throws CompilationFailedException if anything goes wrong
+     */
+    static Map<String, byte[]> generateBytecode(String className, String source, CompilerConfiguration configuration, ScriptClassLoader loader) throws CompilationFailedException {
+        CompilationUnit unit = new CompilationUnit(configuration, null, loader);
+        unit.addSource(className + ".groovy", source);
+        unit.compile(Phases.CLASS_GENERATION);
+        Map<String, byte[]> classes = new HashMap<>();
+        for (GroovyClass cls : unit.getClasses())
+            classes.put(cls.getName(), cls.getBytes());
+        return classes;
+    }
+
+    /**
+     * Releases the class loader of this compiler; no expression can be compiled after this call.
+     */
+    public void close() {
+        _loader.clearCache();
+        try {
+            _loader.close();
+        }
+        catch (IOException e) {
+            // nothing to do, the loader doesn't open any resource
+        }
+    }
+
+    /**
+     * Class loader defining all the scripts of a validator; it can also define the pre-compiled bytecode of a script (see {@link CompiledScriptCache}).
+     */
+    static final class ScriptClassLoader extends GroovyClassLoader {
+
+        private ScriptClassLoader() {
+            super(ScriptCompiler.class.getClassLoader(), _CONFIGURATION);
+        }
+
+        /**
+         * Defines the provided classes (a script or generated class and its closures), unless they are already defined in this loader.
+         * @param mainClassName name of the script or generated class
+         * @param classes bytecode of the classes, keyed by class name
+         * @return the script or generated class
+         */
+        synchronized Class<?> defineClasses(String mainClassName, Map<String, byte[]> classes) {
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                if (findLoadedClass(entry.getKey()) == null) {
+                    byte[] bytes = entry.getValue();
+                    setClassCacheEntry(defineClass(entry.getKey(), bytes, 0, bytes.length));
+                }
+            }
+            return findLoadedClass(mainClassName);
+        }
+    }
+}
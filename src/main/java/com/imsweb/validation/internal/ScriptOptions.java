@@ -0,0 +1,18 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+/**
+ * How the engine creates the Groovy script of an edit or a condition.
+ * @param scriptPoolSize maximum number of Groovy Script instances that can be executed concurrently (ignored for pre-compiled edits)
+ * @param compiler compiler of the validator (can be null in which case the default compilation is used)
+ * @param deferCompilation if true, the script is compiled the first time it is executed (only supported for the edits)
+ */
+public record ScriptOptions(int scriptPoolSize, ScriptCompiler compiler, boolean deferCompilation) {
+
+    /**
+     * The options used when none are provided: a single script instance compiled right away with the default compilation.
+     */
+    public static final ScriptOptions DEFAULT = new ScriptOptions(1, null, false);
+}
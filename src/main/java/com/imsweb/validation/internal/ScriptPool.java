@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import groovy.lang.Binding;
+import groovy.lang.Script;
+
+/**
+ * A bounded pool of Groovy <code>Script</code> instances, all created from the same compiled script class.
+ * <br/><br/>
+ * A Groovy script can only be bound to one <code>Binding</code> at a time, so a single instance can't be executed by several threads concurrently. This pool
+ * hands a different instance to each thread executing the script, up to the maximum size of the pool; once that size is reached, the threads have to wait
+ * for an instance to be returned (and that wait is counted as a contention). A pool of size 1 behaves like a lock around a single script instance.
+ * <br/><br/>
+ * Script instances are created lazily, so a pool that is never used concurrently never holds more than one instance.
+ */
+public class ScriptPool {
+
+    // the script class to instantiate
+    private final Class<? extends Script> _scriptClass;
+
+    // maximum number of instances
+    private final int _maxSize;
+
+    // available instances
+    private final Queue<Script> _available;
+
+    // permits, one per instance that can be in use at any given time
+    private final Semaphore _permits;
+
+    // number of times a thread had to wait for an instance to become available
+    private final LongAdder _contentions;
+
+    /**
+     * Constructor.
+     * @param script initial script instance (it will be the first instance returned by the pool)
+     * @param maxSize maximum number of instances that can be in use at the same time
+     */
+    public ScriptPool(Script script, int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalStateException("Pool size must be at least 1");
+
+        _scriptClass = script.getClass();
+        _maxSize = maxSize;
+        _available = new ConcurrentLinkedQueue<>();
+        _available.add(script);
+        _permits = new Semaphore(maxSize);
+        _contentions = new LongAdder();
+    }
+
+    public int getMaxSize() {
+        return _maxSize;
+    }
+
+    /**
+     * Returns the number of times a thread had to wait for an instance to become available.
+     * @return number of contentions
+     */
+    public long getNumContentions() {
+        return _contentions.sum();
+    }
+
+    /**
+     * Resets the number of contentions.
+     */
+    public void resetNumContentions() {
+        _contentions.reset();
+    }
+
+    /**
+     * Acquires an instance from the pool and binds it to the provided binding; the instance must be released by calling <code>release()</code>.
+     * @param binding binding to use
+     * @return a script instance that can be run by the current thread
+     */
+    public Script acquire(Binding binding) {
+        if (!_permits.tryAcquire()) {
+            _contentions.increment();
+            _permits.acquireUninterruptibly();
+        }
+
+        Script script = _available.poll();
+        if (script == null)
+            script = InvokerHelper.createScript(_scriptClass, binding);
+        else
+            script.setBinding(binding);
+
+        return script;
+    }
+
+    /**
+     * Releases an instance that was acquired from this pool.
+     * @param script instance to release
+     */
+    public void release(Script script) {
+        script.setBinding(null);
+        _available.offer(script);
+        _permits.release();
+    }
+}
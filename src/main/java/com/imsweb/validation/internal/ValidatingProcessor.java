@@ -3,22 +3,29 @@
  */
 package com.imsweb.validation.internal;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.lang3.StringUtils;
 
 import groovy.lang.Binding;
 
 import com.imsweb.validation.ConstructionException;
+import com.imsweb.validation.RuleFailureListener;
 import com.imsweb.validation.ValidatingContext;
 import com.imsweb.validation.ValidationContextFunctions;
 import com.imsweb.validation.ValidationException;
@@ -59,6 +66,15 @@ public class ValidatingProcessor implements Processor {
     // cached base context; depends directly on the rulesets (there is no CopyOnWriteHashMap, boooh)
     private final Map<String, Object> _contexts = new ConcurrentHashMap<>();
 
+    // cached execution plans, keyed by the rules to ignore/execute configuration; cleared every time the rules are changed
+    private final Map<Object, ExecutionPlan> _plans = new ConcurrentHashMap<>();
+
+    // maximum number of cached execution plans
+    private static final int _MAX_CACHED_PLANS = 64;
+
+    // pool used to execute the independent rules of a level in parallel; null if the rules are executed sequentially
+    private volatile ForkJoinPool _editsPool;
+
     // cached compiled forced rules (#294)
     private final ValidationLRUCache<String, ExecutableRule> _cachedForcedRules = new ValidationLRUCache<>(10);
 
@@ -73,9 +89,14 @@ public class ValidatingProcessor implements Processor {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public Collection<RuleFailure> process(Validatable validatable, ValidatingContext vContext) throws ValidationException {
-        Collection<RuleFailure> results = new ArrayList<>();
+    public void process(Validatable validatable, ValidatingContext vContext, LevelFailures parentFailures, RuleFailureListener listener) throws ValidationException {
+
+        // the failures are always tracked with bits; if the context overrides the methods checking the failures, the failed IDs also need to be maintained
+        // on the context as the validation happens (since those methods rely on them)
+        boolean useBits = vContext.isFailuresTrackedWithBits();
+        LevelFailures failures = new LevelFailures(validatable.getCurrentLevel(), parentFailures);
+        if (useBits)
+            vContext.reportLevelFailures(failures);
 
         // a unique rule that needs to be executed (useful for unit tests and editor validation)
         ExecutableRule toForce = null;
@@ -98,11 +119,19 @@ public class ValidatingProcessor implements Processor {
         Binding binding = null;
         if (vContext.getToForce() == null) {
             binding = buildBinding(validatable);
-            Set<String> currentConditionFailures = new HashSet<>();
-            vContext.getFailedConditionIds().put(validatable.getCurrentLevel(), currentConditionFailures);
+            Set<String> currentConditionFailures = null;
+            if (useBits)
+                failures.trackConditions(_conditions);
+            else {
+                currentConditionFailures = new HashSet<>();
+                vContext.getFailedConditionIds().put(validatable.getCurrentLevel(), currentConditionFailures);
+            }
             for (ExecutableCondition condition : _conditions) {
-                if (!condition.check(validatable, binding))
-                    currentConditionFailures.add(condition.getId());
+                if (!condition.check(validatable, binding)) {
+                    failures.reportConditionFailure(condition);
+                    if (currentConditionFailures != null)
+                        currentConditionFailures.add(condition.getId());
+                }
             }
         }
 
@@ -113,44 +142,67 @@ public class ValidatingProcessor implements Processor {
             if (binding == null)
                 binding = buildBinding(validatable);
 
-            // pre-split the java-path since the split results is going to be used a lot
-            List<String> validatablePaths = new ArrayList<>();
-            StringBuilder buf = new StringBuilder();
-            for (String validatablePath : StringUtils.split(validatable.getCurrentLevel(), '.')) {
-                if (buf.length() > 0)
-                    buf.append(".");
-                buf.append(validatablePath);
-                validatablePaths.add(buf.toString());
+            if (toForce != null) {
+                // if the caller forces a rule to run, then it cannot be ignored
+                if (useBits)
+                    failures.trackRules(Collections.singletonList(toForce));
+                Set<String> currentRuleFailures = useBits ? null : createCurrentRuleFailures(validatable, vContext);
+                executeRule(toForce, validatable, binding, vContext, listener, failures, currentRuleFailures);
             }
+            else if (vContext.getToForce() != null) {
+                // a rule is forced, but not for this level, all the rules are ignored
+                if (useBits)
+                    failures.trackRules(Collections.emptyList());
+                else
+                    createCurrentRuleFailures(validatable, vContext);
+            }
+            else if (useBits) {
+                // the plan contains only the rules that need to be evaluated; the other ones are reported as failed right away so their dependencies are not evaluated
+                ExecutionPlan plan = getExecutionPlan(vContext);
+                failures.trackRules(_rules);
+                failures.reportRuleFailures(plan.getSkippedRules());
+                ForkJoinPool pool = _editsPool;
+                if (pool != null && plan.getRules().length > 1)
+                    executePlanInParallel(plan, pool, validatable, vContext, listener, failures);
+                else {
+                    for (ExecutableRule rule : plan.getRules()) {
+
+                        // *** rule could be ignored because of a failing condition, or because one of its parent rule failed (or was ignored)
+                        if (failures.conditionsFailed(rule.getConditionMask(), Boolean.TRUE.equals(rule.getUseAndForConditions())) || failures.atLeastOneDependencyFailed(rule.getDependencyMask())) {
+                            failures.reportRuleFailure(rule); // do not run any rules depending on a rule that was not evaluated
+                            continue;
+                        }
 
-            // we are going to keep track of the failures in this collection (also made available on the execution context)
-            Set<String> currentRuleFailures = new HashSet<>();
-            vContext.getFailedRuleIds().put(validatable.getCurrentLevel(), currentRuleFailures);
-
-            // and finally, go through each rule and execute it if it needs to be executed (ignore all rules if one is forced, but it's not for this level)
-            List<ExecutableRule> toExecute;
-            if (toForce != null)
-                toExecute = Collections.singletonList(toForce);
-            else if (vContext.getToForce() != null)
-                toExecute = Collections.emptyList();
-            else
-                toExecute = _rules;
+                        executeRule(rule, validatable, binding, vContext, listener, failures, null);
+                    }
+                }
+            }
+            else {
+                // the context overrides the failures checks, those need to be called for every rule, and the failures need to be available as the validation goes
+                List<String> validatablePaths = new ArrayList<>();
+                StringBuilder buf = new StringBuilder();
+                for (String validatablePath : StringUtils.split(validatable.getCurrentLevel(), '.')) {
+                    if (buf.length() > 0)
+                        buf.append(".");
+                    buf.append(validatablePath);
+                    validatablePaths.add(buf.toString());
+                }
 
-            for (ExecutableRule rule : toExecute) {
-                String id = rule.getId();
+                // we are going to keep track of the failures in this collection (also made available on the execution context)
+                Set<String> currentRuleFailures = createCurrentRuleFailures(validatable, vContext);
 
-                // if the caller forces a rule to run, then it cannot be ignored
-                if (toForce == null) {
+                for (ExecutableRule rule : _rules) {
+                    String id = rule.getId();
 
                     // *** rule could be ignored because the caller requested to dynamically ignore it
                     if ((vContext.getToExecute() != null && !vContext.getToExecute().contains(id)) || (vContext.getToIgnore() != null && vContext.getToIgnore().contains(id))) {
-                        currentRuleFailures.add(id); // do not run any rules depending on a rule that is being ignored
+                        reportRuleFailure(failures, currentRuleFailures, rule); // do not run any rules depending on a rule that is being ignored
                         continue;
                     }
 
                     // *** rule could be ignored because it has been flagged as being ignored
                     if (rule.getIgnored() != null && rule.getIgnored()) {
-                        currentRuleFailures.add(id); // do not run any rules depending on a rule that is being ignored
+                        reportRuleFailure(failures, currentRuleFailures, rule); // do not run any rules depending on a rule that is being ignored
                         continue;
                     }
 
@@ -173,74 +225,231 @@ public class ValidatingProcessor implements Processor {
                             }
                         }
                         if (conditionFailed) {
-                            currentRuleFailures.add(id); // do not run any rules depending on a rule that failed because of its condition
+                            reportRuleFailure(failures, currentRuleFailures, rule); // do not run any rules depending on a rule that failed because of its condition
                             continue;
                         }
                     }
 
                     // *** rule could be ignored because one of its parent rule failed (or was ignored)
                     if (vContext.atLeastOneDependencyFailed(validatablePaths, rule.getDependencies())) {
-                        currentRuleFailures.add(id); // do not run any rules depending on a rule that failed because of its dependencies
+                        reportRuleFailure(failures, currentRuleFailures, rule); // do not run any rules depending on a rule that failed because of its dependencies
                         continue;
                     }
+
+                    executeRule(rule, validatable, binding, vContext, listener, failures, currentRuleFailures);
                 }
+            }
+        }
 
-                try {
-                    long startTime = System.currentTimeMillis();
-                    boolean success = rule.validate(validatable, binding);
-                    long endTime = System.currentTimeMillis();
-
-                    // keep track of the stats...
-                    if (vContext.computeEditsStats() && id != null && !id.isEmpty())
-                        vContext.reportEditDuration(_currentJavaPath, id, endTime - startTime);
-
-                    if (!success) {
-                        String message = ValidationServices.getInstance().fillInMessage(rule.getMessage(), validatable);
-
-                        // edits returned "passed", but the failing flag was set; we can't use the "default" error message
-                        if (Boolean.TRUE.equals(binding.getVariable(VALIDATOR_ORIGINAL_RESULT))) {
-                            List<String> errorMessages = (List<String>)binding.getVariable(VALIDATOR_EXTRA_ERROR_MESSAGES);
-                            if (errorMessages != null && !errorMessages.isEmpty())
-                                message = ValidationServices.getInstance().fillInMessage(errorMessages.removeFirst(), validatable);
-                            else {
-                                // there should be an "extra" error message, but if there isn't, see if the overridden default error was set and if not, just use the default message
-                                String overriddenError = (String)binding.getVariable(VALIDATOR_ERROR_MESSAGE);
-                                if (overriddenError != null)
-                                    message = ValidationServices.getInstance().fillInMessage(overriddenError, validatable);
-                            }
-                        }
-                        else {
-                            // translated edits can override the default error message
-                            String overriddenError = (String)binding.getVariable(VALIDATOR_ERROR_MESSAGE);
-                            if (overriddenError != null)
-                                message = ValidationServices.getInstance().fillInMessage(overriddenError, validatable);
-                        }
+        // process the children validators
+        for (IterativeProcessor p : _processors)
+            p.process(validatable, vContext, failures, listener);
+    }
+
+    /**
+     * Executes the provided rule and reports its failure if it doesn't pass.
+     */
+    private void executeRule(ExecutableRule rule, Validatable validatable, Binding binding, ValidatingContext vContext, RuleFailureListener listener, LevelFailures failures,
+            Set<String> currentRuleFailures) {
+        long startTime = System.nanoTime();
+        ExecutableRule.Evaluation evaluation = rule.evaluate(validatable, binding);
+        long endTime = System.nanoTime();
+
+        RuleFailure failure = handleEvaluation(rule, evaluation, endTime - startTime, validatable, binding, vContext, failures, currentRuleFailures);
+        if (failure != null)
+            listener.ruleFailed(failure);
+    }
 
-                        RuleFailure failure = new RuleFailure(rule.getRule(), message, validatable);
-                        failure.setExtraErrorMessages(ValidationServices.getInstance().fillInMessages((List<String>)binding.getVariable(VALIDATOR_EXTRA_ERROR_MESSAGES), validatable));
-                        failure.setInformationMessages(ValidationServices.getInstance().fillInMessages((List<String>)binding.getVariable(VALIDATOR_INFORMATION_MESSAGES), validatable));
-                        failure.setOriginalResult((Boolean)binding.getVariable(VALIDATOR_ORIGINAL_RESULT));
-                        results.add(failure);
-                        currentRuleFailures.add(id);
+    /**
+     * Executes the rules of the provided plan in parallel, a rule being executed only once all the rules it depends on (on this level) have been executed.
+     * <br/><br/>
+     * Only the evaluation of the expressions happens in the pool (each one with its own binding); the conditions and dependencies checks, the reporting of the
+     * failing properties and the creation of the failures are all done by the calling thread, and the failures are returned in the order of the plan, so the
+     * results are the same as when the rules are executed sequentially.
+     * <br/><br/>
+     * The calling thread might itself be a worker of a pool (when the collections are validated in parallel), so it waits for the evaluations through
+     * ForkJoinPool.managedBlock() to let that pool compensate. If the validation fails, the evaluations that didn't start yet are cancelled and the running ones
+     * are waited for, so nothing is left running once this method returns.
+     */
+    private void executePlanInParallel(ExecutionPlan plan, ForkJoinPool pool, Validatable validatable, ValidatingContext vContext, RuleFailureListener listener,
+            LevelFailures failures) throws ValidationException {
+        ExecutableRule[] rules = plan.getRules();
+        RuleFailure[] ruleFailures = new RuleFailure[rules.length];
+        int[] numDependencies = plan.getNumDependencies().clone();
+        BlockingQueue<EvaluationTask> completed = new LinkedBlockingQueue<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < rules.length; i++)
+            if (numDependencies[i] == 0)
+                ready.add(i);
+
+        int numRunning = 0;
+        int numDone = 0;
+        try {
+            while (numDone < rules.length) {
+
+                // submit the rules that are ready (or skip them if one of their conditions or dependencies failed)
+                while (!ready.isEmpty()) {
+                    int index = ready.poll();
+                    ExecutableRule rule = rules[index];
+                    if (failures.conditionsFailed(rule.getConditionMask(), Boolean.TRUE.equals(rule.getUseAndForConditions())) || failures.atLeastOneDependencyFailed(rule.getDependencyMask())) {
+                        failures.reportRuleFailure(rule);
+                        numDone++;
+                        releaseDependents(plan, index, numDependencies, ready);
+                    }
+                    else {
+                        pool.execute(new EvaluationTask(index, rule, validatable, buildBinding(validatable), completed, cancelled));
+                        numRunning++;
                     }
                 }
-                catch (ValidationException e) {
-                    results.add(new RuleFailure(rule.getRule(), EXCEPTION_MSG, validatable, e.getCause()));
+
+                if (numRunning == 0)
+                    break;
+
+                // wait for the next rule to complete
+                EvaluationTask task;
+                try {
+                    task = takeCompleted(completed);
                 }
-                catch (RuntimeException e) {
-                    results.add(new RuleFailure(rule.getRule(), EXCEPTION_MSG, validatable, e));
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ValidationException("Validation was interrupted while executing edits on " + validatable.getCurrentLevel());
                 }
-                finally {
-                    validatable.clearPropertiesWithError();
+                numRunning--;
+                numDone++;
+                if (task._error != null)
+                    throw task._error;
+                ruleFailures[task._index] = handleEvaluation(task._rule, task._evaluation, task._duration, validatable, task._binding, vContext, failures, null);
+                releaseDependents(plan, task._index, numDependencies, ready);
+            }
+        }
+        finally {
+            if (numRunning > 0)
+                cancelTasks(cancelled, completed, numRunning);
+        }
+
+        for (RuleFailure failure : ruleFailures)
+            if (failure != null)
+                listener.ruleFailed(failure);
+    }
+
+    // waits for the next evaluation to complete, letting the pool of the calling thread (if any) compensate for the blocked worker
+    private static EvaluationTask takeCompleted(BlockingQueue<EvaluationTask> completed) throws InterruptedException {
+        CompletionBlocker blocker = new CompletionBlocker(completed);
+        ForkJoinPool.managedBlock(blocker);
+        return blocker._task;
+    }
+
+    // cancels the evaluations that didn't start yet and waits for the running ones
+    private static void cancelTasks(AtomicBoolean cancelled, BlockingQueue<EvaluationTask> completed, int numRunning) {
+        cancelled.set(true);
+        boolean interrupted = false;
+        while (numRunning > 0) {
+            try {
+                takeCompleted(completed);
+                numRunning--;
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private static void releaseDependents(ExecutionPlan plan, int index, int[] numDependencies, Deque<Integer> ready) {
+        for (int dependent : plan.getDependents(index))
+            if (--numDependencies[dependent] == 0)
+                ready.add(dependent);
+    }
+
+    /**
+     * Reports the properties and the failure (if any) of an evaluated rule; returns the corresponding rule failure, null if the rule passed.
+     */
+    @SuppressWarnings("unchecked")
+    private RuleFailure handleEvaluation(ExecutableRule rule, ExecutableRule.Evaluation evaluation, long duration, Validatable validatable, Binding binding, ValidatingContext vContext,
+            LevelFailures failures, Set<String> currentRuleFailures) {
+        String id = rule.getId();
+
+        try {
+            boolean success = rule.complete(validatable, evaluation);
+
+            // keep track of the stats...
+            if (vContext.computeEditsStats() && id != null && !id.isEmpty())
+                vContext.reportEditDuration(_currentJavaPath, id, duration);
+
+            if (!success) {
+                String message = ValidationServices.getInstance().fillInMessage(rule.getMessage(), validatable);
+
+                // edits returned "passed", but the failing flag was set; we can't use the "default" error message
+                if (Boolean.TRUE.equals(binding.getVariable(VALIDATOR_ORIGINAL_RESULT))) {
+                    List<String> errorMessages = (List<String>)binding.getVariable(VALIDATOR_EXTRA_ERROR_MESSAGES);
+                    if (errorMessages != null && !errorMessages.isEmpty())
+                        message = ValidationServices.getInstance().fillInMessage(errorMessages.removeFirst(), validatable);
+                    else {
+                        // there should be an "extra" error message, but if there isn't, see if the overridden default error was set and if not, just use the default message
+                        String overriddenError = (String)binding.getVariable(VALIDATOR_ERROR_MESSAGE);
+                        if (overriddenError != null)
+                            message = ValidationServices.getInstance().fillInMessage(overriddenError, validatable);
+                    }
+                }
+                else {
+                    // translated edits can override the default error message
+                    String overriddenError = (String)binding.getVariable(VALIDATOR_ERROR_MESSAGE);
+                    if (overriddenError != null)
+                        message = ValidationServices.getInstance().fillInMessage(overriddenError, validatable);
                 }
+
+                RuleFailure failure = new RuleFailure(rule.getRule(), message, validatable);
+                failure.setExtraErrorMessages(ValidationServices.getInstance().fillInMessages((List<String>)binding.getVariable(VALIDATOR_EXTRA_ERROR_MESSAGES), validatable));
+                failure.setInformationMessages(ValidationServices.getInstance().fillInMessages((List<String>)binding.getVariable(VALIDATOR_INFORMATION_MESSAGES), validatable));
+                failure.setOriginalResult((Boolean)binding.getVariable(VALIDATOR_ORIGINAL_RESULT));
+                reportRuleFailure(failures, currentRuleFailures, rule);
+                return failure;
             }
         }
+        catch (ValidationException e) {
+            return new RuleFailure(rule.getRule(), EXCEPTION_MSG, validatable, e.getCause());
+        }
+        catch (RuntimeException e) {
+            return new RuleFailure(rule.getRule(), EXCEPTION_MSG, validatable, e);
+        }
+        finally {
+            validatable.clearPropertiesWithError();
+        }
 
-        // process the children validators
-        for (IterativeProcessor p : _processors)
-            results.addAll(p.process(validatable, vContext));
+        return null;
+    }
+
+    private Set<String> createCurrentRuleFailures(Validatable validatable, ValidatingContext vContext) {
+        Set<String> currentRuleFailures = new HashSet<>();
+        vContext.getFailedRuleIds().put(validatable.getCurrentLevel(), currentRuleFailures);
+        return currentRuleFailures;
+    }
+
+    /**
+     * Returns the execution plan to use for the provided context, creating it if it doesn't exist yet.
+     * @param vContext current context
+     * @return the execution plan, never null
+     */
+    private ExecutionPlan getExecutionPlan(ValidatingContext vContext) {
+        Object key = vContext.getExecutionPlanKey();
+        ExecutionPlan plan = _plans.get(key);
+        if (plan == null) {
+            // the number of different configurations is usually very small, but let's make sure the cache doesn't grow indefinitely...
+            if (_plans.size() >= _MAX_CACHED_PLANS)
+                _plans.clear();
+            plan = new ExecutionPlan(_rules, vContext.getToIgnore(), vContext.getToExecute());
+            _plans.put(key, plan);
+        }
+        return plan;
+    }
 
-        return results;
+    private static void reportRuleFailure(LevelFailures failures, Set<String> currentRuleFailures, ExecutableRule rule) {
+        failures.reportRuleFailure(rule);
+        if (currentRuleFailures != null)
+            currentRuleFailures.add(rule.getId());
     }
 
     /**
@@ -289,6 +498,15 @@ public class ValidatingProcessor implements Processor {
     public synchronized void setRules(List<ExecutableRule> rules) {
         _rules.clear();
         _rules.addAll(rules);
+        _plans.clear();
+    }
+
+    /**
+     * Sets the pool used to execute the independent rules of this processor in parallel; null means the rules are executed sequentially.
+     * @param pool pool to use, can be null
+     */
+    public void setEditsPool(ForkJoinPool pool) {
+        _editsPool = pool;
     }
 
     /**
@@ -330,4 +548,74 @@ public class ValidatingProcessor implements Processor {
     public String toString() {
         return _currentJavaPath + " [" + _rules.size() + " rule(s)]";
     }
-}
\ No newline at end of file
+
+    /**
+     * Evaluates a single rule in the edits pool; the result is handed back to the validating thread through the completion queue.
+     */
+    private static final class EvaluationTask implements Runnable {
+
+        private final int _index;
+        private final ExecutableRule _rule;
+        private final Validatable _validatable;
+        private final Binding _binding;
+        private final BlockingQueue<EvaluationTask> _completed;
+        private final AtomicBoolean _cancelled;
+        private ExecutableRule.Evaluation _evaluation;
+        private long _duration;
+        private Error _error;
+
+        private EvaluationTask(int index, ExecutableRule rule, Validatable validatable, Binding binding, BlockingQueue<EvaluationTask> completed,
+                AtomicBoolean cancelled) {
+            _index = index;
+            _rule = rule;
+            _validatable = validatable;
+            _binding = binding;
+            _completed = completed;
+            _cancelled = cancelled;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (_cancelled.get())
+                    return;
+                long startTime = System.nanoTime();
+                _evaluation = _rule.evaluate(_validatable, _binding);
+                _duration = System.nanoTime() - startTime;
+            }
+            catch (Error e) {
+                _error = e;
+            }
+            finally {
+                _completed.add(this);
+            }
+        }
+    }
+
+    /**
+     * Waits for the next completed evaluation; used through ForkJoinPool.managedBlock() so a blocked worker of a pool doesn't starve that pool.
+     */
+    private static final class CompletionBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private final BlockingQueue<EvaluationTask> _completed;
+        private EvaluationTask _task;
+
+        private CompletionBlocker(BlockingQueue<EvaluationTask> completed) {
+            _completed = completed;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (_task == null)
+                _task = _completed.take();
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (_task == null)
+                _task = _completed.poll();
+            return _task != null;
+        }
+    }
+}
@@ -3,9 +3,12 @@
  */
 package com.imsweb.validation.internal.callable;
 
+import com.imsweb.validation.ConstructionException;
 import com.imsweb.validation.InitializationStats;
 import com.imsweb.validation.entities.Rule;
 import com.imsweb.validation.internal.ExecutableRule;
+import com.imsweb.validation.internal.ScriptOptions;
+import com.imsweb.validation.internal.jfr.RuleCompilationEvent;
 import com.imsweb.validation.runtime.CompiledRules;
 
 import java.util.Map;
@@ -36,21 +39,47 @@ public class RuleCompilingCallable implements Callable<Void> {
      */
     private InitializationStats _stats;
 
+    /**
+     * How the Groovy script of the rule is created.
+     */
+    private ScriptOptions _options;
+
     /**
      * Constructor.
      * @param rule rule to compile
      * @param rules collection of compiled rules
+     * @param compiledRules pre-compiled rules (can be null)
+     * @param stats initialization stats
+     * @param options how the Groovy script of the rule is created
      */
-    public RuleCompilingCallable(Rule rule, Map<Long, ExecutableRule> rules, CompiledRules compiledRules, InitializationStats stats) {
+    public RuleCompilingCallable(Rule rule, Map<Long, ExecutableRule> rules, CompiledRules compiledRules, InitializationStats stats, ScriptOptions options) {
         _rule = rule;
         _rules = rules;
         _compiledRules = compiledRules;
         _stats = stats;
+        _options = options;
     }
 
     @Override
     public Void call() throws Exception {
-        _rules.put(_rule.getRuleId(), new ExecutableRule(_rule, _compiledRules, _stats));
+        RuleCompilationEvent event = new RuleCompilationEvent();
+        event.begin();
+        try {
+            ExecutableRule rule = new ExecutableRule(_rule, _compiledRules, _stats, _options);
+            event.preCompiled = rule.isPreCompiled();
+            _rules.put(_rule.getRuleId(), rule);
+        }
+        catch (ConstructionException | RuntimeException e) {
+            event.exception = e.toString();
+            throw e;
+        }
+        finally {
+            if (event.shouldCommit()) {
+                event.editId = _rule.getId();
+                event.javaPath = _rule.getJavaPath();
+                event.commit();
+            }
+        }
         return null;
     }
 }
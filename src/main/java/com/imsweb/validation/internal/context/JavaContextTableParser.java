@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal.context;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.imsweb.validation.ConstructionException;
+import com.imsweb.validation.entities.ContextTable;
+import com.imsweb.validation.internal.context.JavaContextSymbol.JavaContextSymbolType;
+
+/**
+ * Parses a table context (a list of rows of Strings, the first row being the headers) directly into a <code>ContextTable</code>.
+ * <br/><br/>
+ * Unlike the generic parser, the tokens are consumed as the lexer produces them and every cell is added to the columns of the table as soon as it is read,
+ * so the rows are never created as lists; this matters for the large tables. The cells are validated as they are read: only Strings (literals or references
+ * to other context entries evaluating to a String) are supported.
+ */
+public final class JavaContextTableParser {
+
+    private JavaContextTableParser() {
+        // no instances
+    }
+
+    /**
+     * Parses the provided table expression.
+     * @param name table name
+     * @param expression expression to parse
+     * @param currentContext current context, used to resolve the references to other context entries
+     * @return the parsed table
+     * @throws ConstructionException if the expression is not a valid table
+     */
+    public static ContextTable parseTable(String name, String expression, Map<String, Object> currentContext) throws ConstructionException {
+        JavaContextLexer lexer = new JavaContextLexer(new StringReader(expression));
+
+        JavaContextSymbol token = nextToken(lexer);
+        if (token == null || token.getType() != JavaContextSymbolType.LEFT_BRACKET)
+            throw new ConstructionException("Invalid table syntax; a table must be a list of rows");
+
+        // the rows can be enclosed in a list, or simply separated by commas (in which case the first bracket opened the headers row)
+        token = nextToken(lexer);
+        boolean enclosed = token != null && (token.getType() == JavaContextSymbolType.LEFT_BRACKET || token.getType() == JavaContextSymbolType.RIGHT_BRACKET);
+
+        ContextTable.Builder builder = null;
+        if (!enclosed) {
+            List<String> headers = new ArrayList<>();
+            readRow(lexer, token, currentContext, headers::add);
+            builder = new ContextTable.Builder(name, headers);
+            token = nextToken(lexer);
+        }
+
+        // the rows and the commas must alternate (a trailing comma is allowed); the headers of rows not enclosed in a list must be followed by a comma
+        boolean expectRow = enclosed;
+        while (token != null && token.getType() != JavaContextSymbolType.RIGHT_BRACKET) {
+            if (expectRow) {
+                if (token.getType() != JavaContextSymbolType.LEFT_BRACKET)
+                    throw syntaxError(token, "expected a row");
+                if (builder == null) {
+                    List<String> headers = new ArrayList<>();
+                    readRow(lexer, nextToken(lexer), currentContext, headers::add);
+                    builder = new ContextTable.Builder(name, headers);
+                }
+                else {
+                    readRow(lexer, nextToken(lexer), currentContext, builder::addCell);
+                    builder.endRow();
+                }
+                expectRow = false;
+            }
+            else if (token.getType() != JavaContextSymbolType.COMMA)
+                throw syntaxError(token, "expected a comma");
+            else
+                expectRow = true;
+            token = nextToken(lexer);
+        }
+
+        // the rows that are not enclosed in a list are sometimes followed by a closing bracket anyway; that bracket is ignored
+        if (token == null && enclosed)
+            throw new ConstructionException("Invalid table syntax; missing closing bracket");
+        if (token != null)
+            token = nextToken(lexer);
+        if (token != null)
+            throw syntaxError(token, "unexpected content after the table");
+        if (builder == null)
+            throw new ConstructionException("Invalid table syntax; a table requires at least the headers row");
+
+        return builder.build();
+    }
+
+    // reads the cells of a row, starting with the token following the opening bracket of the row, up to (and including) its closing bracket; the cells and
+    // the commas must alternate (a trailing comma is allowed)
+    private static void readRow(JavaContextLexer lexer, JavaContextSymbol firstToken, Map<String, Object> currentContext, Consumer<String> cells) throws ConstructionException {
+        JavaContextSymbol token = firstToken;
+        boolean expectValue = true;
+        while (token != null && token.getType() != JavaContextSymbolType.RIGHT_BRACKET) {
+            if (expectValue) {
+                cells.accept(readValue(token, currentContext));
+                expectValue = false;
+            }
+            else if (token.getType() != JavaContextSymbolType.COMMA)
+                throw syntaxError(token, "expected a comma");
+            else
+                expectValue = true;
+            token = nextToken(lexer);
+        }
+
+        if (token == null)
+            throw new ConstructionException("Invalid table syntax; missing closing bracket");
+    }
+
+    // returns the String value of a cell
+    private static String readValue(JavaContextSymbol token, Map<String, Object> currentContext) throws ConstructionException {
+        if (token.getType() == JavaContextSymbolType.STRING_VAL)
+            return (String)token.getValue();
+        if (token.getType() == JavaContextSymbolType.VARIABLE) {
+            String key = (String)token.getValue();
+            if (currentContext == null || !currentContext.containsKey(key))
+                throw new ConstructionException("Could not find key '" + key + "' in current contexts.");
+            Object value = currentContext.get(key);
+            if (!(value instanceof String))
+                throw new ConstructionException("Tables only support String values; found " + (value == null ? "null" : value.getClass().getSimpleName()));
+            return (String)value;
+        }
+        if (token.getType() == JavaContextSymbolType.NUMBER)
+            throw new ConstructionException("Tables only support String values; found " + token.getValue().getClass().getSimpleName());
+        throw syntaxError(token, "expected a String value");
+    }
+
+    private static JavaContextSymbol nextToken(JavaContextLexer lexer) throws ConstructionException {
+        try {
+            return lexer.next_token();
+        }
+        catch (IOException e) {
+            // should not happen, we are reading from a String
+            throw new ConstructionException("Invalid syntax.", e);
+        }
+    }
+
+    private static ConstructionException syntaxError(JavaContextSymbol token, String message) {
+        return new ConstructionException("Invalid table syntax at line " + (token.getLine() + 1) + ", column " + (token.getColumn() + 1) + "; " + message);
+    }
+}
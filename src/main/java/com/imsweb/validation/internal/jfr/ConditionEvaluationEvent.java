@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted for every evaluation of a condition.
+ */
+@Name("com.imsweb.validation.ConditionEvaluation")
+@Label("Condition Evaluation")
+@Category({"Validation Engine"})
+@Description("Evaluation of a condition on a single level of a validatable")
+public final class ConditionEvaluationEvent extends Event {
+
+    @Label("Condition ID")
+    public String conditionId;
+
+    @Label("Java Path")
+    public String javaPath;
+
+    @Label("Passed")
+    public boolean passed;
+
+    @Label("Exception")
+    public String exception;
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when a context entry of a validator is evaluated (during the initialization of the engine).
+ */
+@Name("com.imsweb.validation.ContextEvaluation")
+@Label("Context Evaluation")
+@Category({"Validation Engine", "Initialization"})
+@Description("Evaluation of a context entry of a validator")
+public final class ContextEvaluationEvent extends Event {
+
+    @Label("Validator ID")
+    public String validatorId;
+
+    @Label("Context Key")
+    public String contextKey;
+
+    @Label("Type")
+    public String type;
+
+    @Label("Exception")
+    public String exception;
+}
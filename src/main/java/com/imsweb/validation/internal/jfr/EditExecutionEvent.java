@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted for every execution of an edit.
+ */
+@Name("com.imsweb.validation.EditExecution")
+@Label("Edit Execution")
+@Category({"Validation Engine"})
+@Description("Execution of an edit on a single level of a validatable")
+public final class EditExecutionEvent extends Event {
+
+    @Label("Edit ID")
+    public String editId;
+
+    @Label("Java Path")
+    public String javaPath;
+
+    @Label("Passed")
+    public boolean passed;
+
+    @Label("Exception")
+    public String exception;
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when an edit is compiled (or bound to its pre-compiled method) during the initialization of the engine.
+ */
+@Name("com.imsweb.validation.RuleCompilation")
+@Label("Edit Compilation")
+@Category({"Validation Engine", "Initialization"})
+@Description("Compilation of an edit")
+public final class RuleCompilationEvent extends Event {
+
+    @Label("Edit ID")
+    public String editId;
+
+    @Label("Java Path")
+    public String javaPath;
+
+    @Label("Pre-compiled")
+    public boolean preCompiled;
+
+    @Label("Exception")
+    public String exception;
+}
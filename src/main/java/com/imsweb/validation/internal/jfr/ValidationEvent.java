@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted for every validation (one validatable object validated by the engine).
+ */
+@Name("com.imsweb.validation.Validation")
+@Label("Validation")
+@Category({"Validation Engine"})
+@Description("Validation of a single record (validatable) by the engine")
+public final class ValidationEvent extends Event {
+
+    @Label("Root Level")
+    public String rootLevel;
+
+    @Label("Validatable ID")
+    public String displayId;
+
+    @Label("Number of Failures")
+    public int numFailures;
+}
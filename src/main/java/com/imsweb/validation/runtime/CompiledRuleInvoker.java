@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+import groovy.lang.Binding;
+
+import com.imsweb.validation.ValidationEngine;
+
+/**
+ * This class is used by the engine to invoke a pre-compiled edit (a method of a <code>CompiledRules</code> class) without using reflection.
+ * <br/><br/>
+ * The pre-compiled methods take the binding, the context, the functions and then one parameter per alias of the edit's java path. Each supported number of aliases
+ * has its own functional interface (see the ArityX interfaces); an implementation of that interface is generated for every pre-compiled method, so invoking
+ * the edit is a simple interface call that doesn't require any argument array.
+ * <br/><br/>
+ * Use {@link RuntimeUtils#findCompiledRuleInvoker(CompiledRules, String, List, List)} to create an invoker.
+ */
+public abstract class CompiledRuleInvoker {
+
+    /**
+     * Maximum number of aliases supported by the fixed-arity interfaces; methods with more aliases use a (slower) spreading method handle.
+     */
+    public static final int MAX_FIXED_ARITY = 5;
+
+    @FunctionalInterface
+    public interface Arity0 {
+
+        boolean invoke(Object binding, Object context, Object functions);
+    }
+
+    @FunctionalInterface
+    public interface Arity1 {
+
+        boolean invoke(Object binding, Object context, Object functions, Object alias1);
+    }
+
+    @FunctionalInterface
+    public interface Arity2 {
+
+        boolean invoke(Object binding, Object context, Object functions, Object alias1, Object alias2);
+    }
+
+    @FunctionalInterface
+    public interface Arity3 {
+
+        boolean invoke(Object binding, Object context, Object functions, Object alias1, Object alias2, Object alias3);
+    }
+
+    @FunctionalInterface
+    public interface Arity4 {
+
+        boolean invoke(Object binding, Object context, Object functions, Object alias1, Object alias2, Object alias3, Object alias4);
+    }
+
+    @FunctionalInterface
+    public interface Arity5 {
+
+        boolean invoke(Object binding, Object context, Object functions, Object alias1, Object alias2, Object alias3, Object alias4, Object alias5);
+    }
+
+    /**
+     * Invokes the pre-compiled edit; the context, functions and alias values are read from the binding.
+     * @param binding binding
+     * @return the result of the edit
+     * @throws Throwable any exception thrown by the edit itself
+     */
+    public abstract boolean invoke(Binding binding) throws Throwable;
+
+    /**
+     * Returns true if the invoker uses a generated fixed-arity implementation, false if it uses the spreading method handle (which requires an argument array
+     * for every invocation).
+     * @return true if the invoker uses a fixed-arity implementation
+     */
+    public boolean isFixedArity() {
+        return true;
+    }
+
+    static Object context(Binding binding) {
+        return binding.getVariable(ValidationEngine.VALIDATOR_CONTEXT_KEY);
+    }
+
+    static Object functions(Binding binding) {
+        return binding.getVariable(ValidationEngine.VALIDATOR_FUNCTIONS_KEY);
+    }
+
+    static CompiledRuleInvoker create(Object target, List<String> aliases) {
+        return switch (aliases.size()) {
+            case 0 -> new Invoker0((Arity0)target);
+            case 1 -> new Invoker1((Arity1)target, aliases);
+            case 2 -> new Invoker2((Arity2)target, aliases);
+            case 3 -> new Invoker3((Arity3)target, aliases);
+            case 4 -> new Invoker4((Arity4)target, aliases);
+            case 5 -> new Invoker5((Arity5)target, aliases);
+            default -> throw new IllegalStateException("Unsupported number of aliases: " + aliases.size());
+        };
+    }
+
+    static Class<?> getArityInterface(int numAliases) {
+        return switch (numAliases) {
+            case 0 -> Arity0.class;
+            case 1 -> Arity1.class;
+            case 2 -> Arity2.class;
+            case 3 -> Arity3.class;
+            case 4 -> Arity4.class;
+            case 5 -> Arity5.class;
+            default -> null;
+        };
+    }
+
+    private static final class Invoker0 extends CompiledRuleInvoker {
+
+        private final Arity0 _target;
+
+        private Invoker0(Arity0 target) {
+            _target = target;
+        }
+
+        @Override
+        public boolean invoke(Binding binding) {
+            return _target.invoke(binding, context(binding), functions(binding));
+        }
+    }
+
+    private static final class Invoker1 extends CompiledRuleInvoker {
+
+        private final Arity1 _target;
+        private final String _alias1;
+
+        private Invoker1(Arity1 target, List<String> aliases) {
+            _target = target;
+            _alias1 = aliases.get(0);
+        }
+
+        @Override
+        public boolean invoke(Binding binding) {
+            return _target.invoke(binding, context(binding), functions(binding), binding.getVariable(_alias1));
+        }
+    }
+
+    private static final class Invoker2 extends CompiledRuleInvoker {
+
+        private final Arity2 _target;
+        private final String _alias1;
+        private final String _alias2;
+
+        private Invoker2(Arity2 target, List<String> aliases) {
+            _target = target;
+            _alias1 = aliases.get(0);
+            _alias2 = aliases.get(1);
+        }
+
+        @Override
+        public boolean invoke(Binding binding) {
+            return _target.invoke(binding, context(binding), functions(binding), binding.getVariable(_alias1), binding.getVariable(_alias2));
+        }
+    }
+
+    private static final class Invoker3 extends CompiledRuleInvoker {
+
+        private final Arity3 _target;
+        private final String _alias1;
+        private final String _alias2;
+        private final String _alias3;
+
+        private Invoker3(Arity3 target, List<String> aliases) {
+            _target = target;
+            _alias1 = aliases.get(0);
+            _alias2 = aliases.get(1);
+            _alias3 = aliases.get(2);
+        }
+
+        @Override
+        public boolean invoke(Binding binding) {
+            return _target.invoke(binding, context(binding), functions(binding), binding.getVariable(_alias1), binding.getVariable(_alias2), binding.getVariable(_alias3));
+        }
+    }
+
+    private static final class Invoker4 extends CompiledRuleInvoker {
+
+        private final Arity4 _target;
+        private final String _alias1;
+        private final String _alias2;
+        private final String _alias3;
+        private final String _alias4;
+
+        private Invoker4(Arity4 target, List<String> aliases) {
+            _target = target;
+            _alias1 = aliases.get(0);
+            _alias2 = aliases.get(1);
+            _alias3 = aliases.get(2);
+            _alias4 = aliases.get(3);
+        }
+
+        @Override
+        public boolean invoke(Binding binding) {
+            return _target.invoke(binding, context(binding), functions(binding), binding.getVariable(_alias1), binding.getVariable(_alias2), binding.getVariable(_alias3),
+                    binding.getVariable(_alias4));
+        }
+    }
+
+    private static final class Invoker5 extends CompiledRuleInvoker {
+
+        private final Arity5 _target;
+        private final String _alias1;
+        private final String _alias2;
+        private final String _alias3;
+        private final String _alias4;
+        private final String _alias5;
+
+        private Invoker5(Arity5 target, List<String> aliases) {
+            _target = target;
+            _alias1 = aliases.get(0);
+            _alias2 = aliases.get(1);
+            _alias3 = aliases.get(2);
+            _alias4 = aliases.get(3);
+            _alias5 = aliases.get(4);
+        }
+
+        @Override
+        public boolean invoke(Binding binding) {
+            return _target.invoke(binding, context(binding), functions(binding), binding.getVariable(_alias1), binding.getVariable(_alias2), binding.getVariable(_alias3),
+                    binding.getVariable(_alias4), binding.getVariable(_alias5));
+        }
+    }
+
+    /**
+     * Fallback invoker used when a fixed-arity implementation can't be generated (too many aliases, or a method that is not accessible to the lambda factory);
+     * the handle takes a single array argument (binding, context, functions, aliases...) and returns a boolean.
+     */
+    static final class SpreadingInvoker extends CompiledRuleInvoker {
+
+        private final MethodHandle _handle;
+        private final String[] _aliases;
+
+        SpreadingInvoker(MethodHandle handle, List<String> aliases) {
+            _handle = handle;
+            _aliases = aliases.toArray(new String[0]);
+        }
+
+        @Override
+        public boolean invoke(Binding binding) throws Throwable {
+            Object[] params = new Object[_aliases.length + 3];
+            params[0] = binding;
+            params[1] = context(binding);
+            params[2] = functions(binding);
+            for (int i = 0; i < _aliases.length; i++)
+                params[i + 3] = binding.getVariable(_aliases[i]);
+            return (boolean)_handle.invokeExact(params);
+        }
+
+        @Override
+        public boolean isFixedArity() {
+            return false;
+        }
+    }
+}
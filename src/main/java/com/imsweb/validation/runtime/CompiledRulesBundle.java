@@ -40,6 +40,11 @@ public class CompiledRulesBundle implements CompiledRules {
         return _splitCompiledRules.get(0).getMethodParameters();
     }
 
+    @Override
+    public boolean containsRuleId(String id) {
+        return getCompiledRulesForRuleId(id) != null;
+    }
+
     /**
      * Returns the split compiled-rules object that can handle the provided rule ID.
      * @param ruleId the requested rule ID
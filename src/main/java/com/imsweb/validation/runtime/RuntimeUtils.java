@@ -3,6 +3,12 @@
  */
 package com.imsweb.validation.runtime;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
@@ -106,6 +112,67 @@ public final class RuntimeUtils {
         }
     }
 
+    /**
+     * Returns an invoker for the pre-compiled method corresponding to the provided rule ID, null if no such method exists.
+     * <br/><br/>
+     * The invoker is backed by a class generated with the lambda meta-factory when possible, so invoking the edit doesn't require reflection nor argument arrays;
+     * if that's not possible, a (slower) spreading method handle is used instead (see {@link CompiledRuleInvoker#isFixedArity()}).
+     * @param compiledRules pre-compiled rules
+     * @param ruleId rule ID
+     * @param parameters the parameter types of the method (for the java path of the rule)
+     * @param aliases the aliases of the java path of the rule, their values will be read from the binding
+     * @return corresponding invoker, maybe null
+     */
+    public static CompiledRuleInvoker findCompiledRuleInvoker(CompiledRules compiledRules, String ruleId, List<Class<?>> parameters, List<String> aliases) {
+        Method method = findCompiledMethod(compiledRules, ruleId, parameters);
+        if (method == null)
+            return null;
+
+        if (aliases == null || method.getParameterCount() != aliases.size() + 3)
+            throw new IllegalStateException("Pre-compiled method for rule ID '" + ruleId + "' doesn't match its aliases");
+
+        MethodType genericType = MethodType.genericMethodType(method.getParameterCount()).changeReturnType(boolean.class);
+
+        // first try to generate a fixed-arity implementation; that requires a full-privilege lookup in the compiled rules class
+        Class<?> arityInterface = CompiledRuleInvoker.getArityInterface(aliases.size());
+        if (arityInterface != null && method.getReturnType() == boolean.class) {
+            CallSite site = null;
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(compiledRules.getClass(), MethodHandles.lookup());
+                MethodHandle handle = lookup.unreflect(method);
+                site = LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(arityInterface, compiledRules.getClass()), genericType, handle,
+                        handle.type().dropParameterTypes(0, 1));
+            }
+            catch (IllegalAccessException | LambdaConversionException e) {
+                // the class doesn't allow a full-privilege lookup (or the method can't be implemented by the interface); we will use a method handle instead
+            }
+            if (site != null)
+                return CompiledRuleInvoker.create(createImplementation(site, compiledRules, ruleId), aliases);
+        }
+
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method).bindTo(compiledRules).asType(genericType);
+            return new CompiledRuleInvoker.SpreadingInvoker(handle.asSpreader(Object[].class, method.getParameterCount()), aliases);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to access pre-compiled method for rule ID '" + ruleId + "'", e);
+        }
+    }
+
+    // the target of the call site is the constructor of the generated class, it doesn't throw any checked exception
+    @SuppressWarnings("java:S1181")
+    private static Object createImplementation(CallSite site, CompiledRules compiledRules, String ruleId) {
+        try {
+            return site.getTarget().invoke(compiledRules);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException("Unable to create invoker for pre-compiled method for rule ID '" + ruleId + "'", e);
+        }
+    }
+
     public static String createParsedPropertiesClassName(String validatorId) {
         StringBuilder result = new StringBuilder();
         for (String s : StringUtils.split(validatorId, "-"))
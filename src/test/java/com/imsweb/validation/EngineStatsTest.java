@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EngineStatsTest {
+
+    @Test
+    public void testReportStat() {
+        EngineStats stats = new EngineStats("ID");
+        Assert.assertEquals(0, stats.getNumRun());
+        Assert.assertEquals(0, stats.getShortestTimeNanos());
+        Assert.assertEquals(0, stats.getP50Nanos());
+
+        stats.reportStatNanos(1_000);
+        stats.reportStatNanos(3_000);
+        stats.reportStat(2);
+        Assert.assertEquals("ID", stats.getId());
+        Assert.assertEquals(3, stats.getNumRun());
+        Assert.assertEquals(2_004_000, stats.getTotalTimeNanos());
+        Assert.assertEquals(2, stats.getTotalTime());
+        Assert.assertEquals(2_000_000, stats.getLongestTimeNanos());
+        Assert.assertEquals(2, stats.getLongestTime());
+        Assert.assertEquals(1_000, stats.getShortestTimeNanos());
+        Assert.assertEquals(0, stats.getShortestTime());
+
+        // copies are independent
+        EngineStats copy = new EngineStats(stats);
+        stats.reportStatNanos(5);
+        Assert.assertEquals(3, copy.getNumRun());
+        Assert.assertEquals(1_000, copy.getShortestTimeNanos());
+        Assert.assertEquals(copy.getP99Nanos(), 2_000_000);
+
+        // extrapolated copies scale the runs, but not the percentiles
+        EngineStats extrapolated = new EngineStats(copy, 10);
+        Assert.assertEquals(30, extrapolated.getNumRun());
+        Assert.assertEquals(20_040_000, extrapolated.getTotalTimeNanos());
+        Assert.assertEquals(2_000_000, extrapolated.getLongestTimeNanos());
+        Assert.assertEquals(copy.getP50Nanos(), extrapolated.getP50Nanos());
+    }
+
+    @Test
+    public void testPercentiles() {
+        EngineStats stats = new EngineStats("ID");
+        for (int i = 1; i <= 1000; i++)
+            stats.reportStatNanos(i * 1_000L);
+
+        // percentiles are accurate within 25%
+        assertWithin(500_000, stats.getP50Nanos());
+        assertWithin(990_000, stats.getP99Nanos());
+        assertWithin(100_000, stats.getPercentileNanos(10));
+        Assert.assertEquals(1_000_000, stats.getPercentileNanos(100));
+        assertWithin(1_000, stats.getPercentileNanos(0));
+
+        // very long durations go in the last bucket, capped by the longest duration
+        stats.reportStatNanos(Long.MAX_VALUE / 2);
+        Assert.assertEquals(Long.MAX_VALUE / 2, stats.getPercentileNanos(100));
+
+        // every bucket's upper bound is mapped to that bucket, and the next value to the next bucket
+        for (int bucket = 0; bucket < 100; bucket++) {
+            long upperBound = EngineStats.getBucketUpperBound(bucket);
+            Assert.assertEquals(bucket, EngineStats.getBucket(upperBound));
+            Assert.assertEquals(bucket + 1, EngineStats.getBucket(upperBound + 1));
+        }
+
+        try {
+            stats.getPercentileNanos(101);
+            Assert.fail("Was expecting an exception");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentReports() throws InterruptedException {
+        EngineStats stats = new EngineStats("ID");
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < 10_000; j++)
+                    stats.reportStatNanos(j);
+            }));
+        for (Thread thread : threads)
+            thread.join();
+        Assert.assertEquals(40_000, stats.getNumRun());
+        Assert.assertEquals(4L * 9_999 * 10_000 / 2, stats.getTotalTimeNanos());
+        Assert.assertEquals(9_999, stats.getLongestTimeNanos());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        Assert.assertTrue("Expected about " + expected + " but got " + actual, actual >= expected * 0.75 && actual <= expected * 1.25);
+    }
+}
@@ -3,13 +3,22 @@
  */
 package com.imsweb.validation;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.imsweb.validation.entities.RuleFailure;
+import com.imsweb.validation.entities.SimpleMapValidatable;
+import com.imsweb.validation.entities.Validatable;
+
 public class ValidatingContextTest {
 
     @Test
@@ -49,4 +58,52 @@ public class ValidatingContextTest {
         Assert.assertFalse(context.atLeastOneDependencyFailed(Arrays.asList("ROOT", "ROOT.COLLECTION[1]"), new HashSet<>(Arrays.asList("RULE3", "RULE4"))));
         Assert.assertFalse(context.atLeastOneDependencyFailed(Arrays.asList("ROOT", "ROOT.COLLECTION[1]"), Collections.emptySet()));
     }
+
+    @Test
+    public void testFailuresTracking() throws Exception {
+        TestingUtils.init();
+        TestingUtils.loadValidator("fake-validator");
+
+        // first level2 fails the condition (so rule2 and rule3 are skipped), second one runs all the rules (rule3 fails)
+        Map<String, Object> entity = new HashMap<>();
+        List<Map<String, Object>> level2List = new ArrayList<>();
+        Map<String, Object> level2 = new HashMap<>();
+        level2.put("prop2", "IGNORED");
+        level2.put("level3", Collections.singletonList(new HashMap<>(Collections.singletonMap("prop", "1"))));
+        level2List.add(level2);
+        level2 = new HashMap<>();
+        level2.put("level3", Collections.singletonList(new HashMap<>(Collections.singletonMap("prop", "1"))));
+        level2List.add(level2);
+        entity.put("level2", level2List);
+        Validatable validatable = new SimpleMapValidatable("ID", "level1", entity);
+
+        // default context uses bits and computes the failed IDs only when requested
+        ValidatingContext context = new ValidatingContext();
+        Assert.assertTrue(context.isFailuresTrackedWithBits());
+        Collection<RuleFailure> failures = ValidationEngine.getInstance().validate(validatable, context);
+        Assert.assertEquals(1, failures.size());
+        Assert.assertEquals("fv-rule3", failures.iterator().next().getRule().getId());
+
+        // a context overriding the checks maintains the failed IDs during the validation; both must end up with the same failures
+        ValidatingContext customContext = new ValidatingContext() {
+            @Override
+            public boolean conditionFailed(List<String> validatablePaths, String conditionId) {
+                return super.conditionFailed(validatablePaths, conditionId);
+            }
+        };
+        Assert.assertFalse(customContext.isFailuresTrackedWithBits());
+        Collection<RuleFailure> customFailures = ValidationEngine.getInstance().validate(validatable, customContext);
+        Assert.assertEquals(1, customFailures.size());
+        Assert.assertEquals(customContext.getFailedRuleIds(), context.getFailedRuleIds());
+        Assert.assertEquals(customContext.getFailedConditionIds(), context.getFailedConditionIds());
+        Assert.assertTrue(context.getFailedConditionIds().values().stream().anyMatch(s -> s.contains("fv-condition")));
+        Assert.assertTrue(context.getFailedRuleIds().values().stream().anyMatch(s -> s.contains("fv-rule2")));
+        Assert.assertTrue(context.getFailedRuleIds().values().stream().anyMatch(s -> s.contains("fv-rule3")));
+
+        // the default checks must work on the lazily computed failures
+        Assert.assertTrue(context.conditionFailed(Arrays.asList("level1", "level1.level2[0]"), "fv-condition"));
+        Assert.assertFalse(context.conditionFailed(Arrays.asList("level1", "level1.level2[1]"), "fv-condition"));
+
+        TestingUtils.unloadValidator("fake-validator");
+    }
 }
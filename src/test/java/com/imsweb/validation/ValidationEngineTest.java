@@ -4,6 +4,8 @@
 package com.imsweb.validation;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -11,15 +13,26 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.imsweb.validation.entities.Condition;
+import com.imsweb.validation.entities.ContextEntry;
+import com.imsweb.validation.entities.ContextTableIndex;
 import com.imsweb.validation.entities.EditableCondition;
 import com.imsweb.validation.entities.EditableRule;
 import com.imsweb.validation.entities.EditableValidator;
@@ -29,6 +42,7 @@ import com.imsweb.validation.entities.RuleHistory;
 import com.imsweb.validation.entities.SimpleMapValidatable;
 import com.imsweb.validation.entities.Validatable;
 import com.imsweb.validation.entities.Validator;
+import com.imsweb.validation.internal.ContextEntriesEvaluator;
 import com.imsweb.validation.runtime.validator.FakeRuntimeEdits;
 
 @SuppressWarnings("ThrowableResultOfMethodCallIgnored")
@@ -241,6 +255,12 @@ public class ValidationEngineTest {
         // after running some edits, there should be some stats available...
         Assert.assertFalse(ValidationEngine.getInstance().getStats().isEmpty());
         Assert.assertNotNull(ValidationEngine.getInstance().getStats().values().iterator().next().getId());
+        Map<String, EngineStats> statsSnapshot = ValidationEngine.getInstance().getAndResetStats();
+        Assert.assertTrue(statsSnapshot.get("fv-rule1").getNumRun() > 0);
+        Assert.assertTrue(statsSnapshot.get("fv-rule1").getTotalTimeNanos() > 0);
+        Assert.assertTrue(ValidationEngine.getInstance().getStats().isEmpty());
+        ValidationEngine.getInstance().validate(validatable);
+        Assert.assertFalse(ValidationEngine.getInstance().getStats().isEmpty());
         ValidationEngine.getInstance().resetStats();
         Assert.assertTrue(ValidationEngine.getInstance().getStats().isEmpty());
 
@@ -257,7 +277,21 @@ public class ValidationEngineTest {
         ((List<Map<String, Object>>)entity.get("level2")).getFirst().put("prop", "0");
 
         Assert.assertTrue(ValidationEngine.getInstance().getStats().isEmpty());
+
+        // sampled stats are extrapolated to all the validations (using a deterministic sampler, every fourth validation is timed)
+        AtomicInteger numSamplerCalls = new AtomicInteger();
+        ValidationEngine.getInstance().setEditsStatsSampler(rate -> numSamplerCalls.incrementAndGet() % rate == 0);
+        ValidationEngine.getInstance().setEditsStatsEnabled(true, 4);
+        Assert.assertEquals(4, ValidationEngine.getInstance().getEditsStatsSamplingRate());
+        for (int i = 0; i < 400; i++)
+            ValidationEngine.getInstance().validate(validatable);
+        Assert.assertEquals(100, ValidationEngine.getInstance().getStats().get("fv-rule1").getNumRun());
+        Assert.assertEquals(400, ValidationEngine.getInstance().getExtrapolatedStats().get("fv-rule1").getNumRun());
+        ValidationEngine.getInstance().resetStats();
+        ValidationEngine.getInstance().setEditsStatsSampler(rate -> ThreadLocalRandom.current().nextInt(rate) == 0);
+
         ValidationEngine.getInstance().setEditsStatsEnabled(true);
+        Assert.assertEquals(1, ValidationEngine.getInstance().getEditsStatsSamplingRate());
         Assert.assertTrue(ValidationEngine.getInstance().isEditsStatsEnabled());
 
         TestingUtils.unloadValidator("fake-validator");
@@ -344,6 +378,579 @@ public class ValidationEngineTest {
         Assert.assertTrue(ValidationEngine.getInstance().validate(new SimpleMapValidatable("ID", "bad-level", entity)).isEmpty());
     }
 
+    @Test
+    public void testValidateAll() throws Exception {
+        TestingUtils.loadValidator("fake-validator");
+
+        // rule3 should fail on every other validatable
+        List<Validatable> validatables = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> entity = new HashMap<>();
+            List<Map<String, Object>> level2List = new ArrayList<>();
+            Map<String, Object> level2 = new HashMap<>();
+            level2List.add(level2);
+            entity.put("level2", level2List);
+            List<Map<String, Object>> level3List = new ArrayList<>();
+            Map<String, Object> level3 = new HashMap<>();
+            level3.put("prop", i % 2 == 0 ? "1" : "2");
+            level3List.add(level3);
+            level2.put("level3", level3List);
+            validatables.add(new SimpleMapValidatable(String.valueOf(i), "level1", entity));
+        }
+
+        // default options (results handed to the sink as they complete)
+        Map<String, Collection<RuleFailure>> results = new HashMap<>();
+        Assert.assertEquals(100, ValidationEngine.getInstance().validateAll(validatables, (v, f) -> results.put(v.getDisplayId(), f)));
+        Assert.assertEquals(100, results.size());
+        for (int i = 0; i < 100; i++) {
+            if (i % 2 == 0)
+                TestingUtils.assertEditFailure(results.get(String.valueOf(i)), "fv-rule3");
+            else
+                TestingUtils.assertNoEditFailure(results.get(String.valueOf(i)), "fv-rule3");
+        }
+
+        // preserving the order, using virtual threads and a very small window
+        BatchValidationOptions options = new BatchValidationOptions();
+        options.enablePreserveOrder();
+        options.enableVirtualThreads();
+        options.setMaxPendingValidatables(3);
+        List<String> ids = new ArrayList<>();
+        AtomicBoolean streamClosed = new AtomicBoolean(false);
+        Assert.assertEquals(100, ValidationEngine.getInstance().validateAll(validatables.stream().onClose(() -> streamClosed.set(true)), options, (v, f) -> ids.add(v.getDisplayId())));
+        for (int i = 0; i < 100; i++)
+            Assert.assertEquals(String.valueOf(i), ids.get(i));
+        Assert.assertTrue(streamClosed.get());
+
+        // an exception in the sink stops the batch
+        try {
+            ValidationEngine.getInstance().validateAll(validatables, options, (v, f) -> {
+                throw new ValidationException("sink failure");
+            });
+            Assert.fail("Was expecting an exception, didn't get it...");
+        }
+        catch (ValidationException e) {
+            Assert.assertEquals("sink failure", e.getMessage());
+        }
+
+        TestingUtils.unloadValidator("fake-validator");
+    }
+
+    @Test
+    public void testScriptPool() throws Exception {
+        InitializationOptions options = new InitializationOptions();
+        options.setScriptPoolSize(4);
+        options.disablePreCompiledEdits();
+        ValidationEngine engine = new ValidationEngine();
+        engine.initialize(options, ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml")));
+
+        List<Validatable> validatables = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Map<String, Object> entity = new HashMap<>();
+            List<Map<String, Object>> level2List = new ArrayList<>();
+            Map<String, Object> level2 = new HashMap<>();
+            level2List.add(level2);
+            entity.put("level2", level2List);
+            List<Map<String, Object>> level3List = new ArrayList<>();
+            Map<String, Object> level3 = new HashMap<>();
+            level3.put("prop", i % 2 == 0 ? "1" : "2");
+            level3List.add(level3);
+            level2.put("level3", level3List);
+            validatables.add(new SimpleMapValidatable(String.valueOf(i), "level1", entity));
+        }
+
+        // several threads executing the same scripts should return the same results as a single thread
+        BatchValidationOptions batchOptions = new BatchValidationOptions();
+        batchOptions.setNumThreads(8);
+        Map<String, Collection<RuleFailure>> results = new HashMap<>();
+        engine.validateAll(validatables, batchOptions, (v, f) -> results.put(v.getDisplayId(), f));
+        for (int i = 0; i < 200; i++) {
+            if (i % 2 == 0)
+                TestingUtils.assertEditFailure(results.get(String.valueOf(i)), "fv-rule3");
+            else
+                TestingUtils.assertNoEditFailure(results.get(String.valueOf(i)), "fv-rule3");
+        }
+
+        // contentions are possible (there are more threads than scripts) but resetting the stats must clear them
+        Assert.assertNotNull(engine.getScriptContentions());
+        engine.resetStats();
+        Assert.assertTrue(engine.getScriptContentions().isEmpty());
+
+        engine.uninitialize();
+    }
+
+    @Test
+    public void testEditsParallelism() throws Exception {
+        Validator v = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+
+        // add independent edits on the root level, plus a few edits depending on them
+        for (int i = 1; i <= 8; i++) {
+            Rule r = new Rule();
+            r.setId("fv-par" + i);
+            r.setJavaPath("level1");
+            r.setMessage("message " + i);
+            r.setExpression(i % 2 == 0 ? "return level1.prop != '1'" : "return level1.prop != '2'");
+            if (i > 4)
+                r.setDependencies(Collections.singleton("fv-par" + (i - 4)));
+            r.setValidator(v);
+            v.getRules().add(r);
+        }
+
+        ValidationEngine sequentialEngine = new ValidationEngine();
+        sequentialEngine.initialize(new InitializationOptions(), Collections.singletonList(v));
+        InitializationOptions options = new InitializationOptions();
+        options.setEditsParallelism(4);
+        ValidationEngine parallelEngine = new ValidationEngine();
+        parallelEngine.initialize(options, Collections.singletonList(v));
+
+        for (String prop : Arrays.asList("1", "2", "3")) {
+            Map<String, Object> entity = new HashMap<>();
+            entity.put("prop", prop);
+            Validatable validatable = new SimpleMapValidatable("ID", "level1", entity);
+
+            // same failures, in the same order
+            List<String> expected = sequentialEngine.validate(validatable).stream().map(f -> f.getRule().getId()).toList();
+            for (int i = 0; i < 10; i++)
+                Assert.assertEquals(expected, parallelEngine.validate(validatable).stream().map(f -> f.getRule().getId()).toList());
+
+            // edits depending on a failing edit are not executed
+            if ("1".equals(prop)) {
+                Assert.assertTrue(expected.containsAll(Arrays.asList("fv-par2", "fv-par4")));
+                Assert.assertFalse(expected.contains("fv-par6") || expected.contains("fv-par8"));
+            }
+        }
+
+        sequentialEngine.uninitialize();
+        parallelEngine.uninitialize();
+    }
+
+    @Test
+    public void testCollectionsParallelism() throws Exception {
+        List<Validator> validators = Collections.singletonList(ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml")));
+
+        ValidationEngine sequentialEngine = new ValidationEngine();
+        sequentialEngine.initialize(new InitializationOptions(), validators);
+        InitializationOptions options = new InitializationOptions();
+        options.setCollectionsParallelism(4);
+        options.setCollectionsParallelismThreshold(2);
+        ValidationEngine parallelEngine = new ValidationEngine();
+        parallelEngine.initialize(options, validators);
+
+        // many level2 elements, with a few level3 elements each; every other level3 element fails rule3
+        Map<String, Object> entity = new HashMap<>();
+        List<Map<String, Object>> level2List = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Map<String, Object> level2 = new HashMap<>();
+            List<Map<String, Object>> level3List = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                Map<String, Object> level3 = new HashMap<>();
+                level3.put("prop", (i + j) % 2 == 0 ? "1" : "2");
+                level3List.add(level3);
+            }
+            level2.put("level3", level3List);
+            level2List.add(level2);
+        }
+        entity.put("level2", level2List);
+        Validatable validatable = new SimpleMapValidatable("ID", "level1", entity);
+
+        // same failures, in the same order
+        List<String> expected = sequentialEngine.validate(validatable).stream().map(f -> f.getRule().getId() + "@" + f.getProperties()).toList();
+        Assert.assertEquals(30, expected.size());
+        for (int i = 0; i < 10; i++)
+            Assert.assertEquals(expected, parallelEngine.validate(validatable).stream().map(f -> f.getRule().getId() + "@" + f.getProperties()).toList());
+
+        // the failures are available on the context once the validation is done
+        ValidatingContext context = new ValidatingContext();
+        parallelEngine.validate(validatable, context);
+        Assert.assertEquals(1 + 20 + 60, context.getFailedRuleIds().size());
+        Assert.assertTrue(context.getFailedRuleIds().get("level1.level2[3].level3[1]").contains("fv-rule3"));
+        Assert.assertFalse(context.getFailedRuleIds().get("level1.level2[3].level3[0]").contains("fv-rule3"));
+
+        sequentialEngine.uninitialize();
+        parallelEngine.uninitialize();
+    }
+
+    @Test
+    public void testValidateWithListener() throws Exception {
+        TestingUtils.loadValidator("fake-validator");
+
+        Map<String, Object> entity = new HashMap<>();
+        List<Map<String, Object>> level2List = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> level2 = new HashMap<>();
+            List<Map<String, Object>> level3List = new ArrayList<>();
+            Map<String, Object> level3 = new HashMap<>();
+            level3.put("prop", i % 2 == 0 ? "1" : "2");
+            level3List.add(level3);
+            level2.put("level3", level3List);
+            level2List.add(level2);
+        }
+        entity.put("level2", level2List);
+        Validatable validatable = new SimpleMapValidatable("ID", "level1", entity);
+
+        // the listener receives the same failures, in the same order
+        List<RuleFailure> received = new ArrayList<>();
+        ValidationEngine.getInstance().validate(validatable, received::add);
+        List<RuleFailure> returned = new ArrayList<>(ValidationEngine.getInstance().validate(validatable));
+        Assert.assertEquals(3, received.size());
+        Assert.assertEquals(returned.stream().map(f -> f.getRule().getId() + "@" + f.getProperties()).toList(),
+                received.stream().map(f -> f.getRule().getId() + "@" + f.getProperties()).toList());
+
+        // the context is populated like with the other methods
+        ValidatingContext context = new ValidatingContext();
+        Map<String, Integer> counts = new HashMap<>();
+        ValidationEngine.getInstance().validate(validatable, context, f -> counts.merge(f.getRule().getId(), 1, Integer::sum));
+        Assert.assertEquals(Collections.singletonMap("fv-rule3", 3), counts);
+        Assert.assertTrue(context.getFailedRuleIds().get("level1.level2[0].level3[0]").contains("fv-rule3"));
+
+        TestingUtils.unloadValidator("fake-validator");
+    }
+
+    @Test
+    public void testValidateDuringModifications() throws Exception {
+        TestingUtils.loadValidator("fake-validator");
+
+        Map<String, Object> entity = new HashMap<>();
+        List<Map<String, Object>> level2List = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> level2 = new HashMap<>();
+            List<Map<String, Object>> level3List = new ArrayList<>();
+            Map<String, Object> level3 = new HashMap<>();
+            level3.put("prop", i % 2 == 0 ? "1" : "2");
+            level3List.add(level3);
+            level2.put("level3", level3List);
+            level2List.add(level2);
+        }
+        entity.put("level2", level2List);
+        Validatable validatable = new SimpleMapValidatable("ID", "level1", entity);
+
+        // every validation uses a single state of the engine, so the edit either fails on all the levels or it is ignored on all of them
+        AtomicBoolean done = new AtomicBoolean(false);
+        List<Integer> counts = Collections.synchronizedList(new ArrayList<>());
+        Thread validating = new Thread(() -> {
+            try {
+                while (!done.get())
+                    counts.add((int)ValidationEngine.getInstance().validate(validatable).stream().filter(f -> "fv-rule3".equals(f.getRule().getId())).count());
+            }
+            catch (ValidationException e) {
+                counts.add(-1);
+            }
+        });
+        validating.start();
+        for (int i = 0; i < 50; i++) {
+            ValidationEngine.getInstance().massUpdateIgnoreFlags(Collections.singleton("fv-rule3"), null);
+            Assert.assertNotNull(ValidationEngine.getInstance().getRule("fv-rule3"));
+            ValidationEngine.getInstance().massUpdateIgnoreFlags(null, Collections.singleton("fv-rule3"));
+        }
+        done.set(true);
+        validating.join();
+        Assert.assertFalse(counts.isEmpty());
+        for (Integer count : counts)
+            Assert.assertTrue(count == 0 || count == 3);
+        Assert.assertEquals(3, ValidationEngine.getInstance().validate(validatable).size());
+
+        TestingUtils.unloadValidator("fake-validator");
+    }
+
+    @Test
+    public void testReloadValidator() throws Exception {
+        Validator original = TestingUtils.loadValidator("fake-validator");
+
+        Map<String, Object> entity = new HashMap<>();
+        List<Map<String, Object>> level2List = new ArrayList<>();
+        Map<String, Object> level2 = new HashMap<>();
+        List<Map<String, Object>> level3List = new ArrayList<>();
+        level3List.add(Collections.singletonMap("prop", "1"));
+        level2.put("level3", level3List);
+        level2List.add(level2);
+        entity.put("level2", level2List);
+        Validatable validatable = new SimpleMapValidatable("ID", "level1", entity);
+        Assert.assertEquals(1, ValidationEngine.getInstance().validate(validatable).size());
+
+        // reload a new version of the validator (same content)
+        Validator reloaded = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        InitializationStats stats = ValidationEngine.getInstance().reloadValidator(reloaded);
+        Assert.assertEquals(reloaded.getRules().size(), stats.getNumEditsLoaded());
+        Assert.assertSame(reloaded, ValidationEngine.getInstance().getValidator("fake-validator"));
+        Assert.assertNotSame(original, ValidationEngine.getInstance().getValidator("fake-validator"));
+        Assert.assertSame(reloaded, ValidationEngine.getInstance().getRule("fv-rule3").getValidator());
+        Assert.assertEquals(1, ValidationEngine.getInstance().validate(validatable).size());
+
+        // a new version with an error doesn't replace the current one
+        Validator invalid = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        invalid.getRule("fv-rule3").setDependencies(Collections.singleton("unknown-rule"));
+        try {
+            ValidationEngine.getInstance().reloadValidator(invalid);
+            Assert.fail("Was expecting an exception");
+        }
+        catch (ConstructionException e) {
+            // expected
+        }
+        Assert.assertSame(reloaded, ValidationEngine.getInstance().getValidator("fake-validator"));
+        Assert.assertEquals(1, ValidationEngine.getInstance().validate(validatable).size());
+
+        TestingUtils.unloadValidator("fake-validator");
+    }
+
+    @Test
+    public void testLazyCompilation() throws Exception {
+        Map<String, Object> entity = new HashMap<>();
+        entity.put("prop", "1");
+        Validatable validatable = new SimpleMapValidatable("ID", "level1", entity);
+
+        InitializationOptions options = new InitializationOptions();
+        options.enableLazyCompilation(false);
+        Assert.assertTrue(options.isLazyCompilationEnabled());
+        Assert.assertFalse(options.isBackgroundCompilationEnabled());
+
+        // nothing is compiled during the initialization
+        Validator validator = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        ValidationEngine engine = new ValidationEngine();
+        InitializationStats stats = engine.initialize(options, validator);
+        Assert.assertEquals(validator.getRules().size(), stats.getNumEditsLoaded());
+        Assert.assertEquals(validator.getRules().size(), stats.getNumEditsDeferred());
+        Assert.assertEquals(0, stats.getNumEditsCompiled());
+        Assert.assertEquals(0, stats.getNumEditsCompiledLazily());
+        Assert.assertTrue(engine._executableRules.get(validator.getRule("fv-rule1").getRuleId()).isCompilationDeferred());
+
+        // the executed edits are compiled on demand
+        TestingUtils.assertEditFailure(engine.validate(validatable), "fv-rule1");
+        Assert.assertFalse(engine._executableRules.get(validator.getRule("fv-rule1").getRuleId()).isCompilationDeferred());
+        Assert.assertTrue(stats.getNumEditsCompiledLazily() > 0);
+        Assert.assertEquals(stats.getNumEditsCompiledLazily(), stats.getValidatorStats().getFirst().getNumEditsCompiledLazily());
+
+        // an edit that doesn't compile is only reported when it is executed
+        validator = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        validator.getRule("fv-rule1").setExpression("def x = 1\ndef x = 2\nreturn true");
+        engine = new ValidationEngine();
+        engine.initialize(options, validator);
+        Throwable failure = null;
+        for (int i = 0; i < 2; i++) {
+            try {
+                engine.validate(validatable);
+                Assert.fail("Was expecting an exception");
+            }
+            catch (ValidationException e) {
+                // the compilation failure is remembered, the edit is not compiled again
+                Throwable cause = e;
+                while (cause.getCause() != null)
+                    cause = cause.getCause();
+                if (failure != null)
+                    Assert.assertSame(failure, cause);
+                failure = cause;
+            }
+        }
+        Assert.assertFalse(engine._executableRules.get(validator.getRule("fv-rule1").getRuleId()).isCompilationDeferred());
+
+        // with background compilation, all the edits eventually get compiled
+        options = new InitializationOptions();
+        options.enableLazyCompilation(true);
+        validator = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        engine = new ValidationEngine();
+        stats = engine.initialize(options, validator);
+        long timeout = System.currentTimeMillis() + 10000;
+        while (stats.getNumEditsCompiledLazily() < stats.getNumEditsDeferred() && System.currentTimeMillis() < timeout)
+            Thread.sleep(10);
+        Assert.assertEquals(stats.getNumEditsDeferred(), stats.getNumEditsCompiledLazily());
+        TestingUtils.assertEditFailure(engine.validate(validatable), "fv-rule1");
+    }
+
+    @Test
+    public void testScriptCompilers() throws Exception {
+        Assert.assertFalse(ValidationEngine.getInstance()._compilers.containsKey("fake-validator"));
+
+        // the edits and conditions of a validator are compiled by the compiler of that validator
+        TestingUtils.loadValidator("fake-validator");
+        Assert.assertTrue(ValidationEngine.getInstance()._compilers.containsKey("fake-validator"));
+        Map<String, Object> entity = new HashMap<>();
+        entity.put("prop", "1");
+        Assert.assertEquals(1, ValidationEngine.getInstance().validate(new SimpleMapValidatable("ID", "level1", entity)).size());
+
+        // the compiler is released with its validator
+        TestingUtils.unloadValidator("fake-validator");
+        Assert.assertFalse(ValidationEngine.getInstance()._compilers.containsKey("fake-validator"));
+
+        // and when the engine is un-initialized
+        ValidationEngine engine = new ValidationEngine();
+        engine.initialize(ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml")));
+        Assert.assertEquals(1, engine._compilers.size());
+        engine.uninitialize();
+        Assert.assertTrue(engine._compilers.isEmpty());
+
+        // a failed initialization doesn't leave any compiler behind
+        Validator invalid = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        invalid.getRule("fv-rule3").setDependencies(Collections.singleton("unknown-rule"));
+        try {
+            engine.initialize(invalid);
+            Assert.fail("Was expecting an exception");
+        }
+        catch (ConstructionException e) {
+            // expected
+        }
+        Assert.assertTrue(engine._compilers.isEmpty());
+        Assert.assertFalse(engine.isInitialized());
+    }
+
+    @Test
+    public void testCompiledScriptsCache() throws Exception {
+        Path directory = Files.createTempDirectory("validation-scripts-cache");
+        try {
+            Map<String, Object> entity = new HashMap<>();
+            entity.put("prop", "1");
+            Validatable validatable = new SimpleMapValidatable("ID", "level1", entity);
+
+            InitializationOptions options = new InitializationOptions();
+            options.setCompiledScriptsCacheDirectory(directory.toFile());
+
+            // first initialization compiles everything and populates the cache
+            ValidationEngine engine = new ValidationEngine();
+            engine.initialize(options, ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml")));
+            Assert.assertEquals(0, engine._scriptCache.getNumHits());
+            Assert.assertTrue(engine._scriptCache.getNumMisses() > 0);
+            List<Path> entries;
+            try (Stream<Path> stream = Files.list(directory)) {
+                entries = stream.toList();
+            }
+            Assert.assertFalse(entries.isEmpty());
+            Assert.assertTrue(entries.stream().allMatch(p -> p.toString().endsWith(".bin")));
+            Collection<RuleFailure> expected = engine.validate(validatable);
+
+            // second initialization loads everything from the cache
+            engine = new ValidationEngine();
+            engine.initialize(options, ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml")));
+            Assert.assertEquals(0, engine._scriptCache.getNumMisses());
+            Assert.assertEquals(entries.size(), engine._scriptCache.getNumHits());
+            Assert.assertEquals(expected.size(), engine.validate(validatable).size());
+
+            // a corrupted entry is compiled again
+            Files.write(entries.getFirst(), new byte[] {1, 2, 3});
+            engine = new ValidationEngine();
+            engine.initialize(options, ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml")));
+            Assert.assertEquals(1, engine._scriptCache.getNumMisses());
+            Assert.assertEquals(expected.size(), engine.validate(validatable).size());
+            Assert.assertTrue(Files.size(entries.getFirst()) > 3);
+        }
+        finally {
+            try (Stream<Path> stream = Files.list(directory)) {
+                for (Path p : stream.toList())
+                    Files.delete(p);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testDynamicCompiledRules() throws Exception {
+        Map<String, Object> entity = new HashMap<>();
+        List<Map<String, Object>> level2List = new ArrayList<>();
+        Map<String, Object> level2 = new HashMap<>();
+        level2List.add(level2);
+        entity.put("level2", level2List);
+        List<Map<String, Object>> level3List = new ArrayList<>();
+        Map<String, Object> level3 = new HashMap<>();
+        level3.put("prop", "1");
+        level3List.add(level3);
+        level2.put("level3", level3List);
+        Validatable validatable = new SimpleMapValidatable("ID", "level1", entity);
+
+        InitializationOptions options = new InitializationOptions();
+        options.enableDynamicCompiledRules();
+        Assert.assertTrue(options.isDynamicCompiledRulesEnabled());
+
+        // all the edits of the fake validator can be generated
+        Validator validator = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        ValidationEngine engine = new ValidationEngine();
+        InitializationStats stats = engine.initialize(options, validator);
+        Assert.assertEquals(validator.getRules().size(), stats.getNumEditsPreCompiled());
+        Assert.assertEquals(0, stats.getNumEditsCompiled());
+        Assert.assertNull(stats.getValidatorStats().getFirst().getReasonNotPreCompiled());
+        Collection<RuleFailure> results = engine.validate(validatable);
+        TestingUtils.assertNoEditFailure(results, "fv-rule1");
+        TestingUtils.assertNoEditFailure(results, "fv-rule2");
+        TestingUtils.assertEditFailure(results, "fv-rule3");
+
+        // the edits using undeclared variables or script-only constructs are compiled as scripts, and they behave the same way
+        validator = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        validator.getRule("fv-rule1").setExpression("value = level1.prop\nreturn value != Context.FV_CONTEXT1");
+        validator.getRule("fv-rule3").setExpression("def check(v) { v != Context.FV_CONTEXT1 }\nreturn check(level3.prop)");
+        engine = new ValidationEngine();
+        stats = engine.initialize(options, validator);
+        Assert.assertEquals(1, stats.getNumEditsPreCompiled());
+        Assert.assertEquals(2, stats.getNumEditsCompiled());
+        results = engine.validate(validatable);
+        TestingUtils.assertNoEditFailure(results, "fv-rule1");
+        TestingUtils.assertNoEditFailure(results, "fv-rule2");
+        TestingUtils.assertEditFailure(results, "fv-rule3");
+
+        // when no edit can be generated, the reason is reported
+        validator = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        for (Rule rule : validator.getRules())
+            rule.setExpression("value = 1\nreturn true");
+        stats = new ValidationEngine().initialize(options, validator);
+        Assert.assertEquals(0, stats.getNumEditsPreCompiled());
+        Assert.assertTrue(stats.getValidatorStats().getFirst().getReasonNotPreCompiled().startsWith(InitializationStats.REASON_NOT_GENERATED.replace("{0}", "")));
+
+        // a large validator is generated as several classes, and the edits failing to compile are still executed as scripts
+        validator = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        for (int i = 0; i < 250; i++) {
+            Rule r = new Rule();
+            r.setId("fv-gen" + i);
+            r.setJavaPath("level1");
+            r.setExpression(i == 150 ? "value = level1.prop\nreturn value == null && " + i + " % 2 == 1" : "return level1.prop == null && " + i + " % 2 == 0");
+            r.setValidator(validator);
+            validator.getRules().add(r);
+        }
+        engine = new ValidationEngine();
+        stats = engine.initialize(options, validator);
+        Assert.assertEquals(validator.getRules().size() - 1, stats.getNumEditsPreCompiled());
+        Assert.assertEquals(1, stats.getNumEditsCompiled());
+        Assert.assertNull(stats.getValidatorStats().getFirst().getReasonNotPreCompiled());
+        results = engine.validate(validatable);
+        TestingUtils.assertEditFailure(results, "fv-gen1");
+        TestingUtils.assertEditFailure(results, "fv-gen150");
+        TestingUtils.assertNoEditFailure(results, "fv-gen0");
+
+        // the validators providing their own pre-compiled edits still use them
+        stats = new ValidationEngine().initialize(options, FakeRuntimeEdits.getValidator());
+        Assert.assertEquals(2, stats.getNumEditsPreCompiled());
+        Assert.assertEquals(0, stats.getNumEditsCompiled());
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        Path file = Files.createTempFile("validation-engine", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.imsweb.validation.Validation");
+            recording.enable("com.imsweb.validation.EditExecution");
+            recording.enable("com.imsweb.validation.RuleCompilation");
+            recording.enable("com.imsweb.validation.ContextEvaluation");
+            recording.start();
+
+            TestingUtils.loadValidator("fake-validator");
+            Map<String, Object> entity = new HashMap<>();
+            entity.put("prop", "1");
+            ValidationEngine.getInstance().validate(new SimpleMapValidatable("ID", "level1", entity));
+            TestingUtils.unloadValidator("fake-validator");
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent validation = events.stream().filter(e -> e.getEventType().getName().equals("com.imsweb.validation.Validation")).findFirst().orElseThrow();
+            Assert.assertEquals("level1", validation.getString("rootLevel"));
+            Assert.assertEquals(1, validation.getInt("numFailures"));
+            RecordedEvent execution = events.stream().filter(e -> e.getEventType().getName().equals("com.imsweb.validation.EditExecution") && "fv-rule1".equals(e.getString(
+                    "editId"))).findFirst().orElseThrow();
+            Assert.assertEquals("level1", execution.getString("javaPath"));
+            Assert.assertFalse(execution.getBoolean("passed"));
+            Assert.assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.imsweb.validation.RuleCompilation") && "fv-rule3".equals(e.getString("editId"))));
+            Assert.assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.imsweb.validation.ContextEvaluation") && "FV_CONTEXT1".equals(e.getString(
+                    "contextKey"))));
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
     @Test
     public void testRuntimeValidation() throws IOException, ConstructionException, ValidationException {
 
@@ -355,6 +962,7 @@ public class ValidationEngineTest {
         ValidationEngine normalEngine = new ValidationEngine();
         InitializationStats stats = normalEngine.initialize(normalValidator);
         Assert.assertTrue(stats.getInitializationDuration() > 0);
+        Assert.assertNull(ValidationXmlUtils.consumeParsingDurations(normalValidator)); // the parsing durations are only reported once
         Assert.assertEquals(2, stats.getNumEditsLoaded());
         Assert.assertEquals(0, stats.getNumEditsPreCompiled());
         Assert.assertEquals(2, stats.getNumEditsCompiled());
@@ -373,11 +981,13 @@ public class ValidationEngineTest {
         stats = runtimeEngine.initialize(runtimeValidator);
         Assert.assertEquals(2, stats.getNumEditsLoaded());
         Assert.assertEquals(2, stats.getNumEditsPreCompiled());
+        Assert.assertEquals(0, stats.getNumEditsSpreadingInvoker());
         Assert.assertEquals(0, stats.getNumEditsCompiled());
         valStats = stats.getValidatorStats().getFirst();
         Assert.assertEquals("fake-validator-runtime", valStats.getValidatorId());
         Assert.assertEquals(2, valStats.getNumEditsLoaded());
         Assert.assertEquals(2, valStats.getNumEditsPreCompiled());
+        Assert.assertEquals(0, valStats.getNumEditsSpreadingInvoker());
         Assert.assertEquals(0, valStats.getNumEditsCompiled());
         Assert.assertNull(valStats.getReasonNotPreCompiled());
 
@@ -1080,6 +1690,37 @@ public class ValidationEngineTest {
         Assert.assertEquals("OTHER", ValidationEngine.getInstance().getValidator("fake-validator-changed").getName());
         TestingUtils.assertEditFailure(ValidationEngine.getInstance().validate(validatable), "fv-rule3");
 
+        // an update keeping the same ID replaces the current version
+        EditableValidator sameIdEditableValidator = new EditableValidator(ValidationEngine.getInstance().getValidator("fake-validator-changed"));
+        sameIdEditableValidator.setName("OTHER AGAIN");
+        ValidationEngine.getInstance().updateValidator(sameIdEditableValidator);
+        Assert.assertEquals("OTHER AGAIN", ValidationEngine.getInstance().getValidator("fake-validator-changed").getName());
+        TestingUtils.assertEditFailure(ValidationEngine.getInstance().validate(validatable), "fv-rule3");
+
+        // an update with an error leaves the current version in place
+        Validator invalid = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        invalid.getRule("fv-rule3").setDependencies(Collections.singleton("unknown-rule"));
+        EditableValidator invalidEditableValidator = new EditableValidator(invalid);
+        invalidEditableValidator.setValidatorId(editableValidator.getValidatorId());
+        invalidEditableValidator.setId("fake-validator-changed");
+        try {
+            ValidationEngine.getInstance().updateValidator(invalidEditableValidator);
+            Assert.fail("Was expecting an exception");
+        }
+        catch (ConstructionException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Unable to resolve dependency 'unknown-rule'"));
+        }
+        Assert.assertNotNull(ValidationEngine.getInstance().getValidator("fake-validator-changed"));
+        Assert.assertEquals("OTHER AGAIN", ValidationEngine.getInstance().getValidator("fake-validator-changed").getName());
+        TestingUtils.assertEditFailure(ValidationEngine.getInstance().validate(validatable), "fv-rule3");
+
+        // the next modification still sees the current version
+        ValidationEngine.getInstance().addContext(null, "FV_CONTEXT_AFTER_FAILURE", "fake-validator-changed", "[1, 2]", "java");
+        Assert.assertNotNull(ValidationEngine.getInstance().getValidator("fake-validator-changed"));
+        Assert.assertEquals("OTHER AGAIN", ValidationEngine.getInstance().getValidator("fake-validator-changed").getName());
+        Assert.assertNotNull(ValidationEngine.getInstance().getContext("FV_CONTEXT_AFTER_FAILURE", "fake-validator-changed"));
+        TestingUtils.assertEditFailure(ValidationEngine.getInstance().validate(validatable), "fv-rule3");
+
         ValidationEngine.getInstance().deleteValidator("fake-validator-changed");
         Assert.assertNull(ValidationEngine.getInstance().getValidator("fake-validator"));
         TestingUtils.assertNoEditFailure(ValidationEngine.getInstance().validate(validatable), "fv-rule3");
@@ -1210,6 +1851,64 @@ public class ValidationEngineTest {
         }
     }
 
+    @Test
+    public void testContextEntriesDependencies() throws Exception {
+        Validator validator = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        Map<String, String[]> entries = new LinkedHashMap<>();
+        entries.put("FV_CHAIN3", new String[] {ValidationEngine.CONTEXT_TYPE_GROOVY, "return Context.FV_CHAIN2 + 1"});
+        entries.put("FV_CHAIN2", new String[] {ValidationEngine.CONTEXT_TYPE_GROOVY, "return FV_CHAIN1 + 1"});
+        entries.put("FV_CHAIN1", new String[] {ValidationEngine.CONTEXT_TYPE_GROOVY, "return 1"});
+        entries.put("FV_INDEX", new String[] {ValidationEngine.CONTEXT_TYPE_TABLE_INDEX_DEF, "['table': 'FV_TABLE', 'columns' : 'header1']"});
+        entries.put("FV_TABLE", new String[] {ValidationEngine.CONTEXT_TYPE_TABLE, "[['header1', 'header2'], ['val1', 'val2']]"});
+        entries.put("FV_CYCLE1", new String[] {ValidationEngine.CONTEXT_TYPE_GROOVY, "return 'FV_CYCLE2'"});
+        entries.put("FV_CYCLE2", new String[] {ValidationEngine.CONTEXT_TYPE_GROOVY, "return Context.FV_CYCLE1 + '!'"});
+        entries.put("FV_DYNAMIC", new String[] {ValidationEngine.CONTEXT_TYPE_GROOVY, "return Context['FV_' + 'CHAIN3'] + 1"});
+        for (Map.Entry<String, String[]> e : entries.entrySet()) {
+            ContextEntry entry = new ContextEntry();
+            entry.setKey(e.getKey());
+            entry.setType(e.getValue()[0]);
+            entry.setExpression(e.getValue()[1]);
+            entry.setValidator(validator);
+            validator.getRawContext().add(entry);
+        }
+
+        // the references are found with or without the context prefix, and in the index definitions
+        Set<String> keys = entries.keySet();
+        Assert.assertEquals(Set.of("FV_CHAIN2"), ContextEntriesEvaluator.getReferencedKeys(validator.getRawContext("FV_CHAIN3"), keys));
+        Assert.assertEquals(Set.of("FV_CHAIN1"), ContextEntriesEvaluator.getReferencedKeys(validator.getRawContext("FV_CHAIN2"), keys));
+        Assert.assertEquals(Set.of("FV_TABLE"), ContextEntriesEvaluator.getReferencedKeys(validator.getRawContext("FV_INDEX"), keys));
+        Assert.assertTrue(ContextEntriesEvaluator.getReferencedKeys(validator.getRawContext("FV_DYNAMIC"), keys).isEmpty());
+
+        // the entries are evaluated in the right order, including the ones in a cycle and the ones with references that can't be found
+        InitializationOptions options = new InitializationOptions();
+        options.setNumCompilationThreads(4);
+        ValidationEngine engine = new ValidationEngine();
+        InitializationStats stats = engine.initialize(options, validator);
+        Map<String, Object> contexts = engine._contexts.get(validator.getValidatorId());
+        Assert.assertEquals(3, contexts.get("FV_CHAIN3"));
+        Assert.assertEquals(4, contexts.get("FV_DYNAMIC"));
+        Assert.assertEquals("FV_CYCLE2!", contexts.get("FV_CYCLE2"));
+        Assert.assertTrue(contexts.get("FV_INDEX") instanceof ContextTableIndex);
+        Assert.assertEquals(validator.getRawContext().size(), stats.getValidatorStats().getFirst().getContextEntriesDurations().size());
+        Assert.assertTrue(stats.getValidatorStats().getFirst().getContextEntriesDurations().containsKey("FV_CHAIN3"));
+
+        // an entry that can't be evaluated is still reported
+        validator = ValidationXmlUtils.loadValidatorFromXml(Thread.currentThread().getContextClassLoader().getResource("fake-validator.xml"));
+        ContextEntry entry = new ContextEntry();
+        entry.setKey("FV_BAD");
+        entry.setType(ValidationEngine.CONTEXT_TYPE_GROOVY);
+        entry.setExpression("return Context.FV_UNKNOWN.size()");
+        entry.setValidator(validator);
+        validator.getRawContext().add(entry);
+        try {
+            new ValidationEngine().initialize(validator);
+            Assert.fail("Was expecting an exception");
+        }
+        catch (ConstructionException e) {
+            // expected
+        }
+    }
+
     @Test
     public void testMassUpdateIgnoreFlags() throws Exception {
         TestingUtils.loadValidator("fake-validator");
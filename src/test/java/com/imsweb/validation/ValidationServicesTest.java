@@ -16,6 +16,8 @@ import org.junit.Test;
 
 import com.imsweb.validation.entities.ContextTable;
 import com.imsweb.validation.entities.ContextTableIndex;
+import com.imsweb.validation.entities.LegacyContextIndex;
+import com.imsweb.validation.entities.LegacyContextTable;
 import com.imsweb.validation.entities.SimpleMapValidatable;
 import com.imsweb.validation.entities.Validatable;
 
@@ -200,6 +202,7 @@ public class ValidationServicesTest {
      * Created on Oct 5, 2010 by depryf
      */
     @Test
+    @SuppressWarnings("unchecked")
     public void testAddJavaContextExpression() throws ConstructionException {
         Map<String, Object> context = new HashMap<>();
 
@@ -293,6 +296,25 @@ public class ValidationServicesTest {
         }
         if (!exception)
             Assert.fail("Was excepting exception, didn't get it!");
+
+        // legacy (v4) lookup indexes and tables are upgraded, but they are still the same (modifiable) lists
+        ValidationServices.getInstance().addJavaContextExpression("[['A', 2], ['B', 1]]", context, "key");
+        Assert.assertTrue(context.get("key") instanceof LegacyContextIndex);
+        Assert.assertEquals(Arrays.asList(Arrays.asList("A", 2), Arrays.asList("B", 1)), context.get("key"));
+        ValidationServices.getInstance().addJavaContextExpression("['A', 'B']", context, "key");
+        Assert.assertTrue(context.get("key") instanceof LegacyContextIndex);
+        Assert.assertEquals(Arrays.asList("A", "B"), context.get("key"));
+        ((List<Object>)context.get("key")).addFirst("C");
+        ((List<Object>)context.get("key")).sort(null);
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), context.get("key"));
+        ValidationServices.getInstance().addJavaContextExpression("[['H1', 'H2'], ['A', 'B']]", context, "key");
+        Assert.assertTrue(context.get("key") instanceof LegacyContextTable);
+        Assert.assertEquals(Arrays.asList(Arrays.asList("H1", "H2"), Arrays.asList("A", "B")), context.get("key"));
+
+        // an index that is not sorted is left alone since the lookups on it depend on the order of its elements
+        ValidationServices.getInstance().addJavaContextExpression("['B', 'A']", context, "key");
+        Assert.assertFalse(context.get("key") instanceof LegacyContextIndex);
+        Assert.assertEquals(Arrays.asList("B", "A"), context.get("key"));
     }
 
     /**
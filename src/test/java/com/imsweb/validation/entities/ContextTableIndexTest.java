@@ -127,5 +127,47 @@ public class ContextTableIndexTest {
         Assert.assertEquals(3, idx4.findFloor("4"));
         Assert.assertEquals(5, idx4.findFloor("5"));
         Assert.assertEquals(5, idx4.findFloor("6"));
+
+        // with non-unique keys, find returns the first row having the key
+        Assert.assertEquals(0, idx4.find("1"));
+        Assert.assertEquals(2, idx4.find("3"));
+        Assert.assertEquals(4, idx4.find("5"));
+        Assert.assertEquals(-1, idx4.find("4"));
+
+        // an empty table never finds anything
+        table = new ContextTable("table", Collections.singletonList(Collections.singletonList("header1")));
+        ContextTableIndex idx5 = new ContextTableIndex("idx5", table, Collections.singletonList("header1"));
+        Assert.assertEquals(-1, idx5.find("1"));
+        Assert.assertEquals(-1, idx5.findFloor("1"));
+    }
+
+    @Test
+    public void testLargeNonUniqueIndex() {
+        List<List<String>> tableData = new ArrayList<>();
+        tableData.add(Collections.singletonList("header1"));
+        for (int i = 0; i < 10000; i++)
+            tableData.add(Collections.singletonList(String.format("%04d", (i * 7) % 5000)));
+        ContextTable table = new ContextTable("table", tableData);
+        ContextTableIndex idx = new ContextTableIndex("idx", table, Collections.singletonList("header1"));
+        Assert.assertFalse(idx.hasUniqueKeys());
+
+        // compare the binary searches with a linear scan of the table
+        for (int i = -1; i <= 5000; i += 3) {
+            String value = String.format("%04d", i);
+            int expectedFind = -1;
+            int expectedFloor = -1;
+            String floorKey = null;
+            for (int rowIdx = 0; rowIdx < table.getData().size(); rowIdx++) {
+                String key = table.getData().get(rowIdx).getFirst();
+                if (expectedFind == -1 && key.equals(value))
+                    expectedFind = rowIdx;
+                if (key.compareTo(value) <= 0 && (floorKey == null || key.compareTo(floorKey) >= 0)) {
+                    floorKey = key;
+                    expectedFloor = rowIdx;
+                }
+            }
+            Assert.assertEquals(value, expectedFind, idx.find(value));
+            Assert.assertEquals(value, expectedFloor, idx.findFloor(value));
+        }
     }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.entities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ContextTableTest {
+
+    @Test
+    public void testTable() {
+        List<List<String>> tableData = new ArrayList<>();
+        tableData.add(Arrays.asList("header1", "header2", "header3"));
+        tableData.add(Arrays.asList("v1", "A", "v3"));
+        tableData.add(Arrays.asList(" 1", "A", " 3"));
+        tableData.add(Arrays.asList("v ", "B", "v3"));
+
+        ContextTable table = new ContextTable("table", tableData);
+        Assert.assertEquals("table", table.getName());
+        Assert.assertEquals(Arrays.asList("header1", "header2", "header3"), table.getHeaders());
+        Assert.assertEquals(3, table.getNumRows());
+        Assert.assertEquals(1, table.getColumnIndex("header2"));
+        Assert.assertEquals(-1, table.getColumnIndex("?"));
+        Assert.assertEquals(" 1", table.getCell(1, 0));
+        Assert.assertEquals("B", table.getCell(2, 1));
+
+        // the data is a view on the columns, with the same content as the original rows
+        Assert.assertEquals(tableData.subList(1, tableData.size()), table.getData());
+        Assert.assertEquals(Arrays.asList(" 1", "A", " 3"), table.getData().get(1));
+        try {
+            table.getData().add(Collections.emptyList());
+            Assert.fail("Was expecting an exception");
+        }
+        catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            table.getCell(3, 0);
+            Assert.fail("Was expecting an exception");
+        }
+        catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        // rows don't need to have the same length as the headers
+        tableData = new ArrayList<>();
+        tableData.add(Arrays.asList("header1", "header2"));
+        tableData.add(Collections.singletonList("v1"));
+        tableData.add(Arrays.asList("v1", "v2", "v3"));
+        table = new ContextTable("table", tableData);
+        Assert.assertEquals(tableData.subList(1, tableData.size()), table.getData());
+        Assert.assertEquals("v3", table.getCell(1, 2));
+    }
+
+    @Test
+    public void testBuilder() {
+        List<List<String>> tableData = new ArrayList<>();
+        tableData.add(Arrays.asList("header1", "header2"));
+        tableData.add(Arrays.asList("v1", "v2"));
+        tableData.add(Collections.singletonList("v1"));
+        tableData.add(Arrays.asList("v1", "v2", "v3"));
+        tableData.add(Collections.emptyList());
+
+        // a table created one cell at a time is the same as a table created from the rows
+        ContextTable.Builder builder = new ContextTable.Builder("table", tableData.get(0));
+        for (List<String> row : tableData.subList(1, tableData.size())) {
+            for (String value : row)
+                builder.addCell(value);
+            builder.endRow();
+        }
+        ContextTable table = builder.build();
+        Assert.assertEquals(tableData.get(0), table.getHeaders());
+        Assert.assertEquals(4, table.getNumRows());
+        Assert.assertEquals(tableData.subList(1, tableData.size()), table.getData());
+        Assert.assertEquals(new ContextTable("table", tableData).getData(), table.getData());
+
+        // the last row has to be ended
+        builder = new ContextTable.Builder("table", tableData.get(0)).addCell("v1");
+        try {
+            builder.build();
+            Assert.fail("Was expecting an exception");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+        Assert.assertEquals(1, builder.endRow().build().getNumRows());
+    }
+
+    @Test
+    public void testCopyTrimmedCell() {
+        List<List<String>> tableData = new ArrayList<>();
+        tableData.add(Arrays.asList("header1", "header2"));
+        tableData.add(Arrays.asList("abc  ", "x"));
+        tableData.add(Arrays.asList("   ", "xyz"));
+        ContextTable table = new ContextTable("table", tableData);
+
+        char[] target = "123456".toCharArray();
+        table.copyTrimmedCell(0, 0, target);
+        Assert.assertArrayEquals(new char[] {'a', 'b', 'c', '\0', '5', '6'}, target);
+        table.copyTrimmedCell(1, 0, target);
+        Assert.assertEquals('\0', target[0]);
+        target = new char[2];
+        table.copyTrimmedCell(1, 1, target);
+        Assert.assertArrayEquals("xy".toCharArray(), target);
+    }
+
+    @Test
+    public void testColumnHandles() {
+        List<List<String>> tableData = new ArrayList<>();
+        tableData.add(Arrays.asList("header1", "header2", "header3"));
+        tableData.add(Arrays.asList("v1", "v2", "v3"));
+        ContextTable table = new ContextTable("table", tableData);
+
+        Map<String, char[]> tableVars = new LinkedHashMap<>();
+        tableVars.put("header3", new char[5]);
+        tableVars.put("unknown", new char[5]);
+        ContextTable.ColumnHandles handles = table.getColumnHandles(tableVars.keySet());
+        Assert.assertEquals(2, handles.size());
+        for (int i = 0; i < handles.size(); i++)
+            Assert.assertEquals("header3".equals(handles.getHeader(i)) ? 2 : -1, handles.getColumn(i));
+
+        // the handles are computed once per set of headers, regardless of the map containing them
+        Map<String, char[]> otherTableVars = new HashMap<>();
+        otherTableVars.put("unknown", new char[5]);
+        otherTableVars.put("header3", new char[5]);
+        Assert.assertSame(handles, table.getColumnHandles(otherTableVars.keySet()));
+        Assert.assertNotSame(handles, table.getColumnHandles(Collections.singleton("header3")));
+    }
+
+    @Test
+    public void testLargeDictionaries() {
+        // the codes of the columns use different primitive types depending on the number of distinct values
+        List<List<String>> tableData = new ArrayList<>();
+        tableData.add(Arrays.asList("few", "some", "many"));
+        for (int i = 0; i < 100000; i++)
+            tableData.add(Arrays.asList(String.valueOf(i % 3), String.valueOf(i % 1000), String.valueOf(i)));
+        ContextTable table = new ContextTable("table", tableData);
+        Assert.assertEquals(100000, table.getNumRows());
+        for (int i = 0; i < 100000; i += 97) {
+            Assert.assertEquals(String.valueOf(i % 3), table.getCell(i, 0));
+            Assert.assertEquals(String.valueOf(i % 1000), table.getCell(i, 1));
+            Assert.assertEquals(String.valueOf(i), table.getCell(i, 2));
+        }
+        Assert.assertEquals(tableData.subList(1, tableData.size()), table.getData());
+    }
+}
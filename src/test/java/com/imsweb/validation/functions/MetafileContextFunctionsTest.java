@@ -25,6 +25,8 @@ import com.imsweb.validation.ConstructionException;
 import com.imsweb.validation.TestingUtils;
 import com.imsweb.validation.entities.ContextTable;
 import com.imsweb.validation.entities.ContextTableIndex;
+import com.imsweb.validation.entities.LegacyContextIndex;
+import com.imsweb.validation.entities.LegacyContextTable;
 import com.imsweb.validation.internal.context.JavaContextParser;
 
 import static com.imsweb.validation.functions.MetafileContextFunctions.TRIM_BOTH;
@@ -2006,6 +2008,94 @@ public class MetafileContextFunctionsTest {
         Assert.assertEquals("13", _functions.GEN_TO_STRING(obsType));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLegacyLookups() {
+        List<List<String>> table = new ArrayList<>();
+        table.add(Arrays.asList("CODE", "NAME"));
+        table.add(Arrays.asList("C420", "Bones"));
+        table.add(Arrays.asList("C440", "Skin "));
+        table.add(Arrays.asList("C420", "Other Bones"));
+        table.add(Arrays.asList("C400", "Limbs"));
+        List<List<Object>> index = new ArrayList<>();
+        index.add(Arrays.asList("C400", 4));
+        index.add(Arrays.asList("C420", 1));
+        index.add(Arrays.asList("C420", 3));
+        index.add(Arrays.asList("C440", 2));
+        List<String> simpleIndex = Arrays.asList("C400", "C420", "C420", "C440");
+
+        LegacyContextTable legacyTable = LegacyContextTable.create(table);
+        LegacyContextIndex legacyIndex = LegacyContextIndex.create(index);
+        LegacyContextIndex legacySimpleIndex = LegacyContextIndex.create(simpleIndex);
+        Assert.assertNotNull(legacyTable);
+        Assert.assertNotNull(legacyIndex);
+        Assert.assertNotNull(legacySimpleIndex);
+        Assert.assertEquals(table, legacyTable);
+        Assert.assertEquals(index, legacyIndex);
+        Assert.assertEquals(simpleIndex, legacySimpleIndex);
+
+        // the upgraded tables and indexes must return exactly the same results as the original lists
+        for (String value : Arrays.asList("C399", "C400", "C400 ", "C410", "C420", "C430", "C440", "C441", "C420Bones", "C440Skin", "C440Skin ", "", "???")) {
+            Map<Integer, char[]> tableVars = new HashMap<>();
+            tableVars.put(1, new char[12]);
+            Map<Integer, char[]> legacyTableVars = new HashMap<>();
+            legacyTableVars.put(1, new char[12]);
+
+            Assert.assertEquals(value, _functions.GEN_LOOKUP(value, table, index, tableVars), _functions.GEN_LOOKUP(value, legacyTable, legacyIndex, legacyTableVars));
+            Assert.assertEquals(value, _functions.GEN_TO_STRING(tableVars.get(1)), _functions.GEN_TO_STRING(legacyTableVars.get(1)));
+            Assert.assertEquals(value, _functions.GEN_LOOKUP(value, table, null, tableVars), _functions.GEN_LOOKUP(value, legacyTable, null, legacyTableVars));
+            Assert.assertEquals(value, _functions.GEN_TO_STRING(tableVars.get(1)), _functions.GEN_TO_STRING(legacyTableVars.get(1)));
+            Assert.assertEquals(value, _functions.GEN_LOOKUP(value, table, simpleIndex, tableVars), _functions.GEN_LOOKUP(value, legacyTable, legacySimpleIndex, legacyTableVars));
+            Assert.assertEquals(value, _functions.GEN_TO_STRING(tableVars.get(1)), _functions.GEN_TO_STRING(legacyTableVars.get(1)));
+            Assert.assertEquals(value, _functions.GEN_RLOOKUP(value, table, index, tableVars), _functions.GEN_RLOOKUP(value, legacyTable, legacyIndex, legacyTableVars));
+            Assert.assertEquals(value, _functions.GEN_TO_STRING(tableVars.get(1)), _functions.GEN_TO_STRING(legacyTableVars.get(1)));
+            Assert.assertEquals(value, _functions.GEN_ILOOKUP(value, index), _functions.GEN_ILOOKUP(value, legacyIndex));
+            Assert.assertEquals(value, _functions.GEN_ILOOKUP(value, simpleIndex), _functions.GEN_ILOOKUP(value, legacySimpleIndex));
+        }
+
+        // the upgraded tables and indexes can still be modified, and the lookups follow the modifications
+        legacySimpleIndex = LegacyContextIndex.create(new ArrayList<>(simpleIndex));
+        Assert.assertNotNull(legacySimpleIndex);
+        Assert.assertFalse(_functions.GEN_ILOOKUP("C430", legacySimpleIndex));
+        legacySimpleIndex.add("C430");
+        Assert.assertFalse(legacySimpleIndex.isSorted());
+        Assert.assertEquals(_functions.GEN_ILOOKUP("C430", Arrays.asList("C400", "C420", "C420", "C440", "C430")), _functions.GEN_ILOOKUP("C430", legacySimpleIndex));
+        legacySimpleIndex.sort(null);
+        Assert.assertTrue(legacySimpleIndex.isSorted());
+        Assert.assertEquals(Arrays.asList("C400", "C420", "C420", "C430", "C440"), legacySimpleIndex);
+        Assert.assertTrue(_functions.GEN_ILOOKUP("C430", legacySimpleIndex));
+        legacySimpleIndex.remove("C430");
+        Assert.assertFalse(_functions.GEN_ILOOKUP("C430", legacySimpleIndex));
+        legacyTable = LegacyContextTable.create(new ArrayList<>(table));
+        Assert.assertNotNull(legacyTable);
+        Assert.assertFalse(_functions.GEN_LOOKUP("C450Head", legacyTable, null, null));
+        legacyTable.add(Arrays.asList("C450", "Head"));
+        Assert.assertTrue(_functions.GEN_LOOKUP("C450Head", legacyTable, null, null));
+        legacyTable.set(5, Arrays.asList("C460", "Neck"));
+        Assert.assertFalse(_functions.GEN_LOOKUP("C450Head", legacyTable, null, null));
+
+        // so can their rows and pairs
+        legacyTable.get(5).set(0, "C450");
+        Assert.assertTrue(_functions.GEN_LOOKUP("C450Neck", legacyTable, null, null));
+        Assert.assertEquals(Arrays.asList("C450", "Neck"), legacyTable.get(5));
+        legacyIndex = LegacyContextIndex.create(new ArrayList<>(Arrays.asList(new ArrayList<>(Arrays.asList("C400", 4)), new ArrayList<>(Arrays.asList("C420", 1)))));
+        Assert.assertNotNull(legacyIndex);
+        Assert.assertTrue(_functions.GEN_ILOOKUP("C400", legacyIndex));
+        ((List<Object>)legacyIndex.get(0)).set(0, "C410");
+        Assert.assertFalse(_functions.GEN_ILOOKUP("C400", legacyIndex));
+        Assert.assertTrue(_functions.GEN_ILOOKUP("C410", legacyIndex));
+        ((List<Object>)legacyIndex.get(0)).set(0, "C430");
+        Assert.assertFalse(legacyIndex.isSorted());
+
+        // only the sorted and homogeneous lists are upgraded
+        Assert.assertNull(LegacyContextIndex.create(Arrays.asList("C420", "C400")));
+        Assert.assertNull(LegacyContextIndex.create(Arrays.asList("C400", Arrays.asList("C420", 1))));
+        Assert.assertNull(LegacyContextIndex.create(Collections.singletonList(Arrays.asList("C400", "1"))));
+        Assert.assertNull(LegacyContextIndex.create(Collections.emptyList()));
+        Assert.assertNull(LegacyContextTable.create(Collections.singletonList(Arrays.asList("C400", 1))));
+        Assert.assertNull(LegacyContextTable.create(Collections.emptyList()));
+    }
+
     @Test
     public void testGEN_BINLOOKUP() {
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 Information Management Services, Inc.
+ */
+package com.imsweb.validation.internal.context;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.imsweb.validation.ConstructionException;
+import com.imsweb.validation.TestingUtils;
+import com.imsweb.validation.entities.ContextTable;
+
+public class JavaContextTableParserTest {
+
+    @Test
+    public void testParseTable() throws ConstructionException {
+        ContextTable table = JavaContextTableParser.parseTable("table", "[['H1', 'H2'], ['v1', 'v2'], ['v\\'3', ' v4 '],]", null);
+        Assert.assertEquals("table", table.getName());
+        Assert.assertEquals(Arrays.asList("H1", "H2"), table.getHeaders());
+        Assert.assertEquals(Arrays.asList(Arrays.asList("v1", "v2"), Arrays.asList("v'3", " v4 ")), table.getData());
+
+        // the rows don't have to be enclosed in a list
+        table = JavaContextTableParser.parseTable("table", "['H1', 'H2'], ['v1', 'v2'], ['v\\'3', ' v4 ']", null);
+        Assert.assertEquals(Arrays.asList("H1", "H2"), table.getHeaders());
+        Assert.assertEquals(Arrays.asList(Arrays.asList("v1", "v2"), Arrays.asList("v'3", " v4 ")), table.getData());
+
+        // a table with only the headers
+        table = JavaContextTableParser.parseTable("table", "[['H1', 'H2']]", null);
+        Assert.assertEquals(Arrays.asList("H1", "H2"), table.getHeaders());
+        Assert.assertEquals(0, table.getNumRows());
+        table = JavaContextTableParser.parseTable("table", "['H1', 'H2']", null);
+        Assert.assertEquals(Arrays.asList("H1", "H2"), table.getHeaders());
+        Assert.assertEquals(0, table.getNumRows());
+
+        // rows don't need to have the same length as the headers
+        table = JavaContextTableParser.parseTable("table", "[['H1', 'H2'], ['v1'], [], ['v1', 'v2', 'v3']]", null);
+        Assert.assertEquals(Arrays.asList(Collections.singletonList("v1"), Collections.emptyList(), Arrays.asList("v1", "v2", "v3")), table.getData());
+
+        // references to other context entries
+        Map<String, Object> context = new HashMap<>();
+        context.put("OTHER_KEY", "v2");
+        table = JavaContextTableParser.parseTable("table", "[['H1', 'H2'], ['v1', OTHER_KEY]]", context);
+        Assert.assertEquals("v2", table.getCell(0, 1));
+
+        // errors
+        context.put("NUM_KEY", 1);
+        for (String expression : Arrays.asList("", "'H1'", "[]", "['H1'], 'v1'", "[['H1'], [1]]", "[['H1'], [NUM_KEY]]", "[['H1'], [UNKNOWN]]", "[['H1'], [['v1']]]",
+                "[['H1'], ['v1' : 'v2']]", "[['H1'], ['v1']", "[['H1'], ['v1'", "[['H1']] as java.util.ArrayList", "[['H1']] ['H2']",
+                "[['H1' 'H2'], ['a' 'b']]", "[['H1'] ['a']]", "['H1'] ['a']", "[['H1'], ['a',, 'b']]", "[['H1'], [, 'a']]", "[['H1'],, ['a']]", "[, ['H1']]")) {
+            try {
+                JavaContextTableParser.parseTable("table", expression, context);
+                Assert.fail("Was expecting an exception for " + expression);
+            }
+            catch (ConstructionException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testParseLargeTable() throws ConstructionException {
+        String expression = TestingUtils.readResource("tables/NAACCR_CS_OBS.txt");
+
+        // the streaming parser must create the same table as the generic parser
+        List<List<String>> data = (List<List<String>>)JavaContextParser.parseContext(expression, null);
+        ContextTable expected = new ContextTable("NAACCR_CS_OBS", data);
+        ContextTable table = JavaContextTableParser.parseTable("NAACCR_CS_OBS", expression, null);
+        Assert.assertEquals(expected.getHeaders(), table.getHeaders());
+        Assert.assertEquals(expected.getNumRows(), table.getNumRows());
+        Assert.assertEquals(expected.getData(), table.getData());
+    }
+}
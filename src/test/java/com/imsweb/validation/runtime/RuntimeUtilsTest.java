@@ -3,9 +3,19 @@
  */
 package com.imsweb.validation.runtime;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import groovy.lang.Binding;
+
+import com.imsweb.validation.ValidationContextFunctions;
+import com.imsweb.validation.ValidationEngine;
+import com.imsweb.validation.runtime.validator.FakeRuntimeEditsCompiledRules;
+
 public class RuntimeUtilsTest {
 
     @Test
@@ -50,4 +60,25 @@ public class RuntimeUtilsTest {
         Assert.assertEquals("SeerParsedContexts", RuntimeUtils.createParsedContextsClassName("seer"));
         Assert.assertEquals("SeerExtendedParsedContexts", RuntimeUtils.createParsedContextsClassName("seer-extended"));
     }
+
+    @Test
+    public void testFindCompiledRuleInvoker() throws Throwable {
+        CompiledRules compiledRules = new FakeRuntimeEditsCompiledRules();
+        List<Class<?>> parameters = compiledRules.getMethodParameters().get("runtime");
+
+        Assert.assertNull(RuntimeUtils.findCompiledRuleInvoker(compiledRules, "unknown", parameters, Collections.singletonList("runtime")));
+
+        CompiledRuleInvoker invoker = RuntimeUtils.findCompiledRuleInvoker(compiledRules, "fvrt-rule1", parameters, Collections.singletonList("runtime"));
+        Assert.assertNotNull(invoker);
+        Assert.assertFalse(invoker instanceof CompiledRuleInvoker.SpreadingInvoker);
+        Assert.assertTrue(invoker.isFixedArity());
+
+        Binding binding = new Binding();
+        binding.setVariable(ValidationEngine.VALIDATOR_CONTEXT_KEY, new HashMap<>());
+        binding.setVariable(ValidationEngine.VALIDATOR_FUNCTIONS_KEY, new ValidationContextFunctions());
+        binding.setVariable("runtime", Collections.singletonMap("key", "value"));
+        Assert.assertTrue(invoker.invoke(binding));
+        binding.setVariable("runtime", Collections.singletonMap("key", "other"));
+        Assert.assertFalse(invoker.invoke(binding));
+    }
 }